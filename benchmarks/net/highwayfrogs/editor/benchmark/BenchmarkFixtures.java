@@ -0,0 +1,275 @@
+package net.highwayfrogs.editor.benchmark;
+
+import net.highwayfrogs.editor.file.GameFile;
+import net.highwayfrogs.editor.file.GameObject;
+import net.highwayfrogs.editor.file.MWDFile;
+import net.highwayfrogs.editor.file.MWIFile;
+import net.highwayfrogs.editor.file.MWIFile.FileEntry;
+import net.highwayfrogs.editor.file.config.FroggerEXEInfo;
+import net.highwayfrogs.editor.file.config.TargetPlatform;
+import net.highwayfrogs.editor.file.map.MAPFile;
+import net.highwayfrogs.editor.file.map.MAPTheme;
+import net.highwayfrogs.editor.file.map.poly.MAPPrimitiveType;
+import net.highwayfrogs.editor.file.mof.MOFFile;
+import net.highwayfrogs.editor.file.mof.MOFHolder;
+import net.highwayfrogs.editor.file.mof.MOFPart;
+import net.highwayfrogs.editor.file.mof.MOFPartcel;
+import net.highwayfrogs.editor.file.mof.prims.MOFPolygon;
+import net.highwayfrogs.editor.file.mof.prims.MOFPrimType;
+import net.highwayfrogs.editor.file.standard.SVector;
+import net.highwayfrogs.editor.file.vlo.GameImage;
+import net.highwayfrogs.editor.file.vlo.ImageClutMode;
+import net.highwayfrogs.editor.file.vlo.VLOArchive;
+import net.highwayfrogs.editor.file.writer.ArrayReceiver;
+import net.highwayfrogs.editor.file.writer.DataWriter;
+import net.highwayfrogs.editor.gui.GUIMain;
+import net.highwayfrogs.editor.utils.Utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the data used by the benchmarks, so no game files are needed.
+ * Data is generated from a fixed seed where possible, so results can be compared between runs. (Map polygon colors are random.)
+ * Created by agent on 10/18/2026.
+ */
+public class BenchmarkFixtures {
+    private static final long SEED = 0x46524F47L;
+    private static FixtureConfig config;
+
+    /**
+     * The kinds of data the PP20 benchmarks are run against.
+     */
+    public enum Payload {
+        NOISE, // Random bytes, which barely compress.
+        TEXT, // Repeated words with some noise, which compress well.
+        SPARSE, // Mostly zero, like padding and unused fields.
+        MAP; // A generated map file, which is representative of real game data.
+    }
+
+    /**
+     * Generates data to compress.
+     * @param payload The kind of data to generate.
+     * @param size    The number of bytes to generate. Generated maps are repeated or cut to this size.
+     * @return data
+     */
+    public static byte[] makePayload(Payload payload, int size) {
+        Random random = new Random(SEED);
+        byte[] data = new byte[size];
+        switch (payload) {
+            case NOISE:
+                random.nextBytes(data);
+                break;
+            case TEXT:
+                byte[] words = "frogger map entity path form vertex polygon texture ".getBytes();
+                for (int i = 0; i < size; i++)
+                    data[i] = random.nextInt(8) == 0 ? (byte) random.nextInt(256) : words[(i * 7 + i / 13) % words.length];
+                break;
+            case SPARSE:
+                for (int i = 0; i < size; i += 1 + random.nextInt(32))
+                    data[i] = (byte) random.nextInt(4);
+                break;
+            case MAP:
+                byte[] mapData = makeMapData(16, 16);
+                for (int i = 0; i < size; i += mapData.length)
+                    System.arraycopy(mapData, 0, data, i, Math.min(mapData.length, size - i));
+                break;
+            default:
+                throw new RuntimeException("Unknown payload: " + payload);
+        }
+
+        return data;
+    }
+
+    /**
+     * Generates a map with a flat grid of polygons, then saves it.
+     * @param xTiles The number of grid squares in the x direction.
+     * @param zTiles The number of grid squares in the z direction.
+     * @return mapData
+     */
+    public static byte[] makeMapData(int xTiles, int zTiles) {
+        MAPFile map = new MAPFile();
+        getConfig().register(map, "FIXTURE.MAP");
+        try {
+            // randomizeMap() expects a map which has been loaded, so set up what loading would have.
+            map.setTheme(MAPTheme.SUBURBIA);
+            map.setCameraSourceOffset(new SVector());
+            map.setCameraTargetOffset(new SVector());
+            for (MAPPrimitiveType type : MAPFile.PRIMITIVE_TYPES)
+                map.getPolygons().put(type, new ArrayList<>());
+
+            map.randomizeMap(xTiles, zTiles);
+            return save(map);
+        } finally {
+            getConfig().unregister(map);
+        }
+    }
+
+    /**
+     * Generates a PC VLO, then saves it.
+     * @param imageCount The number of images to generate.
+     * @param size       The width and height of each image.
+     * @return vloData
+     */
+    public static byte[] makeVLOData(int imageCount, int size) {
+        Random random = new Random(SEED);
+        VLOArchive vlo = new VLOArchive();
+        for (int i = 0; i < imageCount; i++) {
+            GameImage image = new GameImage(vlo);
+            image.setClutMode(ImageClutMode.MODE_15BIT_NO_CLUT);
+            image.setVramX((short) ((i * size) % GameImage.PC_PAGE_WIDTH));
+            image.setVramY((short) ((i * size) / GameImage.PC_PAGE_WIDTH * size));
+            image.setFullWidth((short) size);
+            image.setFullHeight((short) size);
+            image.setIngameWidth((byte) size);
+            image.setIngameHeight((byte) size);
+            image.setTextureId((short) i);
+            image.setFlags((short) GameImage.FLAG_REFERENCED_BY_NAME);
+
+            byte[] imageBytes = new byte[size * size * 4];
+            random.nextBytes(imageBytes);
+            image.setImageBytes(imageBytes);
+            vlo.getImages().add(image);
+        }
+
+        return save(vlo);
+    }
+
+    /**
+     * Generates a static MOF made of quads, then saves it.
+     * @param partCount    The number of parts to generate.
+     * @param quadsPerPart The number of quads in each part.
+     * @return mofData
+     */
+    public static byte[] makeMOFData(int partCount, int quadsPerPart) {
+        Random random = new Random(SEED);
+        MOFHolder holder = new MOFHolder(MAPTheme.GENERAL, null);
+        MOFFile mof = new MOFFile(holder);
+        holder.setStaticFile(mof);
+
+        for (int i = 0; i < partCount; i++) {
+            MOFPart part = new MOFPart(mof);
+            MOFPartcel partcel = new MOFPartcel(part, quadsPerPart * 4, quadsPerPart);
+            List<MOFPolygon> polygons = new ArrayList<>();
+            for (int j = 0; j < quadsPerPart; j++) {
+                for (int k = 0; k < 4; k++)
+                    partcel.getVertices().add(new SVector(random.nextInt(2048) - 1024, random.nextInt(2048) - 1024, random.nextInt(2048) - 1024));
+                partcel.getNormals().add(new SVector(0, -4096, 0));
+
+                MOFPolygon polygon = MOFPrimType.F4.makeNew(part);
+                for (int k = 0; k < polygon.getVertices().length; k++)
+                    polygon.getVertices()[k] = (j * 4) + k;
+                polygon.getNormals()[0] = (short) j;
+                polygons.add(polygon);
+            }
+
+            part.getPartcels().add(partcel);
+            part.getMofPolygons().put(MOFPrimType.F4, polygons);
+            mof.getParts().add(part);
+        }
+
+        return save(holder);
+    }
+
+    /**
+     * Generates a mono 16-bit .wav file holding a few tones.
+     * @param sampleCount The number of samples to generate.
+     * @return wavData
+     */
+    public static byte[] makeWavData(int sampleCount) {
+        int sampleRate = 11025;
+        ArrayReceiver receiver = new ArrayReceiver();
+        DataWriter writer = new DataWriter(receiver);
+        writer.writeStringBytes("RIFF");
+        writer.writeInt(36 + (sampleCount * 2));
+        writer.writeStringBytes("WAVE");
+        writer.writeStringBytes("fmt ");
+        writer.writeInt(16); // Chunk size.
+        writer.writeShort((short) 1); // PCM.
+        writer.writeShort((short) 1); // Channel count.
+        writer.writeInt(sampleRate);
+        writer.writeInt(sampleRate * 2); // Byte rate.
+        writer.writeShort((short) 2); // Block align.
+        writer.writeShort((short) 16); // Bits per sample.
+        writer.writeStringBytes("data");
+        writer.writeInt(sampleCount * 2);
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < sampleCount; i++) {
+            double time = (double) i / sampleRate;
+            double sample = Math.sin(2 * Math.PI * 440 * time) * 0.5 + Math.sin(2 * Math.PI * 660 * time) * 0.3 + (random.nextDouble() - 0.5) * 0.05;
+            writer.writeShort((short) (sample * Short.MAX_VALUE));
+        }
+
+        writer.closeReceiver();
+        return receiver.toArray();
+    }
+
+    private static byte[] save(GameObject object) {
+        ArrayReceiver receiver = new ArrayReceiver();
+        DataWriter writer = new DataWriter(receiver);
+        object.save(writer);
+        writer.closeReceiver();
+        return receiver.toArray();
+    }
+
+    /**
+     * Gets the config used by generated files, setting it up if it hasn't been already.
+     * @return config
+     */
+    public static synchronized FixtureConfig getConfig() {
+        if (config == null) {
+            config = new FixtureConfig();
+            GUIMain.EXE_CONFIG = config;
+        }
+
+        return config;
+    }
+
+    /**
+     * A config for the PC retail release, which doesn't need a game executable.
+     */
+    public static class FixtureConfig extends FroggerEXEInfo {
+        private final MWDFile mwd = new MWDFile(new MWIFile());
+
+        private FixtureConfig() {
+            super(new File("frogger.exe"), Utils.getResourceStream("exes/pc-retail-v1.0.cfg"), "pc-retail-v1.0", false);
+        }
+
+        /**
+         * Registers a file, so it can find its file entry.
+         * @param file     The file to register.
+         * @param fileName The name to give the file.
+         */
+        public void register(GameFile file, String fileName) {
+            FileEntry entry = new FileEntry(this, 0);
+            entry.setFilePath(fileName);
+            this.mwd.getEntryMap().put(file, entry);
+        }
+
+        /**
+         * Removes a file registered by register(), once it is no longer used.
+         * @param file The file to remove.
+         */
+        public void unregister(GameFile file) {
+            this.mwd.getEntryMap().remove(file);
+        }
+
+        @Override
+        public MWDFile getMWD() {
+            return this.mwd;
+        }
+
+        @Override
+        public TargetPlatform getPlatform() {
+            return TargetPlatform.PC;
+        }
+
+        @Override
+        public int getBuild() {
+            return 0;
+        }
+    }
+}
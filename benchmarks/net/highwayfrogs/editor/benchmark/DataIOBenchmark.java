@@ -0,0 +1,104 @@
+package net.highwayfrogs.editor.benchmark;
+
+import net.highwayfrogs.editor.file.reader.ArraySource;
+import net.highwayfrogs.editor.file.reader.DataReader;
+import net.highwayfrogs.editor.file.writer.ArrayReceiver;
+import net.highwayfrogs.editor.file.writer.DataWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and writing primitives through DataReader and DataWriter.
+ * Each benchmark reads or writes a 64KB buffer.
+ * Created by agent on 10/18/2026.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataIOBenchmark {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        this.data = new byte[BUFFER_SIZE];
+        new Random(0).nextBytes(this.data);
+    }
+
+    @Benchmark
+    public int readInts() {
+        DataReader reader = new DataReader(new ArraySource(this.data));
+        int total = 0;
+        while (reader.hasMore())
+            total += reader.readInt();
+        return total;
+    }
+
+    @Benchmark
+    public int readShorts() {
+        DataReader reader = new DataReader(new ArraySource(this.data));
+        int total = 0;
+        while (reader.hasMore())
+            total += reader.readShort();
+        return total;
+    }
+
+    @Benchmark
+    public float readFloats() {
+        DataReader reader = new DataReader(new ArraySource(this.data));
+        float total = 0;
+        while (reader.hasMore())
+            total += reader.readFloat();
+        return total;
+    }
+
+    @Benchmark
+    public int readBytes() {
+        DataReader reader = new DataReader(new ArraySource(this.data));
+        int total = 0;
+        while (reader.hasMore())
+            total += reader.readByte();
+        return total;
+    }
+
+    @Benchmark
+    public byte[] writeInts() {
+        ArrayReceiver receiver = new ArrayReceiver();
+        DataWriter writer = new DataWriter(receiver);
+        for (int i = 0; i < BUFFER_SIZE / 4; i++)
+            writer.writeInt(i);
+        return receiver.getArray();
+    }
+
+    @Benchmark
+    public byte[] writeShorts() {
+        ArrayReceiver receiver = new ArrayReceiver();
+        DataWriter writer = new DataWriter(receiver);
+        for (int i = 0; i < BUFFER_SIZE / 2; i++)
+            writer.writeShort((short) i);
+        return receiver.getArray();
+    }
+
+    @Benchmark
+    public byte[] writeFloats() {
+        ArrayReceiver receiver = new ArrayReceiver();
+        DataWriter writer = new DataWriter(receiver);
+        for (int i = 0; i < BUFFER_SIZE / 4; i++)
+            writer.writeFloat(i);
+        return receiver.getArray();
+    }
+
+    @Benchmark
+    public byte[] writeBytes() {
+        ArrayReceiver receiver = new ArrayReceiver();
+        DataWriter writer = new DataWriter(receiver);
+        for (int i = 0; i < BUFFER_SIZE; i++)
+            writer.writeByte((byte) i);
+        return receiver.getArray();
+    }
+}
@@ -0,0 +1,116 @@
+package net.highwayfrogs.editor.benchmark;
+
+import net.highwayfrogs.editor.file.GameFile;
+import net.highwayfrogs.editor.file.map.MAPFile;
+import net.highwayfrogs.editor.file.map.MAPTheme;
+import net.highwayfrogs.editor.file.mof.MOFHolder;
+import net.highwayfrogs.editor.file.reader.ArraySource;
+import net.highwayfrogs.editor.file.reader.DataReader;
+import net.highwayfrogs.editor.file.vlo.GameImage;
+import net.highwayfrogs.editor.file.vlo.VLOArchive;
+import net.highwayfrogs.editor.file.writer.ArrayReceiver;
+import net.highwayfrogs.editor.file.writer.DataWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading and saving generated MAP, VLO and MOF files, and turning VLO images into BufferedImages.
+ * Created by agent on 10/18/2026.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatBenchmark {
+    private byte[] mapData;
+    private byte[] vloData;
+    private byte[] mofData;
+    private MAPFile loadedMap;
+    private VLOArchive loadedVLO;
+    private MOFHolder loadedMOF;
+
+    @Setup
+    public void setup() {
+        this.mapData = BenchmarkFixtures.makeMapData(48, 48);
+        this.vloData = BenchmarkFixtures.makeVLOData(64, 64);
+        this.mofData = BenchmarkFixtures.makeMOFData(8, 64);
+
+        this.loadedMap = new MAPFile();
+        BenchmarkFixtures.getConfig().register(this.loadedMap, "FIXTURE.MAP");
+        this.loadedMap.load(new DataReader(new ArraySource(this.mapData)));
+
+        this.loadedVLO = new VLOArchive();
+        this.loadedVLO.load(new DataReader(new ArraySource(this.vloData)));
+
+        this.loadedMOF = new MOFHolder(MAPTheme.GENERAL, null);
+        this.loadedMOF.load(new DataReader(new ArraySource(this.mofData)));
+    }
+
+    @Benchmark
+    public MAPFile loadMap() {
+        MAPFile map = new MAPFile();
+        BenchmarkFixtures.getConfig().register(map, "FIXTURE.MAP");
+        try {
+            map.load(new DataReader(new ArraySource(this.mapData)));
+        } finally {
+            BenchmarkFixtures.getConfig().unregister(map);
+        }
+
+        return map;
+    }
+
+    @Benchmark
+    public byte[] saveMap() {
+        return save(this.loadedMap);
+    }
+
+    @Benchmark
+    public VLOArchive loadVLO() {
+        VLOArchive vlo = new VLOArchive();
+        vlo.load(new DataReader(new ArraySource(this.vloData)));
+        return vlo;
+    }
+
+    @Benchmark
+    public byte[] saveVLO() {
+        return save(this.loadedVLO);
+    }
+
+    @Benchmark
+    public BufferedImage convertVLOImages() {
+        BufferedImage lastImage = null;
+        for (GameImage image : this.loadedVLO.getImages()) {
+            image.invalidateCache();
+            lastImage = image.toBufferedImage();
+        }
+
+        return lastImage;
+    }
+
+    @Benchmark
+    public BufferedImage makeVRAMImage() {
+        return this.loadedVLO.makeVRAMImage();
+    }
+
+    @Benchmark
+    public MOFHolder loadMOF() {
+        MOFHolder holder = new MOFHolder(MAPTheme.GENERAL, null);
+        holder.load(new DataReader(new ArraySource(this.mofData)));
+        return holder;
+    }
+
+    @Benchmark
+    public byte[] saveMOF() {
+        return save(this.loadedMOF);
+    }
+
+    private static byte[] save(GameFile file) {
+        ArrayReceiver receiver = new ArrayReceiver();
+        file.save(new DataWriter(receiver));
+        return receiver.getArray();
+    }
+}
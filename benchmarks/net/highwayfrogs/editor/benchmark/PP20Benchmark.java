@@ -0,0 +1,134 @@
+package net.highwayfrogs.editor.benchmark;
+
+import net.highwayfrogs.editor.benchmark.BenchmarkFixtures.Payload;
+import net.highwayfrogs.editor.file.packers.PP20FastPacker;
+import net.highwayfrogs.editor.file.packers.PP20FastPacker.PackerEffort;
+import net.highwayfrogs.editor.file.packers.PP20Packer;
+import net.highwayfrogs.editor.file.packers.PP20Unpacker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures PP20 compression and decompression.
+ * If the pp20.folder system property is set, every file in that folder (such as MWD and WAD entries exported from a build) is used instead of the generated payload.
+ * Each operation then handles every file once, and the payload and size parameters don't change anything, so only one of each should be run. (Example: -p payload=MAP -p size=4096)
+ * Created by agent on 10/18/2026.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PP20Benchmark {
+    @Param({"NOISE", "TEXT", "SPARSE", "MAP"})
+    private Payload payload;
+
+    @Param({"4096", "65536"})
+    private int size;
+
+    private List<byte[]> dataList; // The unpacked bytes of each input.
+    private List<byte[]> packedDataList; // The PP20 compressed bytes of each input.
+
+    public static final String FOLDER_PROPERTY = "pp20.folder";
+
+    @Setup
+    public void setup() throws IOException {
+        this.dataList = new ArrayList<>();
+        this.packedDataList = new ArrayList<>();
+
+        String folder = System.getProperty(FOLDER_PROPERTY, "");
+        if (folder.isEmpty()) {
+            byte[] data = BenchmarkFixtures.makePayload(this.payload, this.size);
+            this.dataList.add(data);
+            this.packedDataList.add(PP20Packer.packData(data));
+        } else {
+            addFiles(new File(folder));
+            if (this.dataList.isEmpty())
+                throw new IllegalStateException("There are no files to benchmark in '" + folder + "'.");
+        }
+
+        for (int i = 0; i < this.dataList.size(); i++) {
+            // The unpacker must give the same bytes as the original decoder.
+            byte[] data = this.dataList.get(i);
+            byte[] packedData = this.packedDataList.get(i);
+            if (!Arrays.equals(PP20ReferenceUnpacker.unpackData(packedData), PP20Unpacker.unpackData(packedData)))
+                throw new IllegalStateException("PP20Unpacker gave different bytes than the original decoder for input #" + i + ".");
+
+            // Only measure packers which give back the original bytes.
+            checkRoundTrip("accurate", i, PP20Packer.packData(data));
+            for (PackerEffort effort : PackerEffort.values())
+                checkRoundTrip(effort.name(), i, PP20FastPacker.packData(data, effort));
+        }
+    }
+
+    private void addFiles(File file) throws IOException {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children); // Keep the input order the same between runs.
+                for (File child : children)
+                    addFiles(child);
+            }
+            return;
+        }
+
+        byte[] fileData = Files.readAllBytes(file.toPath());
+        if (PP20Unpacker.isCompressed(fileData)) {
+            this.dataList.add(PP20ReferenceUnpacker.unpackData(fileData));
+            this.packedDataList.add(fileData);
+        } else if (fileData.length > 0 && fileData.length <= PP20Packer.MAX_UNCOMPRESSED_FILE_SIZE) {
+            this.dataList.add(fileData);
+            this.packedDataList.add(PP20Packer.packData(fileData));
+        }
+    }
+
+    private void checkRoundTrip(String packerName, int index, byte[] packed) {
+        if (!Arrays.equals(this.dataList.get(index), PP20Unpacker.unpackData(packed)))
+            throw new IllegalStateException("The " + packerName + " packer made data which does not unpack to the original bytes of input #" + index + ".");
+    }
+
+    @Benchmark
+    public void packAccurate(Blackhole blackhole) {
+        for (byte[] data : this.dataList)
+            blackhole.consume(PP20Packer.packData(data));
+    }
+
+    @Benchmark
+    public void packFast(Blackhole blackhole) {
+        for (byte[] data : this.dataList)
+            blackhole.consume(PP20FastPacker.packData(data, PackerEffort.FAST));
+    }
+
+    @Benchmark
+    public void packNormal(Blackhole blackhole) {
+        for (byte[] data : this.dataList)
+            blackhole.consume(PP20FastPacker.packData(data, PackerEffort.NORMAL));
+    }
+
+    @Benchmark
+    public void packExtreme(Blackhole blackhole) {
+        for (byte[] data : this.dataList)
+            blackhole.consume(PP20FastPacker.packData(data, PackerEffort.EXTREME));
+    }
+
+    @Benchmark
+    public void unpack(Blackhole blackhole) {
+        for (byte[] packedData : this.packedDataList)
+            blackhole.consume(PP20Unpacker.unpackData(packedData));
+    }
+
+    @Benchmark
+    public void unpackOriginal(Blackhole blackhole) {
+        for (byte[] packedData : this.packedDataList)
+            blackhole.consume(PP20ReferenceUnpacker.unpackData(packedData));
+    }
+}
@@ -0,0 +1,77 @@
+package net.highwayfrogs.editor.benchmark;
+
+import net.highwayfrogs.editor.Constants;
+import net.highwayfrogs.editor.file.packers.PP20Packer;
+import net.highwayfrogs.editor.file.packers.PP20Unpacker;
+import net.highwayfrogs.editor.file.writer.BitReader;
+import net.highwayfrogs.editor.utils.Utils;
+
+/**
+ * The original PP20 decoder, which reads the stream one bit at a time.
+ * PP20Unpacker must give the same bytes as this, and is benchmarked against it.
+ * Created by agent on 10/18/2026.
+ */
+public class PP20ReferenceUnpacker {
+    private static final int OFFSET_BIT_OPTIONS = 4;
+
+    /**
+     * Unpacks PP20 compressed data.
+     * @param data The compressed data.
+     * @return unpackedData
+     */
+    public static byte[] unpackData(byte[] data) {
+        Utils.verify(PP20Unpacker.isCompressed(data), "Not PowerPacker (PP20) compressed data!");
+        int[] offsetBitLengths = new int[OFFSET_BIT_OPTIONS];
+        for (int i = 0; i < OFFSET_BIT_OPTIONS; i++)
+            offsetBitLengths[i] = data[i + OFFSET_BIT_OPTIONS];
+
+        int skip = data[data.length - 1] & 0xFF;
+        int sizePos = data.length - 2;
+        byte[] out = new byte[(data[sizePos - 2] & 0xFF) << 16 | (data[sizePos - 1] & 0xFF) << 8 | data[sizePos] & 0xFF];
+        int outPos = out.length;
+        BitReader in = new BitReader(data, 4);
+        in.setReverseBytes(true);
+        in.readBits(skip);
+
+        while (outPos > 0) {
+            if (in.readBit() == PP20Packer.HAS_RAW_DATA_BIT)
+                outPos = copyFromInput(in, out, outPos);
+            if (outPos > 0)
+                outPos = copyFromDecoded(in, out, outPos, offsetBitLengths);
+        }
+
+        return out;
+    }
+
+    private static int copyFromInput(BitReader reader, byte[] out, int bytePos) {
+        int count = 1, countInc;
+        while ((countInc = reader.readBits(PP20Packer.INPUT_BIT_LENGTH)) == PP20Packer.INPUT_CONTINUE_WRITING_BITS)
+            count += PP20Packer.INPUT_CONTINUE_WRITING_BITS;
+
+        for (count += countInc; count > 0; count--)
+            out[--bytePos] = (byte) reader.readBits(Constants.BITS_PER_BYTE);
+
+        return bytePos;
+    }
+
+    private static int copyFromDecoded(BitReader in, byte[] out, int bytePos, int[] offsetBitLengths) {
+        int compressionLevel = in.readBits(PP20Packer.COMPRESSION_LEVEL_BITS);
+        boolean extraLengthData = (compressionLevel == PP20Packer.INPUT_CONTINUE_WRITING_BITS);
+        int offBits = extraLengthData && in.readBit() == Constants.BIT_FALSE ? PP20Packer.OPTIONAL_BITS_SMALL_OFFSET : offsetBitLengths[compressionLevel];
+        int off = in.readBits(offBits);
+
+        int copyLength = compressionLevel + PP20Packer.MINIMUM_DECODE_DATA_LENGTH;
+        if (extraLengthData) {
+            int lastLengthBits;
+            do {
+                lastLengthBits = in.readBits(PP20Packer.OFFSET_BIT_LENGTH);
+                copyLength += lastLengthBits;
+            } while (lastLengthBits == PP20Packer.OFFSET_CONTINUE_WRITING_BITS);
+        }
+
+        for (int i = 0; i < copyLength; i++, bytePos--)
+            out[bytePos - 1] = out[bytePos + off];
+
+        return bytePos;
+    }
+}
@@ -0,0 +1,40 @@
+package net.highwayfrogs.editor.benchmark;
+
+import net.highwayfrogs.editor.file.sound.psx.VAGUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting between .wav files and PSX VAG audio.
+ * Created by agent on 10/18/2026.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VAGBenchmark {
+    @Param({"11025", "110250"})
+    private int sampleCount;
+
+    private byte[] wavData;
+    private byte[] vagData;
+
+    @Setup
+    public void setup() {
+        this.wavData = BenchmarkFixtures.makeWavData(this.sampleCount);
+        this.vagData = VAGUtil.wavToVag(this.wavData);
+    }
+
+    @Benchmark
+    public byte[] wavToVag() {
+        return VAGUtil.wavToVag(this.wavData);
+    }
+
+    @Benchmark
+    public byte[] vagToWav() {
+        return VAGUtil.rawVagToWav(this.vagData, 11025);
+    }
+}
@@ -0,0 +1,611 @@
+package net.highwayfrogs.editor.cli;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.highwayfrogs.editor.file.GameFile;
+import net.highwayfrogs.editor.file.MWDFile;
+import net.highwayfrogs.editor.file.MWDFile.FileType;
+import net.highwayfrogs.editor.file.MWIFile.FileEntry;
+import net.highwayfrogs.editor.file.WADFile;
+import net.highwayfrogs.editor.file.WADFile.WADEntry;
+import net.highwayfrogs.editor.file.config.FroggerEXEInfo;
+import net.highwayfrogs.editor.file.map.FFSUtil;
+import net.highwayfrogs.editor.file.map.MAPFile;
+import net.highwayfrogs.editor.file.map.MAPTheme;
+import net.highwayfrogs.editor.file.mof.MOFFile;
+import net.highwayfrogs.editor.file.mof.MOFHolder;
+import net.highwayfrogs.editor.file.packers.PP20FastPacker;
+import net.highwayfrogs.editor.file.packers.PP20FastPacker.PackerEffort;
+import net.highwayfrogs.editor.file.packers.PP20Packer;
+import net.highwayfrogs.editor.file.packers.PP20Unpacker;
+import net.highwayfrogs.editor.file.reader.DataReader;
+import net.highwayfrogs.editor.file.reader.FileSource;
+import net.highwayfrogs.editor.file.sound.AbstractVBFile;
+import net.highwayfrogs.editor.file.sound.GameSound;
+import net.highwayfrogs.editor.file.vlo.ImageFilterSettings;
+import net.highwayfrogs.editor.file.vlo.ImageFilterSettings.ImageState;
+import net.highwayfrogs.editor.file.vlo.VLOArchive;
+import net.highwayfrogs.editor.file.writer.ArrayReceiver;
+import net.highwayfrogs.editor.file.writer.DataWriter;
+import net.highwayfrogs.editor.gui.GUIMain;
+import net.highwayfrogs.editor.system.AssetCache;
+import net.highwayfrogs.editor.system.FileMetrics;
+import net.highwayfrogs.editor.system.mm3d.MisfitModel3DObject;
+import net.highwayfrogs.editor.utils.FileUtils3D;
+import net.highwayfrogs.editor.utils.Utils;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exports, imports and rebuilds game files from the command line, without the GUI.
+ * The JavaFX application is never started, so this can run on machines without a display.
+ * Work is split into one task per file and run on a pool of worker threads.
+ * Results are printed to stdout as one JSON object per line. Everything else FrogLord prints goes to stderr.
+ * Created by agent on 10/18/2026.
+ */
+public class FrogLordCLI {
+    private static PrintStream resultStream;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: FrogLordCLI <export|import|rebuild|verify> --exe <executable> --mwd <MWD> [options]",
+            "  export   Exports assets from the MWD into --out.",
+            "  import   Imports assets laid out like 'export' makes them from --in, then saves the MWD and executable into --out.",
+            "  rebuild  Saves the MWD and executable into --out, without changing anything.",
+            "  verify   Packs every file in the MWD, including the files in WADs, with every PP20 packer, and checks they unpack to the same bytes.",
+            "Options:",
+            "  --out <folder>     The folder to write to.",
+            "  --in <folder>      The folder to import from.",
+            "  --types <list>     The assets to export or import, separated by commas. (Default: all)",
+            "                     textures, maps-ffs, maps-obj, models, sounds",
+            "  --config <name>    The executable config to use, if it cannot be detected. (Example: pc-retail-v1.0)",
+            "  --threads <count>  The number of worker threads. (Default: The number of cores)",
+            "  --load <mode>      How the MWD is loaded. Lazy only loads the files which are used. (parallel, serial, lazy) (Default: parallel)",
+            "  --effort <effort>  Compress with PP20FastPacker at this effort instead of the accurate packer. (FAST, NORMAL, EXTREME)",
+            "  --metrics <folder> Records how long loading and saving each file takes, and writes it to this folder as JSON and CSV.",
+            "  --cache <folder>   Keeps unpacked files in this folder, so running again on the same files skips unpacking them.");
+
+    /**
+     * The kinds of assets which can be exported or imported.
+     */
+    @Getter
+    @AllArgsConstructor
+    private enum AssetType {
+        TEXTURES("textures", true),
+        MAPS_FFS("maps-ffs", true),
+        MAPS_OBJ("maps-obj", false),
+        MODELS("models", true),
+        SOUNDS("sounds", true);
+
+        private final String folderName;
+        private final boolean importable;
+
+        public static AssetType getByFolderName(String folderName) {
+            for (AssetType type : values())
+                if (type.getFolderName().equalsIgnoreCase(folderName))
+                    return type;
+            throw new RuntimeException("Unknown asset type '" + folderName + "'.");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.setProperty("prism.order", "sw"); // Images are still made for file icons, which shouldn't need a graphics card.
+        GUIMain.HEADLESS = true;
+        resultStream = System.out;
+        System.setOut(System.err); // Only results are printed to stdout, so it can be parsed.
+
+        Map<String, String> options = new HashMap<>();
+        String command = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i].substring(2).toLowerCase(), args[++i]);
+            } else if (command == null) {
+                command = args[i].toLowerCase();
+            } else {
+                exitWithUsage("Unexpected argument '" + args[i] + "'.");
+            }
+        }
+
+        if (command == null || !options.containsKey("exe") || !options.containsKey("mwd"))
+            exitWithUsage(null);
+
+        int threads = options.containsKey("threads") ? Integer.parseInt(options.get("threads")) : Runtime.getRuntime().availableProcessors();
+        if (options.containsKey("effort"))
+            MWDFile.PACKER_EFFORT = PackerEffort.valueOf(options.get("effort").toUpperCase());
+        MWDFile.SAVE_THREADS = threads;
+        if (options.containsKey("load")) {
+            try {
+                MWDFile.setLoadMode(options.get("load"));
+            } catch (IllegalArgumentException ex) {
+                exitWithUsage(ex.getMessage());
+            }
+        }
+        if (options.containsKey("metrics")) {
+            FileMetrics.ENABLED = true;
+            FileMetrics.EXPORT_FOLDER = new File(options.get("metrics"));
+        }
+        if (options.containsKey("cache"))
+            AssetCache.CACHE_FOLDER = new File(options.get("cache"));
+
+        List<AssetType> types = new ArrayList<>();
+        if (options.containsKey("types")) {
+            for (String typeName : options.get("types").split(","))
+                types.add(AssetType.getByFolderName(typeName.trim()));
+        } else {
+            types.addAll(Arrays.asList(AssetType.values()));
+        }
+
+        File exeFile = new File(options.get("exe"));
+        File mwdFile = new File(options.get("mwd"));
+        FroggerEXEInfo config = loadGame(exeFile, mwdFile, options.get("config"));
+
+        boolean success;
+        switch (command) {
+            case "export":
+                success = runTasks(command, makeExportTasks(config.getMWD(), getFolder(options, "out"), types), threads);
+                break;
+            case "import":
+                success = runTasks(command, makeImportTasks(config.getMWD(), getFolder(options, "in"), types), threads);
+                if (success)
+                    saveGame(config, getFolder(options, "out"), exeFile, mwdFile);
+                break;
+            case "rebuild":
+                saveGame(config, getFolder(options, "out"), exeFile, mwdFile);
+                success = true;
+                break;
+            case "verify":
+                success = runTasks(command, makeVerifyTasks(config.getMWD()), threads);
+                break;
+            default:
+                exitWithUsage("Unknown command '" + command + "'.");
+                return;
+        }
+
+        System.exit(success ? 0 : 1);
+    }
+
+    private static FroggerEXEInfo loadGame(File exeFile, File mwdFile, String configName) throws Exception {
+        long startTime = System.nanoTime();
+        FroggerEXEInfo config = configName != null ? GUIMain.makeExeConfig(exeFile, configName, false) : GUIMain.findExeConfig(exeFile);
+        if (config == null)
+            throw new RuntimeException("The executable '" + exeFile.getName() + "' was not recognized. (CRC32: " + Utils.getCRC32(exeFile) + ") Use --config to choose a config.");
+
+        GUIMain.EXE_CONFIG = config;
+        GUIMain.setWorkingDirectory(mwdFile.getAbsoluteFile().getParentFile());
+        config.setup();
+
+        MWDFile mwd = config.getMWD();
+        if (MWDFile.LAZY_LOAD) {
+            mwd.loadLazy(mwdFile);
+        } else {
+            mwd.load(new DataReader(new FileSource(mwdFile)));
+        }
+        printResult("event", "load", "config", config.getInternalName(), "files", mwd.getFileCount(), "bytes", mwdFile.length(), "ms", getMillis(startTime));
+        return config;
+    }
+
+    private static void saveGame(FroggerEXEInfo config, File folder, File exeFile, File mwdFile) throws Exception {
+        long startTime = System.nanoTime();
+        File outputMWD = new File(folder, mwdFile.getName());
+        config.getMWD().save(outputMWD);
+
+        File outputEXE = new File(folder, exeFile.getName());
+        config.patchEXE();
+        config.saveExecutable(outputEXE);
+        printResult("event", "save", "bytes", outputMWD.length() + outputEXE.length(), "ms", getMillis(startTime));
+    }
+
+    private static List<CLITask> makeExportTasks(MWDFile mwd, File outputFolder, List<AssetType> types) {
+        List<CLITask> tasks = new ArrayList<>();
+        for (AssetType type : types) {
+            File typeFolder = new File(outputFolder, type.getFolderName());
+            switch (type) {
+                case TEXTURES:
+                    for (VLOArchive vlo : mwd.getAllFiles(VLOArchive.class)) {
+                        tasks.add(new CLITask(type, vlo, typeFolder, folder -> {
+                            ImageFilterSettings settings = new ImageFilterSettings(ImageState.EXPORT);
+                            for (int i = 0; i < vlo.getImages().size(); i++)
+                                ImageIO.write(vlo.getImages().get(i).toBufferedImage(settings), "png", new File(folder, i + ".png"));
+                        }));
+                    }
+                    break;
+                case MAPS_FFS:
+                    for (MAPFile map : mwd.getAllFiles(MAPFile.class)) {
+                        tasks.add(new CLITask(type, map, typeFolder, folder -> {
+                            if (map.getRemapTable() == null)
+                                throw new SkipTaskException("No remap could be found for this level.");
+                            FFSUtil.saveMapAsFFS(map, folder);
+                        }));
+                    }
+                    break;
+                case MAPS_OBJ:
+                    for (MAPFile map : mwd.getAllFiles(MAPFile.class))
+                        tasks.add(new CLITask(type, map, typeFolder, folder -> FileUtils3D.exportMapToObj(map, folder)));
+                    break;
+                case MODELS:
+                    for (WADFile wad : mwd.getAllFiles(WADFile.class)) {
+                        if (!hasModels(wad))
+                            continue;
+
+                        tasks.add(new CLITask(type, wad, typeFolder, folder -> {
+                            VLOArchive vlo = findVLO(mwd, wad.getTheme());
+                            if (vlo == null)
+                                throw new SkipTaskException("No VLO could be found for the theme " + wad.getTheme() + ".");
+
+                            ImageFilterSettings settings = MOFFile.MOF_EXPORT_FILTER;
+                            for (int i = 0; i < vlo.getImages().size(); i++)
+                                ImageIO.write(vlo.getImages().get(i).toBufferedImage(settings), "png", new File(folder, i + ".png"));
+
+                            wad.setVLO(vlo);
+                            for (WADEntry wadEntry : wad.getFiles())
+                                if (wadEntry.getFile() instanceof MOFHolder)
+                                    ((MOFHolder) wadEntry.getFile()).exportObject(folder, vlo);
+                        }));
+                    }
+                    break;
+                case SOUNDS:
+                    for (AbstractVBFile<?> vbFile : getSoundFiles(mwd)) {
+                        tasks.add(new CLITask(type, vbFile, typeFolder, folder -> {
+                            for (GameSound sound : vbFile.getAudioEntries())
+                                sound.exportToFile(new File(folder, sound.getSoundName() + ".wav"));
+                        }));
+                    }
+                    break;
+                default:
+                    throw new RuntimeException("Don't know how to export " + type + ".");
+            }
+        }
+
+        return tasks;
+    }
+
+    private static List<CLITask> makeImportTasks(MWDFile mwd, File inputFolder, List<AssetType> types) {
+        List<CLITask> tasks = new ArrayList<>();
+        for (AssetType type : types) {
+            if (!type.isImportable())
+                continue;
+
+            File typeFolder = new File(inputFolder, type.getFolderName());
+            if (!typeFolder.isDirectory())
+                continue;
+
+            switch (type) {
+                case TEXTURES:
+                    for (VLOArchive vlo : mwd.getAllFiles(VLOArchive.class)) {
+                        tasks.add(new CLITask(type, vlo, typeFolder, folder -> {
+                            for (File file : Utils.listFiles(folder)) {
+                                String name = Utils.stripExtension(file.getName());
+                                if (!Utils.isInteger(name))
+                                    continue;
+
+                                int id = Integer.parseInt(name);
+                                if (id >= 0 && id < vlo.getImages().size())
+                                    vlo.getImages().get(id).replaceImage(ImageIO.read(file));
+                            }
+                        }));
+                    }
+                    break;
+                case MAPS_FFS:
+                    for (MAPFile map : mwd.getAllFiles(MAPFile.class)) {
+                        tasks.add(new CLITask(type, map, typeFolder, folder -> {
+                            File ffsFile = new File(folder, Utils.stripExtension(map.getFileEntry().getDisplayName()) + ".ffs");
+                            if (!ffsFile.exists())
+                                throw new SkipTaskException("There is no .ffs file to import.");
+                            if (map.getRemapTable() == null)
+                                throw new SkipTaskException("No remap could be found for this level.");
+                            FFSUtil.importFFSToMap(map, ffsFile);
+                        }));
+                    }
+                    break;
+                case MODELS:
+                    for (WADFile wad : mwd.getAllFiles(WADFile.class)) {
+                        if (!hasModels(wad))
+                            continue;
+
+                        tasks.add(new CLITask(type, wad, typeFolder, folder -> {
+                            wad.setVLO(findVLO(mwd, wad.getTheme()));
+                            for (WADEntry wadEntry : wad.getFiles()) {
+                                if (!(wadEntry.getFile() instanceof MOFHolder))
+                                    continue;
+
+                                File modelFile = new File(folder, Utils.stripExtension(wadEntry.getFileEntry().getDisplayName()) + ".mm3d");
+                                if (!modelFile.exists())
+                                    continue;
+
+                                MisfitModel3DObject model = new MisfitModel3DObject();
+                                model.load(new DataReader(new FileSource(modelFile)));
+                                FileUtils3D.importMofFromModel(model, (MOFHolder) wadEntry.getFile());
+                            }
+                        }));
+                    }
+                    break;
+                case SOUNDS:
+                    for (AbstractVBFile<?> vbFile : getSoundFiles(mwd)) {
+                        tasks.add(new CLITask(type, vbFile, typeFolder, folder -> {
+                            for (GameSound sound : vbFile.getAudioEntries()) {
+                                File soundFile = new File(folder, sound.getSoundName() + ".wav");
+                                if (soundFile.exists())
+                                    sound.replaceWithFile(soundFile);
+                            }
+                        }));
+                    }
+                    break;
+                default:
+                    throw new RuntimeException("Don't know how to import " + type + ".");
+            }
+        }
+
+        // Only import files which have a folder to import from.
+        tasks.removeIf(task -> !task.getFolder().isDirectory());
+        return tasks;
+    }
+
+    private static List<VerifyTask> makeVerifyTasks(MWDFile mwd) {
+        List<VerifyTask> tasks = new ArrayList<>();
+        for (GameFile file : mwd.getFiles()) {
+            tasks.add(new VerifyTask(file.getFileEntry().getDisplayName(), file));
+            if (file instanceof WADFile)
+                for (WADEntry wadEntry : ((WADFile) file).getFiles())
+                    tasks.add(new VerifyTask(wadEntry.getFileEntry().getDisplayName(), wadEntry.getFile()));
+        }
+
+        return tasks;
+    }
+
+    private static boolean runTasks(String command, List<? extends Callable<Map<String, Object>>> tasks, int threads) throws InterruptedException {
+        long startTime = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        List<Future<Map<String, Object>>> results;
+        try {
+            results = pool.invokeAll(tasks);
+        } finally {
+            pool.shutdown();
+        }
+
+        int okCount = 0;
+        int skipCount = 0;
+        int failCount = 0;
+        long totalBytes = 0;
+        for (Future<Map<String, Object>> future : results) {
+            Map<String, Object> result;
+            try {
+                result = future.get();
+            } catch (Exception ex) {
+                throw new RuntimeException("A task did not complete.", ex);
+            }
+
+            String status = (String) result.get("status");
+            if ("ok".equals(status)) {
+                okCount++;
+            } else if ("skipped".equals(status)) {
+                skipCount++;
+            } else {
+                failCount++;
+            }
+
+            totalBytes += (long) result.get("bytes");
+            printResult(result);
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1000000000D;
+        printResult("event", "summary", "command", command, "threads", threads, "tasks", tasks.size(), "ok", okCount, "skipped", skipCount,
+                "failed", failCount, "bytes", totalBytes, "ms", seconds * 1000, "tasksPerSecond", tasks.size() / seconds, "megabytesPerSecond", totalBytes / seconds / 1048576D);
+        return failCount == 0;
+    }
+
+    private static boolean hasModels(WADFile wad) {
+        for (WADEntry wadEntry : wad.getFiles())
+            if (wadEntry.getFile() instanceof MOFHolder)
+                return true;
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AbstractVBFile<?>> getSoundFiles(MWDFile mwd) {
+        return (List<AbstractVBFile<?>>) (List<?>) mwd.getAllFiles(AbstractVBFile.class);
+    }
+
+    /**
+     * Finds the VLO used by a theme, the same way the VLO selection menu suggests one.
+     * @param mwd   The MWD to search.
+     * @param theme The theme to find the VLO for.
+     * @return vlo, or null if none was found.
+     */
+    private static VLOArchive findVLO(MWDFile mwd, MAPTheme theme) {
+        if (theme == null)
+            return null;
+
+        VLOArchive cachedVLO = mwd.getVloThemeCache().get(theme);
+        if (cachedVLO != null)
+            return cachedVLO;
+
+        for (FileEntry entry : mwd.getFileEntries()) { // Only the matching VLO is loaded, if the MWD is loaded lazily.
+            if (FileType.getType(entry) != FileType.VLO || !entry.getDisplayName().startsWith(theme.getInternalName()))
+                continue;
+
+            GameFile file = mwd.getGameFile(entry);
+            if (file instanceof VLOArchive)
+                return (VLOArchive) file;
+        }
+        return null;
+    }
+
+    private static File getFolder(Map<String, String> options, String option) {
+        String path = options.get(option);
+        if (path == null)
+            exitWithUsage("The --" + option + " option is required for this command.");
+
+        File folder = new File(path);
+        Utils.makeDirectory(folder);
+        return folder;
+    }
+
+    private static double getMillis(long startTime) {
+        return (System.nanoTime() - startTime) / 1000000D;
+    }
+
+    private static void exitWithUsage(String message) {
+        if (message != null)
+            System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+
+    private static void printResult(Object... keyValuePairs) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keyValuePairs.length; i += 2)
+            result.put((String) keyValuePairs[i], keyValuePairs[i + 1]);
+        printResult(result);
+    }
+
+    private static synchronized void printResult(Map<String, Object> result) {
+        StringBuilder builder = new StringBuilder("{");
+        for (Map.Entry<String, Object> entry : result.entrySet()) {
+            if (builder.length() > 1)
+                builder.append(",");
+            builder.append('"').append(entry.getKey()).append("\":");
+
+            Object value = entry.getValue();
+            if (value instanceof Double) {
+                builder.append(String.format(Locale.ROOT, "%.3f", (Double) value));
+            } else if (value instanceof Number || value instanceof Boolean) {
+                builder.append(value);
+            } else if (value == null) {
+                builder.append("null");
+            } else {
+                builder.append('"').append(Utils.escapeJson(String.valueOf(value))).append('"');
+            }
+        }
+
+        resultStream.println(builder.append("}"));
+    }
+
+    private static long getFolderSize(File folder) {
+        long size = 0;
+        for (File file : Utils.listFiles(folder))
+            size += file.isDirectory() ? getFolderSize(file) : file.length();
+        return size;
+    }
+
+    /**
+     * Work done on a single game file.
+     */
+    private interface CLIAction {
+        void run(File folder) throws Exception;
+    }
+
+    /**
+     * Thrown when there is nothing to do for a file.
+     */
+    private static class SkipTaskException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SkipTaskException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A task which checks that a single game file unpacks to the same bytes after being packed by each PP20 packer.
+     */
+    @AllArgsConstructor
+    private static class VerifyTask implements Callable<Map<String, Object>> {
+        private final String fileName;
+        private final GameFile file;
+
+        @Override
+        public Map<String, Object> call() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("event", "task");
+            result.put("type", "verify");
+            result.put("file", this.fileName);
+
+            long startTime = System.nanoTime();
+            long bytes = 0;
+            try {
+                ArrayReceiver receiver = new ArrayReceiver();
+                this.file.save(new DataWriter(receiver));
+                byte[] data = receiver.toArray();
+                bytes = data.length;
+
+                if (data.length == 0 || data.length > PP20Packer.MAX_UNCOMPRESSED_FILE_SIZE)
+                    throw new SkipTaskException("PP20 can't pack " + data.length + " bytes.");
+
+                List<String> failedPackers = new ArrayList<>();
+                if (!Arrays.equals(data, PP20Unpacker.unpackData(PP20Packer.packData(data))))
+                    failedPackers.add("accurate");
+                for (PackerEffort effort : PackerEffort.values())
+                    if (!Arrays.equals(data, PP20Unpacker.unpackData(PP20FastPacker.packData(data, effort))))
+                        failedPackers.add(effort.name());
+
+                if (!failedPackers.isEmpty())
+                    throw new RuntimeException("Packing with " + String.join(", ", failedPackers) + " did not unpack to the original bytes.");
+                result.put("status", "ok");
+            } catch (SkipTaskException ex) {
+                result.put("status", "skipped");
+                result.put("message", ex.getMessage());
+            } catch (Throwable th) {
+                System.out.println("Failed to verify packing " + this.fileName + ".");
+                th.printStackTrace();
+                result.put("status", "failed");
+                result.put("message", String.valueOf(th));
+            }
+
+            result.put("ms", getMillis(startTime));
+            result.put("bytes", bytes);
+            return result;
+        }
+    }
+
+    /**
+     * A task which exports or imports the assets of a single game file, in its own folder.
+     */
+    @Getter
+    private static class CLITask implements Callable<Map<String, Object>> {
+        private final AssetType type;
+        private final String fileName;
+        private final File folder;
+        private final CLIAction action;
+
+        public CLITask(AssetType type, GameFile file, File typeFolder, CLIAction action) {
+            this.type = type;
+            this.fileName = file.getFileEntry().getDisplayName();
+            this.folder = new File(typeFolder, Utils.stripExtension(this.fileName));
+            this.action = action;
+        }
+
+        @Override
+        public Map<String, Object> call() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("event", "task");
+            result.put("type", this.type.getFolderName());
+            result.put("file", this.fileName);
+
+            long startTime = System.nanoTime();
+            try {
+                Utils.makeDirectory(this.folder);
+                this.action.run(this.folder);
+                result.put("status", "ok");
+            } catch (SkipTaskException ex) {
+                result.put("status", "skipped");
+                result.put("message", ex.getMessage());
+            } catch (Throwable th) {
+                System.out.println("Failed to handle " + this.type.getFolderName() + " for " + this.fileName + ".");
+                th.printStackTrace();
+                result.put("status", "failed");
+                result.put("message", String.valueOf(th));
+            }
+
+            result.put("ms", getMillis(startTime));
+            result.put("bytes", getFolderSize(this.folder));
+            return result;
+        }
+    }
+}
@@ -26,7 +26,7 @@ public class DemoFile extends GameFile {
     private int startZ;
 
     public static final int TYPE_ID = 6;
-    private static final Image ICON = loadIcon("demo");
+    public static final Image ICON = loadIcon("demo");
     private static final int MAX_DEMO_FRAMES = 30 * 60;
     private static final int FILE_SIZE = MAX_DEMO_FRAMES + (3 * Constants.INTEGER_SIZE);
 
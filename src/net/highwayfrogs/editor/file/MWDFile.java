@@ -1,5 +1,6 @@
 package net.highwayfrogs.editor.file;
 
+import javafx.scene.image.Image;
 import lombok.Getter;
 import lombok.Setter;
 import net.highwayfrogs.editor.Constants;
@@ -9,10 +10,11 @@ import net.highwayfrogs.editor.file.map.MAPFile;
 import net.highwayfrogs.editor.file.map.MAPTheme;
 import net.highwayfrogs.editor.file.map.SkyLand;
 import net.highwayfrogs.editor.file.mof.MOFHolder;
-import net.highwayfrogs.editor.file.packers.PP20Packer;
-import net.highwayfrogs.editor.file.packers.PP20Unpacker;
+import net.highwayfrogs.editor.file.packers.PP20FastPacker.PackerEffort;
 import net.highwayfrogs.editor.file.reader.ArraySource;
 import net.highwayfrogs.editor.file.reader.DataReader;
+import net.highwayfrogs.editor.file.reader.DataSource;
+import net.highwayfrogs.editor.file.reader.MappedFileSource;
 import net.highwayfrogs.editor.file.sound.AbstractVBFile;
 import net.highwayfrogs.editor.file.sound.VHFile;
 import net.highwayfrogs.editor.file.sound.prototype.PrototypeVBFile;
@@ -22,19 +24,31 @@ import net.highwayfrogs.editor.file.sound.retail.RetailPCVBFile;
 import net.highwayfrogs.editor.file.vlo.GameImage;
 import net.highwayfrogs.editor.file.vlo.ImageFilterSettings;
 import net.highwayfrogs.editor.file.vlo.ImageFilterSettings.ImageState;
+import net.highwayfrogs.editor.file.vlo.TextureIdIndex;
 import net.highwayfrogs.editor.file.vlo.VLOArchive;
 import net.highwayfrogs.editor.file.writer.ArrayReceiver;
 import net.highwayfrogs.editor.file.writer.DataWriter;
 import net.highwayfrogs.editor.gui.SelectionMenu;
-import net.highwayfrogs.editor.utils.FroggerVersionComparison;
+import net.highwayfrogs.editor.system.FileMetrics;
+import net.highwayfrogs.editor.system.FileMetrics.Stage;
+import net.highwayfrogs.editor.system.FileMetrics.Timer;
 import net.highwayfrogs.editor.utils.Utils;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * MWAD File Format: Medieval WAD Archive.
@@ -45,14 +59,30 @@ import java.util.stream.Collectors;
 public class MWDFile extends GameObject {
     private final MWIFile wadIndexTable;
     private final List<GameFile> files = new ArrayList<>();
-    private final Map<GameFile, FileEntry> entryMap = new HashMap<>();
-    private final Map<FileEntry, GameFile> entryFileMap = new HashMap<>();
-    @Setter private BiConsumer<FileEntry, GameFile> saveCallback;
+    private final Map<GameFile, FileEntry> entryMap = Collections.synchronizedMap(new HashMap<>()); // Synchronized, since files register here while loading in parallel.
+    private final Map<FileEntry, GameFile> entryFileMap = Collections.synchronizedMap(new HashMap<>());
+    @Setter private BiConsumer<FileEntry, GameFile> saveCallback; // Called from the save threads once a file is saved. The file is null for entries which were never loaded from a lazy MWD.
 
     private final transient Map<MAPTheme, VLOArchive> vloThemeCache = new HashMap<>();
-
-    public static String CURRENT_FILE_NAME = null;
+    private transient TextureIdIndex textureIndex; // Built the first time an image is looked up by texture id.
+
+    // Lazy loading. Files are read from the memory-mapped archive the first time they are used.
+    private transient File archiveFile;
+    private transient DataSource archiveSource;
+    private final transient List<FileEntry> lazyEntries = new ArrayList<>(); // Every MWD entry in MWI order, until all files have been loaded.
+    private final transient Map<FileEntry, Integer> lazyArchiveOffsets = new HashMap<>(); // Saving moves entries, so the offsets in the mapped archive are kept here.
+    private final transient Map<FileEntry, FileEntry[]> lazyVBPairs = new HashMap<>(); // VBs are loaded by their VH, so each pair is loaded together.
+    private final transient Map<FileEntry, FileEntry> lazyGroupParents = new HashMap<>(); // The WAD each WAD file entry follows in the MWI, so only that WAD is loaded to find it.
+
+    public static final ThreadLocal<String> CURRENT_FILE_NAME = new ThreadLocal<>(); // The file being loaded or saved by this thread, for error messages. Files are loaded on several threads at once, so each has its own.
+    public static boolean PARALLEL_LOAD = true; // Disable to load files one at a time, which is useful for comparing load times or debugging. Set with setLoadMode.
+    public static boolean LAZY_LOAD = false; // Enable to only load files from the MWD once they are used. Set with setLoadMode.
+    public static boolean INCREMENTAL_SAVE = true; // Keeps the compressed bytes of each file, so files which have not changed are not compressed again when saving.
+    public static PackerEffort PACKER_EFFORT = null; // Compresses files with PP20FastPacker at this effort. Null uses PP20Packer, which matches the original game files.
+    public static int SAVE_THREADS = Runtime.getRuntime().availableProcessors(); // The number of files to save and compress at once.
+    private static final int ARCHIVE_REPLACE_ATTEMPTS = 10;
     private static final String MARKER = "DAWM";
+    private static final byte[] NULL_SECTOR = new byte[Constants.CD_SECTOR_SIZE];
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("EEEE, d MMMM yyyy");
     private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm:ss");
     public static final ImageFilterSettings VLO_ICON_SETTING = new ImageFilterSettings(ImageState.EXPORT);
@@ -61,40 +91,292 @@ public class MWDFile extends GameObject {
         this.wadIndexTable = table;
     }
 
+    /**
+     * Sets how MWDs are loaded, from the name of a load mode given as a program argument.
+     * @param loadMode "parallel", "serial" or "lazy".
+     */
+    public static void setLoadMode(String loadMode) {
+        switch (loadMode.toLowerCase()) {
+            case "parallel":
+                PARALLEL_LOAD = true;
+                LAZY_LOAD = false;
+                break;
+            case "serial":
+                PARALLEL_LOAD = false;
+                LAZY_LOAD = false;
+                break;
+            case "lazy":
+                LAZY_LOAD = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown load mode '" + loadMode + "'.");
+        }
+    }
+
     @Override
     public void load(DataReader reader) {
         reader.verifyString(MARKER);
 
-        AbstractVBFile lastVB = null; // VBs are indexed before VHs, but need to be loaded after VH. This allows us to do that.
+        Timer timer = FileMetrics.startTimer();
+        if (PARALLEL_LOAD) {
+            loadParallel(reader);
+        } else {
+            loadSerial(reader);
+        }
+
+        FileMetrics.finish("load", timer);
+    }
+
+    private void loadSerial(DataReader reader) {
+        AbstractVBFile<?> lastVB = null; // VBs are indexed before VHs, but need to be loaded after VH. This allows us to do that.
 
         for (FileEntry entry : wadIndexTable.getEntries()) {
             if (entry.testFlag(FileEntry.FLAG_GROUP_ACCESS))
                 continue; // This file is part of a WAD archive, and isn't a file entry in the MWD, so we can't load it here.
 
-            reader.setIndex(entry.getArchiveOffset());
+            byte[] fileBytes = unpackEntry(entry, readEntryBytes(reader, entry));
+            GameFile file = loadFile(fileBytes, entry, lastVB);
+            loadFileData(file, entry, fileBytes);
 
-            // Read the file. Decompress if needed.
-            byte[] fileBytes = reader.readBytes(entry.getArchiveSize());
-            if (entry.isCompressed())
-                fileBytes = PP20Unpacker.unpackData(fileBytes);
+            files.add(file);
+            lastVB = file instanceof AbstractVBFile ? (AbstractVBFile<?>) file : null;
+        }
+    }
 
-            // Calculate the SHA1 hash.
-            if (FroggerVersionComparison.isEnabled() && entry.getSha1Hash() == null)
-                entry.setSha1Hash(Utils.calculateSHA1Hash(fileBytes));
+    private void loadParallel(DataReader reader) {
+        List<FileEntry> entries = new ArrayList<>();
+        for (FileEntry entry : wadIndexTable.getEntries())
+            if (!entry.testFlag(FileEntry.FLAG_GROUP_ACCESS)) // Files which are part of a WAD archive are loaded by the WAD.
+                entries.add(entry);
+
+        // The reader isn't thread-safe, so the raw data is copied out first. Decompression and hashing are then done on all cores.
+        byte[][] fileData = new byte[entries.size()][];
+        for (int i = 0; i < entries.size(); i++)
+            fileData[i] = readEntryBytes(reader, entries.get(i));
+        IntStream.range(0, fileData.length).parallel().forEach(i -> fileData[i] = unpackEntry(entries.get(i), fileData[i]));
+
+        // Create the files in MWI order, so the VB -> VH pairing and the file order is the same as a serial load.
+        // Files which depend on each other are grouped into tasks which are loaded in order.
+        // A VB must be given its reader before its VH loads it, and WADs with MOF parent overrides look up MOFs in earlier WADs.
+        List<List<Integer>> loadTasks = new ArrayList<>();
+        List<Integer> wadTask = getConfig().getMofParentOverrides().isEmpty() ? null : new ArrayList<>();
+        AbstractVBFile<?> lastVB = null;
+        for (int i = 0; i < entries.size(); i++) {
+            GameFile file = loadFile(fileData[i], entries.get(i), lastVB);
+            files.add(file);
 
-            GameFile file = loadFile(fileBytes, entry, lastVB);
+            if (lastVB != null) { // This is the header of the last VB, so it belongs in the VB's task.
+                loadTasks.get(loadTasks.size() - 1).add(i);
+            } else if (file instanceof WADFile && wadTask != null) {
+                if (wadTask.isEmpty())
+                    loadTasks.add(wadTask);
+                wadTask.add(i);
+            } else {
+                loadTasks.add(new ArrayList<>(Collections.singletonList(i)));
+            }
 
-            try {
-                file.load(new DataReader(new ArraySource(fileBytes)));
-            } catch (Exception ex) {
-                System.out.println("Failed to load " + entry.getDisplayName());
-                ex.printStackTrace();
+            lastVB = file instanceof AbstractVBFile ? (AbstractVBFile<?>) file : null;
+        }
+
+        loadTasks.parallelStream().forEach(task -> {
+            for (int i : task)
+                loadFileData(files.get(i), entries.get(i), fileData[i]);
+        });
+    }
+
+    private static byte[] readEntryBytes(DataReader reader, FileEntry entry) {
+        Timer timer = FileMetrics.startTimer();
+        reader.setIndex(entry.getArchiveOffset());
+        byte[] fileBytes = reader.readBytes(entry.getArchiveSize());
+        FileMetrics.record(entry, null, Stage.READ, timer, fileBytes.length, fileBytes.length);
+        return fileBytes;
+    }
 
-                //throw new RuntimeException("Failed to load " + entry.getDisplayName() + ", " + entry.getLoadedId(), ex);
+    private static byte[] unpackEntry(FileEntry entry, byte[] fileBytes) {
+        return entry.unpackData(fileBytes, entry.isCompressed());
+    }
+
+    private static void loadFileData(GameFile file, FileEntry entry, byte[] fileBytes) {
+        Timer timer = FileMetrics.startTimer();
+        try {
+            file.load(new DataReader(new ArraySource(fileBytes)));
+            FileMetrics.record(entry, file, Stage.LOAD, timer, fileBytes.length, 0);
+        } catch (Exception ex) {
+            System.out.println("Failed to load " + entry.getDisplayName());
+            ex.printStackTrace();
+
+            //throw new RuntimeException("Failed to load " + entry.getDisplayName() + ", " + entry.getLoadedId(), ex);
+        }
+    }
+
+    /**
+     * Opens a MWD without loading any of its files. Files are decompressed and loaded from the memory-mapped archive once they are used.
+     * Files which are never used are saved by copying their original bytes.
+     * @param mwdFile The MWD file to open.
+     */
+    public void loadLazy(File mwdFile) throws IOException {
+        this.archiveFile = mwdFile;
+        this.archiveSource = new MappedFileSource(mwdFile);
+        new DataReader(this.archiveSource.slice(0, MARKER.length())).verifyString(MARKER);
+
+        FileEntry lastVB = null;
+        FileEntry lastGroup = null;
+        for (FileEntry entry : wadIndexTable.getEntries()) {
+            if (entry.testFlag(FileEntry.FLAG_GROUP_ACCESS)) { // This file is part of a WAD archive, so the WAD will load it.
+                if (lastGroup != null)
+                    this.lazyGroupParents.put(entry, lastGroup);
+                continue;
             }
 
-            files.add(file);
-            lastVB = file instanceof AbstractVBFile ? (AbstractVBFile) file : null;
+            lastGroup = entry.testFlag(FileEntry.FLAG_IS_GROUP) ? entry : null;
+
+            this.lazyEntries.add(entry);
+            this.lazyArchiveOffsets.put(entry, entry.getArchiveOffset());
+
+            // Pair VBs with VHs the same way loadFile does, so they can be loaded in either order.
+            if (lastVB != null) {
+                FileEntry[] pair = new FileEntry[]{lastVB, entry};
+                this.lazyVBPairs.put(lastVB, pair);
+                this.lazyVBPairs.put(entry, pair);
+                lastVB = null;
+            } else if (FileType.getType(entry) == FileType.SOUND) {
+                lastVB = entry;
+            }
+        }
+    }
+
+    /**
+     * Test if there are files which have not been loaded yet.
+     * @return hasUnloadedFiles
+     */
+    public boolean isLazyLoading() {
+        return !this.lazyEntries.isEmpty();
+    }
+
+    /**
+     * Gets the number of files in this MWD, without loading any files which have not been loaded yet.
+     * @return fileCount
+     */
+    public int getFileCount() {
+        return isLazyLoading() ? this.lazyEntries.size() : this.files.size();
+    }
+
+    /**
+     * Gets the entries of the files in this MWD, in MWI order, without loading any files which have not been loaded yet.
+     * @return fileEntries
+     */
+    public synchronized List<FileEntry> getFileEntries() {
+        if (isLazyLoading())
+            return new ArrayList<>(this.lazyEntries);
+
+        List<FileEntry> fileEntries = new ArrayList<>(this.files.size());
+        for (GameFile file : this.files)
+            fileEntries.add(this.entryMap.get(file));
+        return fileEntries;
+    }
+
+    /**
+     * Gets the files in this MWD, in MWI order. If the MWD was opened lazily, all remaining files are loaded first.
+     * @return files
+     */
+    public synchronized List<GameFile> getFiles() {
+        if (isLazyLoading()) {
+            AbstractVBFile<?> lastVB = null;
+            for (FileEntry entry : this.lazyEntries) {
+                GameFile file = this.entryFileMap.get(entry);
+                if (file == null)
+                    file = loadLazyEntry(entry, lastVB);
+
+                this.files.add(file);
+                lastVB = file instanceof AbstractVBFile ? (AbstractVBFile<?>) file : null;
+            }
+
+            this.lazyEntries.clear();
+        }
+
+        return this.files;
+    }
+
+    /**
+     * Gets the file for a given entry. If the MWD was opened lazily and the file has not been used yet, it will be loaded now.
+     * @param entry The entry to get the file for.
+     * @return gameFile, can be null.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends GameFile> T getGameFile(FileEntry entry) {
+        GameFile file = this.entryFileMap.get(entry);
+        if (file != null || entry == null || !isLazyLoading())
+            return (T) file;
+
+        if (entry.testFlag(FileEntry.FLAG_GROUP_ACCESS)) { // Load the WAD this file is listed under. If it isn't there, every WAD is loaded to find it.
+            FileEntry groupEntry = this.lazyGroupParents.get(entry);
+            if (groupEntry != null)
+                getGameFile(groupEntry);
+            if (!this.entryFileMap.containsKey(entry))
+                getFiles();
+            return (T) this.entryFileMap.get(entry);
+        }
+
+        FileEntry[] vbPair = this.lazyVBPairs.get(entry);
+        if (vbPair != null) {
+            AbstractVBFile<?> vbFile = (AbstractVBFile<?>) loadLazyEntry(vbPair[0], null);
+            loadLazyEntry(vbPair[1], vbFile);
+        } else {
+            loadLazyEntry(entry, null);
+        }
+
+        return (T) this.entryFileMap.get(entry);
+    }
+
+    /**
+     * Gets the files in this MWD which may be of a given type, or may hold files of that type, in MWI order.
+     * If the MWD was opened lazily, only those files are loaded, instead of every file.
+     * @param fileClass The type of file to find.
+     * @return files
+     */
+    private synchronized List<GameFile> getFilesHolding(Class<?> fileClass) {
+        if (!isLazyLoading())
+            return getFiles();
+
+        List<GameFile> results = new ArrayList<>();
+        for (FileEntry entry : new ArrayList<>(this.lazyEntries)) { // Copied, since loading a file can finish lazy loading.
+            if (!FileType.getType(entry).mayHold(fileClass))
+                continue;
+
+            GameFile file = getGameFile(entry);
+            if (file != null)
+                results.add(file);
+        }
+
+        return results;
+    }
+
+    private GameFile loadLazyEntry(FileEntry entry, AbstractVBFile<?> lastVB) {
+        byte[] fileBytes = unpackEntry(entry, readLazyEntryBytes(entry));
+        GameFile file = loadFile(fileBytes, entry, lastVB);
+        loadFileData(file, entry, fileBytes);
+
+        // Files loaded after the texture index was built are added to it.
+        if (file instanceof VLOArchive) {
+            onImagesAdded((VLOArchive) file);
+        } else if (file instanceof WADFile) {
+            for (WADEntry wadEntry : ((WADFile) file).getFiles())
+                if (wadEntry.getFile() instanceof VLOArchive)
+                    onImagesAdded((VLOArchive) wadEntry.getFile());
+        }
+
+        return file;
+    }
+
+    private byte[] readLazyEntryBytes(FileEntry entry) {
+        Timer timer = FileMetrics.startTimer();
+        int archiveSize = entry.getArchiveSize();
+        try {
+            byte[] fileBytes = this.archiveSource.slice(this.lazyArchiveOffsets.get(entry), archiveSize).readBytes(archiveSize);
+            FileMetrics.record(entry, null, Stage.READ, timer, archiveSize, archiveSize);
+            return fileBytes;
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read " + entry.getDisplayName() + " from the MWD.", ex);
         }
     }
 
@@ -112,15 +394,27 @@ public class MWDFile extends GameObject {
             MOFHolder oldHolder = (MOFHolder) oldFile;
             newFile = (T) new MOFHolder(oldHolder.getTheme(), oldHolder.getCompleteMOF());
         } else {
-            AbstractVBFile lastVB = (oldFile instanceof VHFile) ? ((VHFile) oldFile).getVB() : null;
+            AbstractVBFile<?> lastVB = (oldFile instanceof VHFile) ? ((VHFile) oldFile).getVB() : null;
             newFile = this.loadFile(fileBytes, entry, lastVB);
         }
 
         entryMap.put(newFile, entry);
         entryFileMap.put(entry, newFile);
-        CURRENT_FILE_NAME = entry.getDisplayName();
+        int fileIndex = files.indexOf(oldFile);
+        if (fileIndex >= 0)
+            files.set(fileIndex, newFile);
+        entry.markDirty();
+        CURRENT_FILE_NAME.set(entry.getDisplayName());
 
         newFile.load(new DataReader(new ArraySource(fileBytes)));
+        if (oldFile instanceof VLOArchive && newFile instanceof VLOArchive) {
+            onImagesReplaced((VLOArchive) oldFile, (VLOArchive) newFile);
+        } else {
+            if (oldFile instanceof VLOArchive)
+                onImagesRemoved((VLOArchive) oldFile);
+            if (newFile instanceof VLOArchive)
+                onImagesAdded((VLOArchive) newFile);
+        }
         return newFile;
     }
 
@@ -132,53 +426,141 @@ public class MWDFile extends GameObject {
      * @return loadedFile
      */
     @SuppressWarnings("unchecked")
-    public <T extends GameFile> T loadFile(byte[] fileBytes, FileEntry entry, AbstractVBFile lastVB) {
+    public <T extends GameFile> T loadFile(byte[] fileBytes, FileEntry entry, AbstractVBFile<?> lastVB) {
         // Turn the byte data into the appropriate game-file.
         GameFile file;
 
-        if (entry.getSpoofedTypeId() == VLOArchive.TYPE_ID) {
-            file = new VLOArchive();
-        } else if (entry.getTypeId() == MAPFile.TYPE_ID) {
-            if (entry.getDisplayName().startsWith(Constants.SKY_LAND_PREFIX)) { // These maps are entered as a map, even though it is not. It should be loaded as a DummyFile for now.
+        switch (FileType.getType(entry)) {
+            case VLO:
+                file = new VLOArchive();
+                break;
+            case SKY_LAND:
                 file = new SkyLand();
-            } else {
+                break;
+            case MAP:
                 file = new MAPFile();
-            }
-        } else if (entry.getTypeId() == WADFile.TYPE_ID) {
-            file = new WADFile();
-        } else if (entry.getTypeId() == DemoFile.TYPE_ID) {
-            file = new DemoFile();
-        } else if (entry.getTypeId() == PALFile.TYPE_ID) {
-            file = new PALFile();
-        } else if (entry.getTypeId() == VHFile.TYPE_ID) { // PSX support is disabled until it is complete.
-            if (getConfig().isPSX()) {
-                if (lastVB != null) {
-                    file = new PSXVHFile();
-                    ((PSXVHFile) file).setVB((PSXVBFile) lastVB);
+                break;
+            case WAD:
+                file = new WADFile();
+                break;
+            case DEMO:
+                file = new DemoFile();
+                break;
+            case PALETTE:
+                file = new PALFile();
+                break;
+            case SOUND: // PSX support is disabled until it is complete.
+                if (getConfig().isPSX()) {
+                    if (lastVB != null) {
+                        file = new PSXVHFile();
+                        ((PSXVHFile) file).setVB((PSXVBFile) lastVB);
+                    } else {
+                        file = new PSXVBFile();
+                    }
+                } else if (lastVB != null) {
+                    VHFile vhFile = new VHFile();
+                    vhFile.setVB(lastVB);
+                    file = vhFile;
+                } else if (getConfig().isAtLeastRetailWindows()) {
+                    file = new RetailPCVBFile();
                 } else {
-                    file = new PSXVBFile();
+                    file = new PrototypeVBFile();
                 }
-            } else if (lastVB != null) {
-                VHFile vhFile = new VHFile();
-                vhFile.setVB(lastVB);
-                file = vhFile;
-            } else if (getConfig().isAtLeastRetailWindows()) {
-                file = new RetailPCVBFile();
-            } else {
-                file = new PrototypeVBFile();
-            }
-        } else {
-            file = new DummyFile(fileBytes.length);
+                break;
+            default:
+                file = new DummyFile(fileBytes.length);
+                break;
         }
 
         entryMap.put(file, entry);
         entryFileMap.put(entry, file);
-        CURRENT_FILE_NAME = entry.getDisplayName();
+        CURRENT_FILE_NAME.set(entry.getDisplayName());
         return (T) file;
     }
 
     @Override
     public void save(DataWriter writer) {
+        writeHeader(writer);
+        try {
+            saveFiles(writer.getIndex(), (position, data) -> {
+                writer.jumpTo((int) position);
+                writer.writeBytes(toByteArray(data));
+            });
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to save the MWD.", ex);
+        }
+    }
+
+    /**
+     * Saves the MWD straight to a file. Each file is written at its sector as soon as it has been saved,
+     * so only the files currently being saved are held in memory, instead of the whole archive.
+     * @param outputFile The file to save the MWD to.
+     */
+    public void save(File outputFile) {
+        if (isLazyLoading() && isArchiveFile(outputFile)) { // Unloaded files are copied from the file being overwritten, so it can't be written to directly.
+            saveOverArchive(outputFile);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ArrayReceiver header = new ArrayReceiver();
+            writeHeader(new DataWriter(header));
+            writeFully(channel, 0, ByteBuffer.wrap(header.getArray(), 0, header.getSize()));
+            saveFiles(header.getSize(), (position, data) -> writeFully(channel, position, data));
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to save the MWD to '" + outputFile.getName() + "'.", ex);
+        }
+    }
+
+    /**
+     * Saves a lazily loaded MWD over the archive it is loading files from.
+     * The MWD is saved to a temporary file next to the archive first. Unloaded files are then read from the temporary file,
+     * so the original archive is no longer used, and the temporary file is moved over it.
+     * @param outputFile The archive to replace.
+     */
+    private void saveOverArchive(File outputFile) {
+        File tempFile;
+        try {
+            tempFile = File.createTempFile(outputFile.getName(), ".tmp", outputFile.getAbsoluteFile().getParentFile());
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to create a temporary file to save '" + outputFile.getName() + "' to.", ex);
+        }
+
+        try {
+            save(tempFile);
+            DataSource savedSource = new MappedFileSource(tempFile);
+            for (FileEntry entry : this.lazyEntries)
+                this.lazyArchiveOffsets.put(entry, entry.getArchiveOffset());
+            this.archiveSource = savedSource;
+            this.archiveFile = tempFile;
+        } catch (Throwable th) {
+            Utils.deleteFile(tempFile);
+            throw new RuntimeException("Failed to save the MWD to '" + outputFile.getName() + "'.", th);
+        }
+
+        // The old archive may still be mapped until its mapping is garbage collected. On Windows, a mapped file can't be replaced until then.
+        IOException lastError = null;
+        for (int i = 0; i < ARCHIVE_REPLACE_ATTEMPTS; i++) {
+            try {
+                Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                this.archiveFile = outputFile;
+                return;
+            } catch (IOException ex) {
+                lastError = ex;
+                System.gc();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        throw new RuntimeException("The MWD was saved to '" + tempFile.getName() + "', but it could not replace '" + outputFile.getName() + "'.", lastError);
+    }
+
+    private void writeHeader(DataWriter writer) {
         writer.writeBytes(MARKER.getBytes());
         writer.writeInt(0);
 
@@ -186,41 +568,141 @@ public class MWDFile extends GameObject {
         writer.writeTerminatorString("\nCreation Date: " + DATE_FORMAT.format(date)
                 + "\nCreation Time: " + TIME_FORMAT.format(date)
                 + "\nThis MWD was built using FrogLord.\n");
+    }
+
+    private void saveFiles(int headerSize, ArchiveOutput output) throws IOException {
+        Timer timer = FileMetrics.startTimer();
+
+        // When the MWD was opened lazily, files which were never used are copied from the original archive.
+        List<FileEntry> saveEntries = new ArrayList<>();
+        if (isLazyLoading()) {
+            saveEntries.addAll(this.lazyEntries);
+        } else {
+            for (GameFile file : files)
+                saveEntries.add(entryMap.get(file));
+        }
+
+        // Files are saved and packed in parallel. VHs are saved after their VB, since they include the addresses the VB was saved to.
+        List<List<Integer>> saveTasks = new ArrayList<>();
+        GameFile lastFile = null;
+        for (int i = 0; i < saveEntries.size(); i++) {
+            GameFile file = entryFileMap.get(saveEntries.get(i));
+            if (lastFile instanceof AbstractVBFile) {
+                saveTasks.get(saveTasks.size() - 1).add(i);
+            } else {
+                saveTasks.add(new ArrayList<>(Collections.singletonList(i)));
+            }
+
+            lastFile = file;
+        }
 
+        // Files are written in MWI order as soon as they are ready, so the sector layout is the same no matter what order the files were saved in.
+        // Only a few tasks are started ahead of the file being written, so the saved files waiting to be written don't pile up in memory.
+        int threadCount = Math.max(1, SAVE_THREADS);
+        ExecutorService savePool = Executors.newFixedThreadPool(threadCount);
+        Deque<Future<ByteBuffer[]>> pendingTasks = new ArrayDeque<>();
+        int nextTask = 0;
         int sectorOffset = 0;
-        long mwdStart = System.currentTimeMillis();
-        for (GameFile file : files) {
-            FileEntry entry = entryMap.get(file);
+        long writeIndex = headerSize;
+        try {
+            while (nextTask < saveTasks.size() || !pendingTasks.isEmpty()) {
+                while (nextTask < saveTasks.size() && pendingTasks.size() < threadCount * 2) {
+                    List<Integer> task = saveTasks.get(nextTask++);
+                    pendingTasks.add(savePool.submit(() -> {
+                        ByteBuffer[] results = new ByteBuffer[task.size()];
+                        for (int i = 0; i < results.length; i++)
+                            results[i] = saveEntry(saveEntries.get(task.get(i)));
+                        return results;
+                    }));
+                }
+
+                List<Integer> task = saveTasks.get(nextTask - pendingTasks.size());
+                ByteBuffer[] results = pendingTasks.poll().get();
+                for (int i = 0; i < results.length; i++) {
+                    FileEntry entry = saveEntries.get(task.get(i));
+                    do { // Find the next unused sector, to write the next entry.
+                        entry.setSectorOffset(++sectorOffset);
+                    } while (writeIndex > entry.getArchiveOffset());
+
+                    int size = results[i].remaining();
+                    writeIndex = writePadding(output, writeIndex, entry.getArchiveOffset());
+                    output.write(writeIndex, results[i]);
+                    writeIndex += size;
+                }
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException("Failed to save the MWD.", ex.getCause() != null ? ex.getCause() : ex);
+        } finally {
+            savePool.shutdownNow();
+        }
+
+        // Fill the rest of the file with null bytes.
+        FileEntry lastEntry = saveEntries.get(saveEntries.size() - 1);
+        writePadding(output, writeIndex, writeIndex + Constants.CD_SECTOR_SIZE - (lastEntry.getArchiveSize() % Constants.CD_SECTOR_SIZE));
+        FileMetrics.finish("save", timer);
+    }
 
-            do { // Find the next unused sector, to write the next entry.
-                entry.setSectorOffset(++sectorOffset);
-            } while (writer.getIndex() > entry.getArchiveOffset());
-            writer.jumpTo(entry.getArchiveOffset());
+    private static long writePadding(ArchiveOutput output, long startIndex, long endIndex) throws IOException {
+        long index = startIndex;
+        while (index < endIndex) {
+            int length = (int) Math.min(endIndex - index, NULL_SECTOR.length);
+            output.write(index, ByteBuffer.wrap(NULL_SECTOR, 0, length));
+            index += length;
+        }
 
-            long start = System.currentTimeMillis();
-            CURRENT_FILE_NAME = entry.getDisplayName();
-            System.out.print("Saving " + entry.getDisplayName() + " to MWD. (" + (files.indexOf(file) + 1) + "/" + files.size() + ") ");
-            if (getSaveCallback() != null)
-                getSaveCallback().accept(entry, file);
+        return index;
+    }
 
-            ArrayReceiver receiver = new ArrayReceiver();
-            file.save(new DataWriter(receiver));
+    private static void writeFully(FileChannel channel, long position, ByteBuffer data) throws IOException {
+        while (data.hasRemaining())
+            position += channel.write(data, position);
+    }
 
-            byte[] transfer = receiver.toArray();
-            entry.setUnpackedSize(transfer.length);
-            if (entry.isCompressed())
-                transfer = PP20Packer.packData(transfer);
+    private static byte[] toByteArray(ByteBuffer data) {
+        if (data.hasArray() && data.arrayOffset() == 0 && data.position() == 0 && data.remaining() == data.array().length)
+            return data.array();
 
-            entry.setPackedSize(transfer.length);
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
 
-            writer.writeBytes(transfer);
-            System.out.println("Time: " + ((System.currentTimeMillis() - start) / 1000) + "s.");
+    private boolean isArchiveFile(File file) {
+        try {
+            return this.archiveFile != null && file.exists() && Files.isSameFile(this.archiveFile.toPath(), file.toPath());
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to compare '" + file.getName() + "' to the MWD being saved.", ex);
         }
-        System.out.println("MWD Built. Total Time: " + ((System.currentTimeMillis() - mwdStart) / 1000) + "s.");
+    }
 
-        // Fill the rest of the file with null bytes.
-        GameFile lastFile = files.get(files.size() - 1);
-        writer.writeNull(Constants.CD_SECTOR_SIZE - (entryMap.get(lastFile).getArchiveSize() % Constants.CD_SECTOR_SIZE));
+    /**
+     * Writes saved bytes to a position in the MWD.
+     */
+    private interface ArchiveOutput {
+        void write(long position, ByteBuffer data) throws IOException;
+    }
+
+    private ByteBuffer saveEntry(FileEntry entry) {
+        GameFile file = entryFileMap.get(entry);
+        CURRENT_FILE_NAME.set(entry.getDisplayName());
+
+        ByteBuffer transfer;
+        if (file != null) {
+            Timer timer = FileMetrics.startTimer();
+            ArrayReceiver receiver = new ArrayReceiver();
+            file.save(new DataWriter(receiver));
+            FileMetrics.record(entry, file, Stage.SAVE, timer, 0, receiver.getSize());
+
+            entry.setUnpackedSize(receiver.getSize());
+            transfer = entry.isCompressed() ? ByteBuffer.wrap(entry.packData(receiver.getArray(), receiver.getSize())) : ByteBuffer.wrap(receiver.getArray(), 0, receiver.getSize());
+            entry.setPackedSize(transfer.remaining());
+        } else { // The file was never loaded, so it is copied from the original archive.
+            transfer = ByteBuffer.wrap(readLazyEntryBytes(entry));
+        }
+
+        if (getSaveCallback() != null)
+            getSaveCallback().accept(entry, file);
+        return transfer;
     }
 
     /**
@@ -230,7 +712,7 @@ public class MWDFile extends GameObject {
      * @param allowNull Are null VLOs allowed?
      */
     public void promptVLOSelection(MAPTheme theme, Consumer<VLOArchive> handler, boolean allowNull) {
-        List<VLOArchive> allVLOs = getFiles().stream()
+        List<VLOArchive> allVLOs = getFilesHolding(VLOArchive.class).stream()
                 .filter(VLOArchive.class::isInstance)
                 .map(VLOArchive.class::cast)
                 .collect(Collectors.toList());
@@ -267,7 +749,7 @@ public class MWDFile extends GameObject {
      * @return skyLand
      */
     public SkyLand getSkyLand() {
-        for (GameFile file : getFiles())
+        for (GameFile file : getFilesHolding(SkyLand.class))
             if (file instanceof SkyLand)
                 return (SkyLand) file;
         throw new RuntimeException("Sky Land is not present.");
@@ -280,7 +762,7 @@ public class MWDFile extends GameObject {
     public <T extends GameFile> List<T> getAllFiles(Class<T> fileClass) {
         List<T> results = new ArrayList<>();
 
-        for (GameFile file : getFiles()) {
+        for (GameFile file : getFilesHolding(fileClass)) {
             if (fileClass.isInstance(file))
                 results.add(fileClass.cast(file));
 
@@ -303,7 +785,7 @@ public class MWDFile extends GameObject {
      * @param handler   The behavior to apply.
      */
     public <T extends GameFile> void forEachFile(Class<T> fileClass, Consumer<T> handler) {
-        for (GameFile file : getFiles()) {
+        for (GameFile file : getFilesHolding(fileClass)) {
             if (fileClass.isInstance(file))
                 handler.accept(fileClass.cast(file));
 
@@ -324,7 +806,7 @@ public class MWDFile extends GameObject {
      * @param handler   The behavior to apply.
      */
     public <T extends GameFile, R> R resolveForEachFile(Class<T> fileClass, Function<T, R> handler) {
-        for (GameFile file : getFiles()) {
+        for (GameFile file : getFilesHolding(fileClass)) {
             if (fileClass.isInstance(file)) {
                 R result = handler.apply(fileClass.cast(file));
                 if (result != null)
@@ -351,16 +833,11 @@ public class MWDFile extends GameObject {
      * @param textureId The texture ID to get.
      * @return gameImage
      */
-    public GameImage getImageByTextureId(int textureId) {
+    public synchronized GameImage getImageByTextureId(int textureId) { // Synchronized like the methods which update the index, since files can be edited on several threads.
         if (textureId < 0)
             textureId = 0; // This is a hack to allow for loading maps without remaps on build 20. In new FrogLord, this should be null / return blank texture.
 
-        for (VLOArchive vlo : getAllFiles(VLOArchive.class))
-            for (GameImage testImage : vlo.getImages())
-                if (testImage.getTextureId() == textureId)
-                    return testImage;
-
-        return null;
+        return getTextureIndex().getImage(textureId);
     }
 
     /**
@@ -368,17 +845,105 @@ public class MWDFile extends GameObject {
      * @param textureId The texture ID to get.
      * @return gameImage
      */
-    public List<GameImage> getImagesByTextureId(int textureId) {
-        List<GameImage> results = new ArrayList<>();
+    public synchronized List<GameImage> getImagesByTextureId(int textureId) {
+        return getTextureIndex().getImages(textureId);
+    }
+
+    /**
+     * Gets the index used to find images by their texture id, building it if it has not been built yet.
+     * The index is only used while holding this MWD's lock, since it is not thread-safe.
+     * @return textureIndex
+     */
+    private synchronized TextureIdIndex getTextureIndex() {
+        if (this.textureIndex == null) {
+            TextureIdIndex newIndex = new TextureIdIndex();
+            for (VLOArchive vlo : getIndexedVLOs())
+                newIndex.addImages(vlo);
+            this.textureIndex = newIndex;
+        }
+
+        return this.textureIndex;
+    }
 
-        for (VLOArchive vlo : getAllFiles(VLOArchive.class))
-            for (GameImage testImage : vlo.getImages())
-                if (testImage.getTextureId() == textureId)
-                    results.add(testImage);
+    private List<VLOArchive> getIndexedVLOs() {
+        if (!isLazyLoading())
+            return getAllFiles(VLOArchive.class);
+
+        // WADs are only searched if they have been loaded already, so building the index doesn't load every WAD.
+        // VLOs in WADs which are loaded later are added to the index once their WAD loads.
+        List<VLOArchive> results = new ArrayList<>();
+        for (FileEntry entry : new ArrayList<>(this.lazyEntries)) {
+            GameFile file = FileType.getType(entry) == FileType.VLO ? getGameFile(entry) : this.entryFileMap.get(entry);
+            if (file instanceof VLOArchive) {
+                results.add((VLOArchive) file);
+            } else if (file instanceof WADFile) {
+                for (WADEntry wadEntry : ((WADFile) file).getFiles())
+                    if (wadEntry.getFile() instanceof VLOArchive)
+                        results.add((VLOArchive) wadEntry.getFile());
+            }
+        }
 
         return results;
     }
 
+    /**
+     * Adds the images of a VLO to the texture index. Should be called when a VLO is added to this MWD.
+     * @param vlo The VLO which was added.
+     */
+    public synchronized void onImagesAdded(VLOArchive vlo) {
+        if (this.textureIndex != null)
+            this.textureIndex.addImages(vlo);
+    }
+
+    /**
+     * Removes the images of a VLO from the texture index. Should be called when a VLO is removed from this MWD.
+     * @param vlo The VLO which was removed.
+     */
+    public synchronized void onImagesRemoved(VLOArchive vlo) {
+        if (this.textureIndex != null)
+            this.textureIndex.removeImages(vlo);
+    }
+
+    /**
+     * Replaces the images of a VLO in the texture index with the images of the VLO which replaced it, keeping their place in the index.
+     * @param oldVlo The VLO which was replaced.
+     * @param newVlo The VLO which replaced it.
+     */
+    public synchronized void onImagesReplaced(VLOArchive oldVlo, VLOArchive newVlo) {
+        if (this.textureIndex != null)
+            this.textureIndex.replaceImages(oldVlo, newVlo);
+    }
+
+    /**
+     * Updates the texture index after an image is added to a VLO.
+     * @param image The image which was added.
+     */
+    public synchronized void onImageAdded(GameImage image) {
+        if (this.textureIndex != null)
+            this.textureIndex.addImage(image);
+    }
+
+    /**
+     * Updates the texture index after an image is removed from a VLO.
+     * @param image The image which was removed.
+     */
+    public synchronized void onImageRemoved(GameImage image) {
+        if (this.textureIndex != null)
+            this.textureIndex.removeImage(image);
+    }
+
+    /**
+     * Updates the texture index after the texture id of an image changes.
+     * @param image        The image which changed.
+     * @param oldTextureId The texture id the image used to have.
+     */
+    public synchronized void onTextureIdChanged(GameImage image, short oldTextureId) {
+        if (this.textureIndex != null) {
+            this.textureIndex.removeImage(image, oldTextureId);
+            this.textureIndex.addImage(image);
+        }
+    }
+
     /**
      * Gets the FPS this game will run at.
      * @return fps
@@ -386,4 +951,62 @@ public class MWDFile extends GameObject {
     public int getFPS() {
         return getConfig().isPSX() ? 30 : 25;
     }
+
+    /**
+     * The kinds of files an MWD entry can be, which decides what an entry is loaded as, which files it may hold, and its icon.
+     */
+    @Getter
+    public enum FileType {
+        VLO(VLOArchive.ICON, VLOArchive.class),
+        SKY_LAND(DummyFile.ICON, SkyLand.class), // These maps are entered as a map, even though it is not. It should be loaded as a DummyFile for now.
+        MAP(MAPFile.ICON, MAPFile.class),
+        WAD(WADFile.ICON, WADFile.class, VLOArchive.class, MAPFile.class, MOFHolder.class, DemoFile.class, DummyFile.class), // Which files a WAD holds isn't known until it is loaded.
+        DEMO(DemoFile.ICON, DemoFile.class),
+        PALETTE(PALFile.ICON, PALFile.class),
+        SOUND(VHFile.ICON, AbstractVBFile.class, VHFile.class, PSXVHFile.class),
+        UNKNOWN(DummyFile.ICON, DummyFile.class);
+
+        private final Image icon;
+        private final Class<?>[] fileClasses; // The types of files entries of this type are loaded as, or hold.
+
+        FileType(Image icon, Class<?>... fileClasses) {
+            this.icon = icon;
+            this.fileClasses = fileClasses;
+        }
+
+        /**
+         * Test if an entry of this type may be, or may hold, a given type of file.
+         * @param fileClass The type of file.
+         * @return mayHold
+         */
+        public boolean mayHold(Class<?> fileClass) {
+            for (Class<?> testClass : this.fileClasses)
+                if (fileClass.isAssignableFrom(testClass))
+                    return true;
+            return false;
+        }
+
+        /**
+         * Gets the type of file an entry is.
+         * @param entry The entry to get the type of.
+         * @return fileType
+         */
+        public static FileType getType(FileEntry entry) {
+            if (entry.getSpoofedTypeId() == VLOArchive.TYPE_ID) {
+                return VLO;
+            } else if (entry.getTypeId() == MAPFile.TYPE_ID) {
+                return entry.getDisplayName().startsWith(Constants.SKY_LAND_PREFIX) ? SKY_LAND : MAP;
+            } else if (entry.getTypeId() == WADFile.TYPE_ID) {
+                return WAD;
+            } else if (entry.getTypeId() == DemoFile.TYPE_ID) {
+                return DEMO;
+            } else if (entry.getTypeId() == PALFile.TYPE_ID) {
+                return PALETTE;
+            } else if (entry.getTypeId() == VHFile.TYPE_ID) {
+                return SOUND;
+            } else {
+                return UNKNOWN;
+            }
+        }
+    }
 }
\ No newline at end of file
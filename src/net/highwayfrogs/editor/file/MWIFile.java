@@ -7,11 +7,21 @@ import net.highwayfrogs.editor.file.config.FroggerEXEInfo;
 import net.highwayfrogs.editor.file.config.exe.MapBook;
 import net.highwayfrogs.editor.file.config.exe.ThemeBook;
 import net.highwayfrogs.editor.file.map.MAPFile;
+import net.highwayfrogs.editor.file.packers.PP20FastPacker;
+import net.highwayfrogs.editor.file.packers.PP20FastPacker.PackerEffort;
+import net.highwayfrogs.editor.file.packers.PP20Packer;
+import net.highwayfrogs.editor.file.packers.PP20Unpacker;
 import net.highwayfrogs.editor.file.reader.DataReader;
 import net.highwayfrogs.editor.file.vlo.VLOArchive;
 import net.highwayfrogs.editor.file.writer.DataWriter;
+import net.highwayfrogs.editor.system.AssetCache;
+import net.highwayfrogs.editor.system.FileMetrics;
+import net.highwayfrogs.editor.system.FileMetrics.Stage;
+import net.highwayfrogs.editor.system.FileMetrics.Timer;
+import net.highwayfrogs.editor.utils.Utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -120,6 +130,12 @@ public class MWIFile extends GameObject {
         private String sha1Hash;
         private transient int resourceId;
         private transient FroggerEXEInfo config;
+        private transient byte[] packedData; // The compressed bytes last loaded or saved for this file. Reused if the file is saved unchanged.
+        private transient byte[] packedDataHash; // The SHA1 hash of the uncompressed bytes which packedData holds.
+        private transient PackerEffort packedDataEffort; // The effort packedData was packed with. Null if it was packed by the accurate packer, or loaded.
+        private transient byte[] cacheKey; // The SHA1 hash of the bytes this file was loaded from, if the asset cache is enabled. Null once the file is replaced.
+
+        private static final String UNPACKED_CACHE_KIND = "unpacked";
 
         public static final int FLAG_SINGLE_ACCESS = Constants.BIT_FLAG_0; // I assume this is for files loaded individually, by themselves.
         public static final int FLAG_GROUP_ACCESS = Constants.BIT_FLAG_1; // Cannot be loaded individually / by itself. Presumably this is for files in child-WADs.
@@ -231,6 +247,93 @@ public class MWIFile extends GameObject {
             return (this.flags & flag) == flag;
         }
 
+        /**
+         * Unpacks the bytes this file was loaded from, if they are compressed.
+         * If the asset cache is enabled, the unpacked bytes are cached under the hash of the loaded bytes, so the same bytes are only unpacked once.
+         * @param fileBytes  The bytes of the file, as they were stored.
+         * @param compressed Whether or not the bytes are compressed.
+         * @return unpackedBytes
+         */
+        public byte[] unpackData(byte[] fileBytes, boolean compressed) {
+            this.cacheKey = null;
+            if (AssetCache.isEnabled()) {
+                Timer hashTimer = FileMetrics.startTimer();
+                this.cacheKey = Utils.calculateSHA1Digest(fileBytes, fileBytes.length);
+                FileMetrics.record(this, null, Stage.HASH, hashTimer, fileBytes.length, this.cacheKey.length);
+            }
+
+            if (!compressed)
+                return fileBytes;
+
+            Timer timer = FileMetrics.startTimer();
+            byte[] unpackedData = AssetCache.getBytes(UNPACKED_CACHE_KIND, this.cacheKey);
+            if (unpackedData != null) {
+                FileMetrics.record(this, null, Stage.CACHE, timer, fileBytes.length, unpackedData.length);
+            } else {
+                unpackedData = PP20Unpacker.unpackData(fileBytes);
+                FileMetrics.record(this, null, Stage.DECOMPRESS, timer, fileBytes.length, unpackedData.length);
+                AssetCache.putBytes(UNPACKED_CACHE_KIND, this.cacheKey, unpackedData);
+            }
+
+            cachePackedData(fileBytes, unpackedData);
+            return unpackedData;
+        }
+
+        /**
+         * Remember the compressed bytes of this file, so they can be reused if the file is saved without changes.
+         * @param packedData   The compressed bytes.
+         * @param unpackedData The uncompressed bytes.
+         */
+        public void cachePackedData(byte[] packedData, byte[] unpackedData) {
+            if (!MWDFile.INCREMENTAL_SAVE)
+                return;
+
+            Timer timer = FileMetrics.startTimer();
+            this.packedData = packedData;
+            this.packedDataHash = Utils.calculateSHA1Digest(unpackedData, unpackedData.length);
+            this.packedDataEffort = null;
+            FileMetrics.record(this, null, Stage.HASH, timer, unpackedData.length, this.packedDataHash.length);
+        }
+
+        /**
+         * Compress the data of this file, with the packer selected by MWDFile.PACKER_EFFORT.
+         * If the data is the same as when it was last loaded or saved with the same packer, the old compressed bytes are reused instead.
+         * @param data   The uncompressed bytes.
+         * @param length The number of bytes in the array to compress.
+         * @return packedData
+         */
+        public byte[] packData(byte[] data, int length) {
+            Timer hashTimer = FileMetrics.startTimer();
+            byte[] hash = MWDFile.INCREMENTAL_SAVE ? Utils.calculateSHA1Digest(data, length) : null;
+            if (hash != null)
+                FileMetrics.record(this, null, Stage.HASH, hashTimer, length, hash.length);
+
+            PackerEffort effort = MWDFile.PACKER_EFFORT;
+            if (this.packedData != null && this.packedDataEffort == effort && Arrays.equals(this.packedDataHash, hash))
+                return this.packedData;
+
+            Timer packTimer = FileMetrics.startTimer();
+            byte[] packedData = effort != null ? PP20FastPacker.packData(data, length, effort) : PP20Packer.packData(data, length);
+            FileMetrics.record(this, null, Stage.COMPRESS, packTimer, length, packedData.length);
+            if (hash != null) {
+                this.packedData = packedData;
+                this.packedDataHash = hash;
+                this.packedDataEffort = effort;
+            }
+
+            return packedData;
+        }
+
+        /**
+         * Forget the compressed bytes of this file, so it will be compressed again the next time it is saved.
+         */
+        public void markDirty() {
+            this.packedData = null;
+            this.packedDataHash = null;
+            this.packedDataEffort = null;
+            this.cacheKey = null; // The file no longer matches the bytes it was loaded from.
+        }
+
         @Override
         public String toString() {
             return getDisplayName() + "-{" + getFilePath() + " Type: " + getTypeId() + ", Flags: " + getFlags() + "}";
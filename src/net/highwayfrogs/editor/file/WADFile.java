@@ -11,7 +11,6 @@ import net.highwayfrogs.editor.file.map.MAPFile;
 import net.highwayfrogs.editor.file.map.MAPTheme;
 import net.highwayfrogs.editor.file.mof.MOFFile;
 import net.highwayfrogs.editor.file.mof.MOFHolder;
-import net.highwayfrogs.editor.file.packers.PP20Packer;
 import net.highwayfrogs.editor.file.packers.PP20Unpacker;
 import net.highwayfrogs.editor.file.reader.ArraySource;
 import net.highwayfrogs.editor.file.reader.DataReader;
@@ -20,12 +19,14 @@ import net.highwayfrogs.editor.file.writer.ArrayReceiver;
 import net.highwayfrogs.editor.file.writer.DataWriter;
 import net.highwayfrogs.editor.gui.GUIMain;
 import net.highwayfrogs.editor.gui.editor.WADController;
-import net.highwayfrogs.editor.utils.FroggerVersionComparison;
-import net.highwayfrogs.editor.utils.Utils;
+import net.highwayfrogs.editor.system.FileMetrics;
+import net.highwayfrogs.editor.system.FileMetrics.Stage;
+import net.highwayfrogs.editor.system.FileMetrics.Timer;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Represents a WAD file.
@@ -36,8 +37,8 @@ public class WADFile extends GameFile {
     private final List<WADEntry> files = new ArrayList<>();
     private MAPTheme theme;
 
-    private static final Image ICON = loadIcon("packed");
-    public static String CURRENT_FILE_NAME = null;
+    public static final Image ICON = loadIcon("packed");
+    public static final ThreadLocal<String> CURRENT_FILE_NAME = new ThreadLocal<>(); // The file being loaded or saved by this thread, for error messages. Files are loaded on several threads at once, so each has its own.
     public static final int TYPE_ID = -1;
     private static final int TERMINATOR = -1;
 
@@ -60,17 +61,12 @@ public class WADFile extends GameFile {
 
             FileEntry wadFileEntry = getConfig().getResourceEntry(resourceId);
             String fileName = wadFileEntry.getDisplayName();
-            CURRENT_FILE_NAME = fileName;
+            CURRENT_FILE_NAME.set(fileName);
 
             // Decompress if compressed.
             byte[] data = reader.readBytes(size);
             boolean compressed = PP20Unpacker.isCompressed(data);
-            if (compressed)
-                data = PP20Unpacker.unpackData(data);
-
-            // Calculate the SHA1 hash.
-            if (FroggerVersionComparison.isEnabled() && wadFileEntry.getSha1Hash() == null)
-                wadFileEntry.setSha1Hash(Utils.calculateSHA1Hash(data));
+            data = wadFileEntry.unpackData(data, compressed);
 
             GameFile file;
             if (Constants.ENABLE_WAD_FORMATS) {
@@ -100,7 +96,7 @@ public class WADFile extends GameFile {
                     file = new DemoFile();
                 } else {
                     file = new DummyFile(data.length);
-                    System.out.println("File '" + CURRENT_FILE_NAME + "' was of an unknown file type. (" + fileType + ")");
+                    System.out.println("File '" + CURRENT_FILE_NAME.get() + "' was of an unknown file type. (" + fileType + ")");
                 }
             }
 
@@ -109,7 +105,9 @@ public class WADFile extends GameFile {
                 newEntry.setFile(file);
                 files.add(newEntry);
 
+                Timer timer = FileMetrics.startTimer();
                 file.load(new DataReader(new ArraySource(data)));
+                FileMetrics.record(wadFileEntry, file, Stage.LOAD, timer, data.length, 0);
 
                 if (file instanceof MOFHolder) {
                     MOFHolder newHolder = (MOFHolder) file;
@@ -117,38 +115,42 @@ public class WADFile extends GameFile {
                         lastCompleteMOF = newHolder;
                 }
             } catch (Exception ex) {
-                System.out.println("Failed to load " + CURRENT_FILE_NAME + ".");
+                System.out.println("Failed to load " + CURRENT_FILE_NAME.get() + ".");
                 ex.printStackTrace();
             }
         }
 
-        CURRENT_FILE_NAME = null;
+        CURRENT_FILE_NAME.remove();
     }
 
     @Override
     public void save(DataWriter writer) {
-        for (WADEntry entry : getFiles()) {
+        // Save and pack the files in parallel, then write them in order.
+        byte[][] fileData = new byte[getFiles().size()][];
+        IntStream.range(0, fileData.length).parallel().forEach(i -> fileData[i] = saveEntry(getFiles().get(i)));
+
+        for (int i = 0; i < fileData.length; i++) {
+            WADEntry entry = getFiles().get(i);
             writer.writeInt(entry.getResourceId());
             writer.writeInt(entry.getFileType());
-
-            CURRENT_FILE_NAME = entry.getFileEntry().getDisplayName();
-            ArrayReceiver receiver = new ArrayReceiver();
-            entry.getFile().save(new DataWriter(receiver));
-
-            byte[] fileBytes = receiver.toArray();
-            if (entry.isCompressed())
-                fileBytes = PP20Packer.packData(fileBytes);
-
-            writer.writeInt(fileBytes.length); // File length.
+            writer.writeInt(fileData[i].length); // File length.
             writer.writeNull(Constants.INTEGER_SIZE); // Padding
-            writer.writeBytes(fileBytes); // Write file contents.
+            writer.writeBytes(fileData[i]); // Write file contents.
         }
-        CURRENT_FILE_NAME = null;
 
         writer.writeInt(TERMINATOR);
         writer.writeNull(Constants.INTEGER_SIZE * 3);
     }
 
+    private static byte[] saveEntry(WADEntry entry) {
+        CURRENT_FILE_NAME.set(entry.getFileEntry().getDisplayName());
+        Timer timer = FileMetrics.startTimer();
+        ArrayReceiver receiver = new ArrayReceiver();
+        entry.getFile().save(new DataWriter(receiver));
+        FileMetrics.record(entry.getFileEntry(), entry.getFile(), Stage.SAVE, timer, 0, receiver.getSize());
+        return entry.isCompressed() ? entry.getFileEntry().packData(receiver.getArray(), receiver.getSize()) : receiver.toArray();
+    }
+
     @Override
     public Image getIcon() {
         return ICON;
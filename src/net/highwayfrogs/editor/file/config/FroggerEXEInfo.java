@@ -747,9 +747,8 @@ public class FroggerEXEInfo extends Config {
      * @param resourceId The file's resource id.
      * @return gameFile
      */
-    @SuppressWarnings("unchecked")
     public <T extends GameFile> T getGameFile(int resourceId) {
-        return (T) getMWD().getEntryFileMap().get(getResourceEntry(resourceId));
+        return getMWD().getGameFile(getResourceEntry(resourceId));
     }
 
     /**
@@ -67,7 +67,7 @@ public class MAPFile extends GameFile {
     @Setter private short startXTile;
     @Setter private short startZTile;
     @Setter private StartRotation startRotation;
-    private MAPTheme theme; // This controls loads of things. It's dubious we'd be able to change this safely.
+    @Setter private MAPTheme theme; // This controls loads of things. It's dubious we'd be able to change this safely.
     @Setter private short levelTimer;
     @Setter private SVector cameraSourceOffset;
     @Setter private SVector cameraTargetOffset;
@@ -432,7 +432,7 @@ public class MAPFile extends GameFile {
                         primitives.add(primitive);
                     }
                 } catch (Throwable th) {
-                    throw new RuntimeException("Failed to load " + primitives.size() + " " + type + " primitives in " + MWDFile.CURRENT_FILE_NAME + ".", th);
+                    throw new RuntimeException("Failed to load " + primitives.size() + " " + type + " primitives in " + MWDFile.CURRENT_FILE_NAME.get() + ".", th);
                 }
 
                 reader.jumpReturn();
@@ -41,7 +41,7 @@ public class ArcSegment extends PathSegment {
 
         float diff = Math.abs(Utils.fixedPointIntToFloat4Bit(readRadius - getRadius()));
         if (diff >= 3)
-            System.out.println(MWDFile.CURRENT_FILE_NAME + "'s getRadius() calculation was too inaccurate in ArcSegment! (" + diff + ").");
+            System.out.println(MWDFile.CURRENT_FILE_NAME.get() + "'s getRadius() calculation was too inaccurate in ArcSegment! (" + diff + ").");
 
         this.distance = Utils.fixedPointIntToFloat4Bit(getLength()) / Utils.fixedPointIntToFloat4Bit(getRadius());
     }
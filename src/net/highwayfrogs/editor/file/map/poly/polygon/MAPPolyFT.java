@@ -4,11 +4,11 @@ import net.highwayfrogs.editor.file.map.view.FrogMesh;
 import net.highwayfrogs.editor.file.map.view.MapMesh;
 import net.highwayfrogs.editor.file.map.view.TextureMap;
 import net.highwayfrogs.editor.file.map.view.TextureMap.ShadingMode;
+import net.highwayfrogs.editor.file.map.view.TextureMap.TextureKey;
 import net.highwayfrogs.editor.utils.Utils;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.math.BigInteger;
 
 /**
  * Created by Kneesnap on 2/21/2020.
@@ -37,11 +37,11 @@ public class MAPPolyFT extends MAPPolyTexture {
     }
 
     @Override
-    public BigInteger makeIdentifier(TextureMap map) {
+    public TextureKey makeIdentifier(TextureMap map) {
         if (map.getMode() == ShadingMode.NO_SHADING) {
-            return makeIdentifier(0x7E8BA5E, getTextureId());
+            return TextureKey.pack(TextureKey.TEXTURE, map.getRemap(getTextureId()), 0);
         } else {
-            return makeIdentifier(0xF1A77E8, getTextureId(), getColors()[0].toRGB());
+            return TextureKey.pack(TextureKey.FLAT_SHADED_TEXTURE, map.getRemap(getTextureId()), getColors()[0].toRGB());
         }
     }
 
@@ -180,6 +180,7 @@ public abstract class MAPPolyTexture extends MAPPolygon implements TexturedPoly
 
             setTextureId(newValue);
             view.setImage(Utils.toFXImage(makePreviewImage(controller), false));
+            controller.getGeometryManager().refreshPolygon(this);
         }, false));
 
         // Flags.
@@ -188,7 +189,10 @@ public abstract class MAPPolyTexture extends MAPPolygon implements TexturedPoly
 
         // UVs
         for (int i = 0; i < this.uvs.length; i++)
-            this.uvs[i].setupEditor("UV #" + i, editor, () -> view.setImage(Utils.toFXImage(makePreviewImage(controller), false)));
+            this.uvs[i].setupEditor("UV #" + i, editor, () -> {
+                view.setImage(Utils.toFXImage(makePreviewImage(controller), false));
+                controller.getGeometryManager().refreshPolygon(this);
+            });
 
         // Colors
         editor.addBoldLabel("Colors:");
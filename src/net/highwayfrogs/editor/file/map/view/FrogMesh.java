@@ -2,6 +2,7 @@ package net.highwayfrogs.editor.file.map.view;
 
 import javafx.scene.shape.TriangleMesh;
 import javafx.scene.shape.VertexFormat;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import net.highwayfrogs.editor.file.map.poly.polygon.MAPPolygon;
@@ -28,6 +29,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extends TriangleMesh {
     private final Map<Integer, T> facePolyMap = new HashMap<>();
     private final Map<T, Integer> polyFaceMap = new HashMap<>();
+    private final Map<T, PolygonSlice> polySliceMap = new HashMap<>(); // Where each polygon is in the face and texture coordinate arrays, so it can be updated in place.
     private final TextureMap textureMap;
     private final MeshManager manager;
     private int faceCount;
@@ -65,7 +67,6 @@ public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extend
     public void addRectangle(T poly, AtomicInteger texCoord) {
         Utils.verify(poly.getVerticeCount() == MAPPolygon.QUAD_SIZE, "This polygon has %d vertices!", poly.getVerticeCount());
 
-        int[] verts = poly.getVertices();
         int face = getFaces().size() / getFaceElementSize();
         polyFaceMap.put(poly, face);
         facePolyMap.put(face, poly);
@@ -73,8 +74,8 @@ public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extend
 
         // Add Face + Textures.
         int texId = addTexCoords(poly, texCoord);
-        getFaces().addAll(verts[0] + getVerticeStart(), texId, verts[3] + getVerticeStart(), texId + 2, verts[1] + getVerticeStart(), texId + 1);
-        getFaces().addAll(verts[1] + getVerticeStart(), texId + 1, verts[3] + getVerticeStart(), texId + 2, verts[2] + getVerticeStart(), texId + 3);
+        polySliceMap.put(poly, new PolygonSlice(face, texId, getVerticeStart(), MAPPolygon.QUAD_SIZE));
+        getFaces().addAll(makeFaces(poly, texId, getVerticeStart()));
     }
 
     /**
@@ -94,13 +95,13 @@ public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extend
     public void addTriangle(T poly, AtomicInteger texCoord) {
         Utils.verify(poly.getVerticeCount() == MAPPolygon.TRI_SIZE, "This polygon has %d vertices!", poly.getVerticeCount());
 
-        int[] verts = poly.getVertices();
         int face = getFaces().size() / getFaceElementSize();
         facePolyMap.put(face, poly);
         polyFaceMap.put(poly, face);
 
         int texId = addTexCoords(poly, texCoord);
-        getFaces().addAll(verts[2] + getVerticeStart(), texId + 2, verts[1] + getVerticeStart(), texId + 1, verts[0] + getVerticeStart(), texId);
+        polySliceMap.put(poly, new PolygonSlice(face, texId, getVerticeStart(), MAPPolygon.TRI_SIZE));
+        getFaces().addAll(makeFaces(poly, texId, getVerticeStart()));
     }
 
     /**
@@ -114,14 +115,10 @@ public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extend
     }
 
     protected int addTexCoords(T poly, AtomicInteger texCoord) {
-        GameImage image = poly.isOverlay(getTextureMap()) ? poly.getGameImage(getTextureMap()) : null;
-        TextureSource source = image != null ? image : poly;
-
         int texId = texCoord.get();
-        int texCount = poly.getVerticeCount();
+        texCoord.addAndGet(poly.getVerticeCount());
 
-        texCoord.addAndGet(texCount);
-        TextureTreeNode entry = source.getTreeNode(textureMap);
+        TextureTreeNode entry = getTextureNode(poly);
         if (entry == null) {
             GameImage searchImage = poly.getGameImage(getTextureMap());
             System.out.println("There was a texture on this " + getClass().getSimpleName() + " which was not found in the TextureMap! (ID: " + (searchImage != null ? searchImage.getTextureId() : "null") + ")");
@@ -130,31 +127,98 @@ public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extend
                 throw new RuntimeException("The default unknown texture was not found in the TextureMap.");
         }
 
+        getTexCoords().addAll(makeTexCoords(poly, entry));
+        return texId;
+    }
+
+    /**
+     * Gets the node in the TextureMap a polygon is textured with.
+     * @param poly The polygon to get the node for.
+     * @return node, or null if the TextureMap does not have it.
+     */
+    protected TextureTreeNode getTextureNode(T poly) {
+        GameImage image = poly.isOverlay(getTextureMap()) ? poly.getGameImage(getTextureMap()) : null;
+        TextureSource source = image != null ? image : poly;
+        return source.getTreeNode(textureMap);
+    }
+
+    /**
+     * Calculates the texture coordinates of a polygon.
+     * @param poly  The polygon to calculate the coordinates of.
+     * @param entry The node the polygon is textured with.
+     * @return texCoords, with a u and v for each vertex.
+     */
+    protected float[] makeTexCoords(T poly, TextureTreeNode entry) {
+        if (!(poly instanceof TexturedPoly))
+            return entry.getTexCoords(poly.getVerticeCount());
+
         float uSize = (entry.getMaxU() - entry.getMinU());
         float vSize = (entry.getMaxV() - entry.getMinV());
+        TexturedPoly texPoly = (TexturedPoly) poly;
+        ByteUV[] uvs = texPoly.getUvs();
 
-        if (poly instanceof TexturedPoly) {
-            TexturedPoly texPoly = (TexturedPoly) poly;
-            ByteUV[] uvs = texPoly.getUvs();
-
-            texPoly.performSwap();
-            for (ByteUV uv : uvs)
-                getTexCoords().addAll(entry.getMinU() + (uSize * uv.getFloatU()), entry.getMinV() + (vSize * uv.getFloatV()));
-            texPoly.performSwap();
-        } else {
-            entry.applyMesh(this, texCount);
+        float[] texCoords = new float[uvs.length * getTexCoordElementSize()];
+        texPoly.performSwap();
+        for (int i = 0; i < uvs.length; i++) {
+            texCoords[i * 2] = entry.getMinU() + (uSize * uvs[i].getFloatU());
+            texCoords[(i * 2) + 1] = entry.getMinV() + (vSize * uvs[i].getFloatV());
         }
+        texPoly.performSwap();
+        return texCoords;
+    }
 
-        return texId;
+    /**
+     * Calculates the face data of a polygon. Quads are split into two triangles.
+     * @param poly         The polygon to calculate the faces of.
+     * @param texId        The first texture coordinate of the polygon.
+     * @param verticeStart The index of the first vertex of the polygon's vertex list.
+     * @return faces
+     */
+    protected int[] makeFaces(T poly, int texId, int verticeStart) {
+        int[] verts = poly.getVertices();
+        if (poly.getVerticeCount() == MAPPolygon.TRI_SIZE)
+            return new int[]{verts[2] + verticeStart, texId + 2, verts[1] + verticeStart, texId + 1, verts[0] + verticeStart, texId};
+
+        return new int[]{verts[0] + verticeStart, texId, verts[3] + verticeStart, texId + 2, verts[1] + verticeStart, texId + 1,
+                verts[1] + verticeStart, texId + 1, verts[3] + verticeStart, texId + 2, verts[2] + verticeStart, texId + 3};
+    }
+
+    /**
+     * Updates the faces and texture coordinates of a single polygon in place, so editing a polygon doesn't rebuild the whole mesh.
+     * This only works when the polygon has the same number of vertices as when the mesh was built, and its texture is already in the TextureMap.
+     * @param poly The polygon to update.
+     * @return Whether the polygon was updated. If false, the mesh has to be rebuilt with updateData().
+     */
+    public boolean updatePolygon(T poly) {
+        PolygonSlice slice = this.polySliceMap.get(poly);
+        if (slice == null || slice.getVertexCount() != poly.getVerticeCount())
+            return false; // The shape of the mesh has changed.
+
+        TextureTreeNode entry = getTextureNode(poly);
+        if (entry == null)
+            return false; // The TextureMap needs to be rebuilt to include the new texture.
+
+        float[] texCoords = makeTexCoords(poly, entry);
+        int[] faces = makeFaces(poly, slice.getTexCoord(), slice.getVertexStart());
+        getTexCoords().set(slice.getTexCoord() * getTexCoordElementSize(), texCoords, 0, texCoords.length);
+        getFaces().set(slice.getFace() * getFaceElementSize(), faces, 0, faces.length);
+        return true;
     }
 
     /**
      * Load vertex data.
      */
     public void updateVertices() {
-        getPoints().clear();
-        for (Vector vertex : getVertices())
-            getPoints().addAll(vertex.getFloatX(), vertex.getFloatY(), vertex.getFloatZ());
+        List<? extends Vector> vertices = getVertices();
+        float[] points = new float[vertices.size() * getPointElementSize()];
+        for (int i = 0; i < vertices.size(); i++) {
+            Vector vertex = vertices.get(i);
+            points[i * 3] = vertex.getFloatX();
+            points[(i * 3) + 1] = vertex.getFloatY();
+            points[(i * 3) + 2] = vertex.getFloatZ();
+        }
+
+        getPoints().setAll(points);
     }
 
     /**
@@ -176,6 +240,7 @@ public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extend
         getManager().getMeshData().clear();
         getFacePolyMap().clear();
         getPolyFaceMap().clear();
+        getPolySliceMap().clear();
         getFaces().clear();
         getTexCoords().clear();
         this.onUpdatePolygonData();
@@ -198,4 +263,16 @@ public abstract class FrogMesh<T extends PSXGPUPrimitive & TextureSource> extend
      * @return vertices
      */
     public abstract List<? extends Vector> getVertices();
+
+    /**
+     * Where a polygon's data starts in the mesh arrays.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PolygonSlice {
+        private final int face; // The first face of the polygon.
+        private final int texCoord; // The first texture coordinate of the polygon.
+        private final int vertexStart; // The vertex index the polygon's vertices are relative to.
+        private final int vertexCount;
+    }
 }
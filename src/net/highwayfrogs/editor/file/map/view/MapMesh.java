@@ -3,12 +3,15 @@ package net.highwayfrogs.editor.file.map.view;
 import javafx.scene.shape.VertexFormat;
 import lombok.Getter;
 import net.highwayfrogs.editor.file.map.MAPFile;
+import net.highwayfrogs.editor.file.map.poly.polygon.MAPPolyTexture;
 import net.highwayfrogs.editor.file.map.poly.polygon.MAPPolygon;
 import net.highwayfrogs.editor.file.map.view.TextureMap.TextureTreeNode;
 import net.highwayfrogs.editor.file.standard.SVector;
 
 import java.awt.*;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -18,6 +21,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Getter
 public class MapMesh extends FrogMesh<MAPPolygon> {
     private MAPFile map;
+    private final Map<MAPPolygon, PolygonSlice> overlaySliceMap = new HashMap<>(); // Where the shading rendered over each polygon is, for polygons which have it.
 
     public static final CursorVertexColor CURSOR_COLOR = new CursorVertexColor(Color.ORANGE, Color.BLACK);
     public static final CursorVertexColor ANIMATION_COLOR = new CursorVertexColor(Color.YELLOW, Color.BLACK);
@@ -34,13 +38,43 @@ public class MapMesh extends FrogMesh<MAPPolygon> {
 
     @Override
     public void onUpdatePolygonData() {
+        this.overlaySliceMap.clear();
         AtomicInteger texId = new AtomicInteger();
         for (MAPPolygon poly : getMap().getAllPolygons())
             addPolygon(poly, texId);
 
         // Apply shading to textured polygons. This is done separately from adding the polygons, because for some reason it garbles the textures if we don't separate it. (I think it's expected that polygons are added before anything else.)
-        for (MAPPolygon poly : getMap().getAllPolygons())
+        for (MAPPolygon poly : getMap().getAllPolygons()) {
+            int face = getFaces().size() / getFaceElementSize();
+            int overlayTexId = getTexCoords().size() / getTexCoordElementSize();
             poly.onMeshSetup(this);
+            if (getFaces().size() / getFaceElementSize() > face)
+                this.overlaySliceMap.put(poly, new PolygonSlice(face, overlayTexId, getVerticeStart(), poly.getVerticeCount()));
+        }
+    }
+
+    @Override
+    public boolean updatePolygon(MAPPolygon poly) {
+        PolygonSlice overlaySlice = this.overlaySliceMap.get(poly);
+        if ((overlaySlice != null) != (poly instanceof MAPPolyTexture && poly.isOverlay(getTextureMap())))
+            return false; // Shading has been added or removed, so the mesh has a different number of faces.
+
+        TextureTreeNode overlayNode = overlaySlice != null ? poly.getTreeNode(getTextureMap()) : null;
+        if (overlaySlice != null && overlayNode == null)
+            return false; // The TextureMap needs to be rebuilt to include the new shading.
+
+        if (!super.updatePolygon(poly))
+            return false;
+
+        // The shading is rendered over the same vertices as the polygon.
+        if (overlaySlice != null) {
+            float[] texCoords = overlayNode.getTexCoords(poly.getVerticeCount());
+            int[] faces = makeFaces(poly, overlaySlice.getTexCoord(), overlaySlice.getVertexStart());
+            getTexCoords().set(overlaySlice.getTexCoord() * getTexCoordElementSize(), texCoords, 0, texCoords.length);
+            getFaces().set(overlaySlice.getFace() * getFaceElementSize(), faces, 0, faces.length);
+        }
+
+        return true;
     }
 
     /**
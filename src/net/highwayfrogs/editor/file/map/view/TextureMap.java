@@ -20,24 +20,20 @@ import net.highwayfrogs.editor.file.vlo.ImageFilterSettings;
 import net.highwayfrogs.editor.file.vlo.ImageFilterSettings.ImageState;
 import net.highwayfrogs.editor.file.vlo.VLOArchive;
 import net.highwayfrogs.editor.gui.editor.MOFController;
+import net.highwayfrogs.editor.system.AssetCache;
 import net.highwayfrogs.editor.utils.Utils;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.math.BigInteger;
 import java.util.List;
 import java.util.*;
 
 /**
  * Represents a texture map.
+ * Textures and vertex colors are packed into the same atlas, which can be shared by maps and models using the same VLO, so opening another one only has to add the textures which are missing.
  * References:
- * - https://github.com/juj/RectangleBinPack/blob/master/old/RectangleBinPack.cpp
- * - http://blackpawn.com/texts/lightmaps/default.html
+ * - https://github.com/juj/RectangleBinPack/blob/master/MaxRectsBinPack.cpp
  * - https://web.archive.org/web/20180913014836/http://clb.demon.fi:80/projects/rectangle-bin-packing
- * - http://www.gamedev.net/community/forums/topic.asp?topic_id=392413
- *
- * Future Ideas:
- * 1. Instead of putting all of the vertex colors in the corner, we could just add them to the tree, though preferably after all of the textures have been added. This would ensure they don't overlap with textures, and it would ensure as many vertex colors as possible are stored. This would also allow for pages of different sizes to be used.
  *
  * Created by Kneesnap on 11/28/2018.
  */
@@ -46,20 +42,34 @@ public class TextureMap {
     private final VLOArchive vloArchive;
     private final List<Short> remapList;
     private PhongMaterial material;
-    private final TextureTree textureTree;
+    private TextureTree textureTree;
+    private ShadingMode treeMode; // The mode the textures in the tree were made for.
+    private final boolean shareAtlas; // Shared atlases are reused by other texture maps with the same VLO and shading mode.
     @Setter private ShadingMode mode;
-    private final Map<Short, Set<BigInteger>> mapTextureList = new HashMap<>();
+    private final Map<Short, Set<TextureKey>> mapTextureList = new HashMap<>();
     private final ImageFilterSettings displaySettings = new ImageFilterSettings(ImageState.EXPORT).setAllowTransparency(true); // This is not static because we want it to be gc'd when the TextureMap is.
     private int width;
     private int height;
     @Setter private boolean useModelTextureAnimation;
 
+    public static int MAX_SHARED_ATLASES = 4; // The number of texture atlases kept around to be reused when another map or model with the same VLO is opened.
+    public static int MAX_SHARED_ATLAS_SIZE = 2048; // Atlases bigger than this are not shared, so the shared atlases don't hold onto too much memory.
+    private static final int MAX_ATLAS_SIZE = 8192; // Atlases which run out of space are grown up to this size.
+    private static final String TEXTURE_CACHE_KIND = "texture";
+    private static final int TEXTURE_CACHE_VERSION = 2; // Increase when the way textures are made changes, so textures cached by older versions are not used.
+    private static final Map<AtlasKey, TextureTree> sharedTrees = new LinkedHashMap<AtlasKey, TextureTree>(16, .75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AtlasKey, TextureTree> eldest) {
+            return size() > MAX_SHARED_ATLASES;
+        }
+    };
+
     // The largest VLO is the SWP VLO, on the PS1. The texture map with the most used space is SUB1.
 
-    private TextureMap(VLOArchive vlo, List<Short> remapList, ShadingMode mode, int width, int height) {
+    private TextureMap(VLOArchive vlo, List<Short> remapList, ShadingMode mode, int width, int height, boolean shareAtlas) {
         this.vloArchive = vlo;
         this.remapList = remapList;
-        this.textureTree = new TextureTree(this);
+        this.shareAtlas = shareAtlas;
         this.mode = mode;
         this.width = width;
         this.height = height;
@@ -70,7 +80,16 @@ public class TextureMap {
      * @return newTextureMap
      */
     public static TextureMap newTextureMap(MOFHolder mofHolder, ShadingMode mode) {
-        TextureMap newMap = new TextureMap(mofHolder.getVloFile(), null, mode, 0, 0);
+        return newTextureMap(mofHolder, mode, false);
+    }
+
+    /**
+     * Create a new texture map from an existing MOF.
+     * @param shareAtlas Whether to reuse the atlas of other models with the same VLO. Shared atlases may include textures other models use.
+     * @return newTextureMap
+     */
+    public static TextureMap newTextureMap(MOFHolder mofHolder, ShadingMode mode, boolean shareAtlas) {
+        TextureMap newMap = new TextureMap(mofHolder.getVloFile(), null, mode, 0, 0, shareAtlas);
         newMap.setUseModelTextureAnimation(true);
         newMap.updateModel(mofHolder, mode);
         return newMap;
@@ -81,11 +100,29 @@ public class TextureMap {
      * @return newTextureMap
      */
     public static TextureMap newTextureMap(MAPFile mapFile, ShadingMode mode) {
-        TextureMap newMap = new TextureMap(mapFile.getVlo(), mapFile.getRemapTable(), mode, 1024, 1024);
+        return newTextureMap(mapFile, mode, false);
+    }
+
+    /**
+     * Create a new texture map from an existing VLOArchive.
+     * @param shareAtlas Whether to reuse the atlas of other maps with the same VLO. Shared atlases may include textures other maps use.
+     * @return newTextureMap
+     */
+    public static TextureMap newTextureMap(MAPFile mapFile, ShadingMode mode, boolean shareAtlas) {
+        TextureMap newMap = new TextureMap(mapFile.getVlo(), mapFile.getRemapTable(), mode, 1024, 1024, shareAtlas);
         newMap.updateMap(mapFile, mode);
         return newMap;
     }
 
+    /**
+     * Forgets every shared atlas, so they are rebuilt the next time they are used. This should be called when a texture changes.
+     */
+    public static void clearSharedAtlases() {
+        synchronized (sharedTrees) {
+            sharedTrees.clear();
+        }
+    }
+
     public int getWidth() {
         return (int) (this.width * getMode().getWidthMultiplier());
     }
@@ -112,24 +149,74 @@ public class TextureMap {
      */
     public PhongMaterial getDiffuseMaterial() {
         if (this.material == null)
-            this.material = Utils.makeDiffuseMaterial(Utils.toFXImage(getTextureTree().getImage(), false));
+            this.material = Utils.makeDiffuseMaterial(getTextureTree().getFXImage());
         return this.material;
     }
 
     /**
      * Updates the color data for the tree.
+     * Textures which are already in the tree are kept where they are, so only new textures are drawn.
      * @param sourceMap The map in question to update the tree with.
      */
-    public void updateTree(Map<BigInteger, TextureSource> sourceMap) {
-        this.textureTree.rebuildTree(sourceMap);
+    public void updateTree(Map<TextureKey, TextureSource> sourceMap) {
+        TextureTree sharedTree = null;
+        if (this.shareAtlas && this.mode != ShadingMode.MIXED_SHADING) // Mixed shading decides which textures are overlays based on the map, so the same texture can look different in another map.
+            sharedTree = getSharedTree(new AtlasKey(this.vloArchive, this.mode), getWidth(), getHeight());
+
+        if (sharedTree != null) {
+            this.textureTree = sharedTree;
+        } else if (this.textureTree == null || this.treeMode != this.mode || this.mode == ShadingMode.MIXED_SHADING || this.textureTree.isShared()
+                || this.textureTree.getWidth() < getWidth() || this.textureTree.getHeight() < getHeight()) { // Textures can look different in another mode, even if they have the same identifier.
+            this.textureTree = new TextureTree(getWidth(), getHeight());
+        }
+
+        this.treeMode = this.mode;
+
+        Image image;
+        List<TextureTree.TextureEntry> failedEntries = null;
+        if (sharedTree != null) {
+            synchronized (sharedTree) {
+                // Textures are only ever added to a shared atlas, since meshes which were already built use where the other textures are.
+                failedEntries = sharedTree.insertEntries(sharedTree.makeEntries(this, sourceMap));
+                if (!failedEntries.isEmpty()) // Making space would change the shared atlas, so this map gets its own copy to change instead.
+                    this.textureTree = sharedTree.copy();
+            }
+        }
+
+        synchronized (this.textureTree) {
+            if (failedEntries != null && !failedEntries.isEmpty()) {
+                this.textureTree.makeSpace(sourceMap, failedEntries);
+            } else if (sharedTree == null) {
+                this.textureTree.updateTree(this, sourceMap);
+            }
+
+            image = this.textureTree.getFXImage();
+        }
+
         if (this.material == null)
             this.material = getDiffuseMaterial();
 
-        Image image = Utils.toFXImage(getTextureTree().getImage(), false);
         this.material.setDiffuseMap(image);
         this.material.setSpecularMap(image); // Fixes polygon lighting.
     }
 
+    private static TextureTree getSharedTree(AtlasKey key, int width, int height) {
+        synchronized (sharedTrees) {
+            TextureTree tree = sharedTrees.get(key);
+            if (tree == null || tree.getWidth() < width || tree.getHeight() < height) { // Models can need a bigger atlas than the last model had.
+                int newWidth = Math.max(width, tree != null ? tree.getWidth() : 0);
+                int newHeight = Math.max(height, tree != null ? tree.getHeight() : 0);
+                if (newWidth > MAX_SHARED_ATLAS_SIZE || newHeight > MAX_SHARED_ATLAS_SIZE)
+                    return null; // Too big to keep around.
+
+                sharedTrees.put(key, tree = new TextureTree(newWidth, newHeight));
+                tree.shared = true;
+            }
+
+            return tree;
+        }
+    }
+
     /**
      * Updates this map texture map.
      * @param mapFile The map file to update for.
@@ -152,7 +239,7 @@ public class TextureMap {
 
         boolean oldModelTextureState = this.useModelTextureAnimation;
         this.useModelTextureAnimation = false; // Makes sure animated textures are properly applied.
-        Map<BigInteger, TextureSource> sourceMap = createSourceMap(mof);
+        Map<TextureKey, TextureSource> sourceMap = createSourceMap(mof);
 
         // Dynamic resizing to keep it small.
         int totalArea = 0;
@@ -181,7 +268,7 @@ public class TextureMap {
     /**
      * Creates a texture source map for a map.
      */
-    private Map<BigInteger, TextureSource> createSourceMap(MAPFile map) {
+    private Map<TextureKey, TextureSource> createSourceMap(MAPFile map) {
         // Calculate how many of each are used.
         this.mapTextureList.clear();
         for (MAPPolygon poly : map.getAllPolygons()) {
@@ -192,10 +279,10 @@ public class TextureMap {
         }
 
         // Calculate the polygon data.
-        Map<BigInteger, TextureSource> texMap = new HashMap<>();
+        Map<TextureKey, TextureSource> texMap = new HashMap<>();
         Set<Short> visitedTextures = new HashSet<>();
         for (MAPPolygon poly : map.getAllPolygons()) {
-            BigInteger id = poly.makeIdentifier(this);
+            TextureKey id = poly.makeIdentifier(this);
             if (!texMap.containsKey(id))
                 texMap.put(id, poly);
 
@@ -223,12 +310,12 @@ public class TextureMap {
     /**
      * Creates a texture source map for the model.
      */
-    private Map<BigInteger, TextureSource> createSourceMap(MOFHolder mof) {
-        Map<BigInteger, TextureSource> texMap = new HashMap<>();
+    private Map<TextureKey, TextureSource> createSourceMap(MOFHolder mof) {
+        Map<TextureKey, TextureSource> texMap = new HashMap<>();
 
         Set<Short> visitedTextures = new HashSet<>();
         for (MOFPolygon poly : mof.asStaticFile().getAllPolygons()) {
-            BigInteger id = poly.makeIdentifier(this);
+            TextureKey id = poly.makeIdentifier(this);
             if (!texMap.containsKey(id))
                 texMap.put(id, poly);
 
@@ -255,7 +342,7 @@ public class TextureMap {
                         if (image == null)
                             continue;
 
-                        BigInteger id = image.makeIdentifier(this);
+                        TextureKey id = image.makeIdentifier(this);
                         if (!texMap.containsKey(id))
                             texMap.put(id, image);
                     }
@@ -276,169 +363,384 @@ public class TextureMap {
         return this.textureTree.getAccessMap().get(source.makeIdentifier(this));
     }
 
-    // Stuff beyond here is heavily based on https://github.com/juj/RectangleBinPack/blob/master/old/RectangleBinPack.cpp (Public Domain)
+    /**
+     * Identifies the atlases which can be shared.
+     */
+    @AllArgsConstructor
+    private static final class AtlasKey {
+        private final VLOArchive vloArchive;
+        private final ShadingMode mode;
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof AtlasKey && ((AtlasKey) other).vloArchive == this.vloArchive && ((AtlasKey) other).mode == this.mode;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(this.vloArchive)) + this.mode.hashCode();
+        }
+    }
+
+    /**
+     * Identifies a texture. Textures which would look exactly the same get equal keys.
+     * Most keys fit every value into the id. Keys with more values keep them, and compare them too, so a hash collision can't make two textures share a slot.
+     */
+    @Getter
+    public static final class TextureKey {
+        private final long id;
+        private final int[] values; // Null if the id holds every value exactly.
+
+        public static final int TEXTURE = 1;
+        public static final int FLAT_SHADED_TEXTURE = 2;
+        public static final int FLAT_COLOR = 3;
+        public static final int FLAT_SHADE_OVERLAY = 4;
+        public static final int GOURAUD_SHADED_TEXTURE = 5;
+        public static final int GOURAUD_COLOR = 6;
+        public static final int CURSOR = 7;
+        public static final int UNKNOWN = 8;
+
+        private TextureKey(long id, int[] values) {
+            this.id = id;
+            this.values = values;
+        }
+
+        /**
+         * Creates a key from a texture id and an RGB color, which are packed into the id exactly.
+         * @param kind      The kind of texture.
+         * @param textureId The 16 bit texture id, or 0 if there isn't one.
+         * @param rgb       The 24 bit RGB color, or 0 if there isn't one.
+         * @return key
+         */
+        public static TextureKey pack(int kind, int textureId, int rgb) {
+            return new TextureKey(((long) (kind & 0xFFFFFF) << 40) | ((long) (textureId & 0xFFFF) << 24) | (rgb & 0xFFFFFF), null);
+        }
+
+        /**
+         * Creates a key from values which don't fit into a long.
+         * @param kind   The kind of texture.
+         * @param values The values which determine what the texture looks like.
+         * @return key
+         */
+        public static TextureKey of(int kind, int... values) {
+            int[] allValues = new int[values.length + 1];
+            allValues[0] = kind;
+            System.arraycopy(values, 0, allValues, 1, values.length);
+
+            long hash = 0xCBF29CE484222325L;
+            for (int value : allValues) {
+                hash = (hash ^ (value & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+                hash ^= (hash >>> 29);
+            }
+
+            return new TextureKey(hash, allValues);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TextureKey && ((TextureKey) other).id == this.id && Arrays.equals(((TextureKey) other).values, this.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.id);
+        }
+    }
+
+    // The packing is based on the MaxRects algorithm from https://github.com/juj/RectangleBinPack/blob/master/MaxRectsBinPack.cpp (Public Domain)
 
     @Getter
     public static class TextureTree {
-        private final TextureMap parentMap;
-        private final Map<BigInteger, TextureTreeNode> accessMap;
+        private final Map<TextureKey, TextureTreeNode> accessMap = new HashMap<>();
+        private final List<Rectangle> freeRectangles = new ArrayList<>(); // Every free area, including ones which overlap each other.
         private int width; // Width of tree.
         private int height; // Height of tree.
-        private TextureTreeNode rootNode;
         private BufferedImage image;
+        private Image fxImage;
+        private boolean shared; // Shared trees are used by more than one texture map, so textures are never removed or moved in them.
 
-        public TextureTree(TextureMap parentMap) {
-            this.parentMap = parentMap;
-            this.accessMap = new HashMap<>();
+        public TextureTree(int width, int height) {
+            this.width = width;
+            this.height = height;
+            clear();
         }
 
         /**
-         * Rebuilds the texture tree.
+         * Adds the textures which are not in the tree yet, and draws them.
+         * If they don't all fit, textures which the sources don't use are removed. If they still don't fit, the tree is rebuilt, growing if necessary.
+         * Meshes using this tree must be rebuilt afterwards, since textures may have moved.
+         * @param map       The texture map the sources are for.
+         * @param sourceMap The textures which should be in the tree.
          */
-        public void rebuildTree(Map<BigInteger, TextureSource> sourceMap) {
-            this.width = getParentMap().getWidth();
-            this.height = getParentMap().getHeight();
+        public void updateTree(TextureMap map, Map<TextureKey, TextureSource> sourceMap) {
+            if (this.shared)
+                throw new IllegalStateException("Cannot update a shared texture tree, since other meshes use it.");
 
-            this.rootNode = new TextureTreeNode(this);
-            this.rootNode.setWidth(getWidth());
-            this.rootNode.setHeight(getHeight());
+            List<TextureEntry> failedEntries = insertEntries(makeEntries(map, sourceMap));
+            if (!failedEntries.isEmpty())
+                makeSpace(sourceMap, failedEntries);
+        }
 
-            this.accessMap.clear();
+        /**
+         * Makes a copy of this tree which isn't shared, so it can be changed without affecting the meshes which use this tree.
+         * @return treeCopy
+         */
+        public TextureTree copy() {
+            TextureTree newTree = new TextureTree(this.width, this.height);
+            newTree.freeRectangles.clear();
+            for (Rectangle freeRect : this.freeRectangles)
+                newTree.freeRectangles.add(new Rectangle(freeRect));
+
+            for (Map.Entry<TextureKey, TextureTreeNode> mapEntry : this.accessMap.entrySet()) {
+                TextureTreeNode node = mapEntry.getValue();
+                TextureTreeNode newNode = TextureTreeNode.newNode(newTree, node.getX(), node.getY(), node.getWidth(), node.getHeight(), node.getImage());
+                newNode.setGameImage(node.getGameImage());
+                newTree.accessMap.put(mapEntry.getKey(), newNode);
+            }
 
-            int minX = getWidth() - MAPFile.VERTEX_COLOR_IMAGE_SIZE; // Our goal is to start in the bottom right corner, and grow out.
-            int minY = getHeight() - MAPFile.VERTEX_COLOR_IMAGE_SIZE;
-            int x = minX;
-            int y = minY;
+            newTree.updateImage();
+            return newTree;
+        }
 
-            List<TextureEntry> images = new ArrayList<>();
-            for (BigInteger key : sourceMap.keySet()) {
-                TextureSource source = sourceMap.get(key);
+        private List<TextureEntry> makeEntries(TextureMap map, Map<TextureKey, TextureSource> sourceMap) {
+            List<TextureEntry> newEntries = new ArrayList<>();
+            for (Map.Entry<TextureKey, TextureSource> mapEntry : sourceMap.entrySet()) {
+                if (this.accessMap.containsKey(mapEntry.getKey()))
+                    continue;
 
-                BufferedImage image = source.makeTexture(getParentMap());
+                TextureSource source = mapEntry.getValue();
+                BufferedImage image = makeTexture(map, source, mapEntry.getKey());
                 if (image == null)
                     continue;
 
-                if (source.isOverlay(getParentMap())) {
-                    this.accessMap.put(key, TextureTreeNode.newNode(this, x, y, image.getWidth(), image.getHeight(), image));
+                GameImage gameImage = source.isOverlay(map) ? null : source.getGameImage(map); // Overlays are not made from a single texture.
+                if (gameImage == null && !source.isOverlay(map))
+                    throw new RuntimeException("TextureSource returned null GameImage. " + source);
+                newEntries.add(new TextureEntry(mapEntry.getKey(), gameImage, image));
+            }
 
-                    if (y > minY) {
-                        y -= image.getHeight();
-                    } else {
-                        x += image.getWidth();
-                    }
+            return newEntries;
+        }
 
-                    if (minY >= y && x >= getWidth()) { // We've reached the end of the cycle, time to reset.
-                        minX -= image.getWidth();
-                        minY -= image.getHeight();
-                        x = minX;
-                        y = getHeight() - MAPFile.VERTEX_COLOR_IMAGE_SIZE;
-                    }
+        private void makeSpace(Map<TextureKey, TextureSource> sourceMap, List<TextureEntry> failedEntries) {
+            // Make space by removing textures which aren't used here.
+            List<TextureKey> unusedKeys = new ArrayList<>(this.accessMap.keySet());
+            unusedKeys.removeAll(sourceMap.keySet());
+            for (TextureKey key : unusedKeys)
+                remove(key);
+
+            failedEntries = insertEntries(failedEntries);
+
+            if (!failedEntries.isEmpty()) { // The free space is too fragmented, so pack everything again.
+                List<TextureEntry> allEntries = new ArrayList<>(failedEntries);
+                for (Map.Entry<TextureKey, TextureTreeNode> mapEntry : this.accessMap.entrySet())
+                    allEntries.add(new TextureEntry(mapEntry.getKey(), mapEntry.getValue().getGameImage(), mapEntry.getValue().getImage()));
+                rebuildTree(allEntries);
+            }
+        }
+
+        private static BufferedImage makeTexture(TextureMap map, TextureSource source, TextureKey id) {
+            if (!AssetCache.isEnabled() || map.getMode() == ShadingMode.NO_SHADING || source instanceof GameImage)
+                return source.makeTexture(map); // Unshaded textures are quicker to make than to read from the cache.
+
+            byte[] key = makeCacheKey(map, source, id);
+            BufferedImage image = AssetCache.getImage(TEXTURE_CACHE_KIND, key);
+            if (image == null && (image = source.makeTexture(map)) != null)
+                AssetCache.putImage(TEXTURE_CACHE_KIND, key, image);
+            return image;
+        }
+
+        private static byte[] makeCacheKey(TextureMap map, TextureSource source, TextureKey id) {
+            boolean overlay = source.isOverlay(map);
+            GameImage gameImage = overlay ? null : source.getGameImage(map);
+            byte[] imageKey = gameImage != null ? gameImage.getCacheKey() : null;
+            if (!overlay && imageKey == null)
+                return null; // The image the texture is made from can't be cached. Overlays are made from colors, which the id covers.
+
+            ImageFilterSettings settings = map.getDisplaySettings();
+            long settingFlags = (settings.isTrimEdges() ? 1 : 0) | (settings.isAllowTransparency() ? 2 : 0) | (settings.isAllowFlip() ? 4 : 0)
+                    | (settings.isAllowScrunch() ? 8 : 0) | (settings.isScaleToMaxSize() ? 16 : 0) | ((long) settings.getState().ordinal() << 8);
+            int[] idValues = id.getValues() != null ? id.getValues() : new int[0];
+            long[] values = new long[5 + idValues.length];
+            values[0] = TEXTURE_CACHE_VERSION;
+            values[1] = id.getId();
+            values[2] = map.getMode().ordinal();
+            values[3] = overlay ? 1 : 0;
+            values[4] = settingFlags;
+            for (int i = 0; i < idValues.length; i++)
+                values[5 + i] = idValues[i];
+            return AssetCache.makeKey(imageKey, values);
+        }
+
+        private void rebuildTree(List<TextureEntry> entries) {
+            while (true) {
+                clear();
+                if (insertEntries(entries).isEmpty() || Math.max(this.width, this.height) >= MAX_ATLAS_SIZE)
+                    break;
+
+                // Grow the tree. Every texture is placed again, so meshes built with the old texture coordinates must be rebuilt.
+                if (this.height <= this.width) {
+                    this.height *= 2;
                 } else {
-                    images.add(new TextureEntry(key, source, image));
+                    this.width *= 2;
                 }
             }
+        }
 
-            // Now, we have to build the actual "tree" part of the texture tree.
-            // This data structure seems to work best when nodes are added in descending size, so the first thing we'll do is get them in descending size.
-            images.sort(Comparator.comparingInt(entry -> -(entry.getImage().getWidth() * entry.getImage().getHeight())));
-
-            // Now, we'll add them.
-            for (TextureEntry entry : images) {
-                GameImage gameImage = entry.getSource().getGameImage(getParentMap());
-                if (gameImage == null)
-                    throw new RuntimeException("TextureSource returned null GameImage. " + entry.getSource());
+        private List<TextureEntry> insertEntries(List<TextureEntry> entries) {
+            // Packing works best when the biggest textures are added first.
+            entries.sort(Comparator.comparingInt(entry -> -(entry.getWidth() * entry.getHeight())));
 
-                TextureTreeNode newNode = insert(gameImage);
-                if (newNode != null) {
-                    newNode.setImage(entry.getImage());
-                    this.accessMap.put(entry.getId(), newNode);
+            List<TextureEntry> failedEntries = new ArrayList<>();
+            for (TextureEntry entry : entries) {
+                TextureTreeNode newNode = insert(entry.getWidth(), entry.getHeight());
+                if (newNode == null) {
+                    failedEntries.add(entry);
+                    continue;
                 }
+
+                newNode.setGameImage(entry.getGameImage());
+                newNode.setImage(entry.getImage());
+                this.accessMap.put(entry.getId(), newNode);
+                drawNode(newNode);
             }
 
-            updateImage();
+            return failedEntries;
         }
 
         @Getter
         @AllArgsConstructor
         private static class TextureEntry {
-            private BigInteger id;
-            private TextureSource source;
+            private TextureKey id;
+            private GameImage gameImage;
             private BufferedImage image;
-        }
 
-        private TextureTreeNode insert(GameImage image) {
-            return insert(getRootNode(), image);
+            public int getWidth() {
+                return this.gameImage != null ? this.gameImage.getFullWidth() : this.image.getWidth();
+            }
+
+            public int getHeight() {
+                return this.gameImage != null ? this.gameImage.getFullHeight() : this.image.getHeight();
+            }
         }
 
-        private TextureTreeNode insert(TextureTreeNode node, GameImage image) {
-            int width = image.getFullWidth();
-            int height = image.getFullHeight();
+        private TextureTreeNode insert(int width, int height) {
+            // Use the free area which leaves the least space on its shortest side.
+            Rectangle bestRect = null;
+            int bestShortSide = Integer.MAX_VALUE;
+            int bestLongSide = Integer.MAX_VALUE;
+            for (Rectangle freeRect : this.freeRectangles) {
+                if (width > freeRect.width || height > freeRect.height)
+                    continue;
 
-            if (node.getLeft() != null || node.getRight() != null) {
-                if (node.getLeft() != null) {
-                    TextureTreeNode newNode = insert(node.getLeft(), image);
-                    if (newNode != null)
-                        return newNode;
+                int leftoverX = freeRect.width - width;
+                int leftoverY = freeRect.height - height;
+                int shortSide = Math.min(leftoverX, leftoverY);
+                int longSide = Math.max(leftoverX, leftoverY);
+                if (shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+                    bestRect = freeRect;
+                    bestShortSide = shortSide;
+                    bestLongSide = longSide;
                 }
+            }
 
-                if (node.getRight() != null)
-                    return insert(node.getRight(), image);
+            if (bestRect == null)
+                return null; // There isn't enough space.
 
-                return null; // Didn't fit into either sub-tree.
-            }
+            Rectangle usedRect = new Rectangle(bestRect.x, bestRect.y, width, height);
+            List<Rectangle> newRectangles = new ArrayList<>();
+            for (int i = 0; i < this.freeRectangles.size(); i++) {
+                Rectangle freeRect = this.freeRectangles.get(i);
+                if (!freeRect.intersects(usedRect))
+                    continue;
 
-            // This node is a leaf, but can we fit the new rectangle here?
-            if (width > node.getWidth() || height > node.getHeight())
-                return null; // Nope, there isn't enough space.
-
-            int w = node.getWidth() - width;
-            int h = node.getHeight() - height;
-            node.setLeft(new TextureTreeNode(this));
-            node.setRight(new TextureTreeNode(this));
-
-            TextureTreeNode left = node.getLeft();
-            TextureTreeNode right = node.getRight();
-            if (w <= h) { // Split the remaining space in the horizontal dimension.
-                left.setX(node.getX() + width);
-                left.setY(node.getY());
-                left.setWidth(w);
-                left.setHeight(height);
-                right.setX(node.getX());
-                right.setY(node.getY() + height);
-                right.setWidth(node.getWidth());
-                right.setHeight(h);
-            } else {
-                left.setX(node.getX());
-                left.setY(node.getY() + height);
-                left.setWidth(width);
-                left.setHeight(h);
-
-                right.setX(node.getX() + width);
-                right.setY(node.getY());
-                right.setWidth(w);
-                right.setHeight(node.getHeight());
+                // Split the free area into the parts which are not covered by the used area.
+                if (usedRect.x > freeRect.x)
+                    newRectangles.add(new Rectangle(freeRect.x, freeRect.y, usedRect.x - freeRect.x, freeRect.height));
+                if (usedRect.x + usedRect.width < freeRect.x + freeRect.width)
+                    newRectangles.add(new Rectangle(usedRect.x + usedRect.width, freeRect.y, (freeRect.x + freeRect.width) - (usedRect.x + usedRect.width), freeRect.height));
+                if (usedRect.y > freeRect.y)
+                    newRectangles.add(new Rectangle(freeRect.x, freeRect.y, freeRect.width, usedRect.y - freeRect.y));
+                if (usedRect.y + usedRect.height < freeRect.y + freeRect.height)
+                    newRectangles.add(new Rectangle(freeRect.x, usedRect.y + usedRect.height, freeRect.width, (freeRect.y + freeRect.height) - (usedRect.y + usedRect.height)));
+
+                this.freeRectangles.remove(i--);
             }
 
-            // Note that as a result of the above, it can happen that node->left or node->right
-            // is now a degenerate (zero area) rectangle. No need to do anything about it,
-            // like remove the nodes as "unnecessary" since they need to exist as children of
-            // this node (this node can't be a leaf anymore).
+            this.freeRectangles.addAll(newRectangles);
+            pruneFreeRectangles();
 
-            // This node is now a non-leaf, so shrink its area - it now denotes
-            // *occupied* space instead of free space. Its children spawn the resulting area of free space.
+            TextureTreeNode node = new TextureTreeNode(this);
+            node.setX(usedRect.x);
+            node.setY(usedRect.y);
             node.setWidth(width);
             node.setHeight(height);
-            node.setGameImage(image);
             return node;
         }
 
+        private void remove(TextureKey key) {
+            TextureTreeNode node = this.accessMap.remove(key);
+            if (node == null)
+                return;
+
+            this.freeRectangles.add(new Rectangle(node.getX(), node.getY(), node.getWidth(), node.getHeight()));
+            pruneFreeRectangles();
+
+            Graphics2D graphics = this.image.createGraphics();
+            graphics.setBackground(new Color(255, 255, 255, 0));
+            graphics.clearRect(node.getX(), node.getY(), node.getWidth(), node.getHeight());
+            graphics.dispose();
+            this.fxImage = null;
+        }
+
+        private void pruneFreeRectangles() {
+            // Free areas which are inside another free area are not needed.
+            for (int i = 0; i < this.freeRectangles.size(); i++) {
+                Rectangle testRect = this.freeRectangles.get(i);
+                for (int j = i + 1; j < this.freeRectangles.size(); j++) {
+                    Rectangle otherRect = this.freeRectangles.get(j);
+                    if (otherRect.contains(testRect)) {
+                        this.freeRectangles.remove(i--);
+                        break;
+                    } else if (testRect.contains(otherRect)) {
+                        this.freeRectangles.remove(j--);
+                    }
+                }
+            }
+        }
+
+        private void clear() {
+            this.accessMap.clear();
+            this.freeRectangles.clear();
+            this.freeRectangles.add(new Rectangle(0, 0, this.width, this.height));
+            updateImage();
+        }
+
         @Override
         public String toString() {
-            StringBuilder builder = new StringBuilder();
-            getRootNode().toString("", builder, "Root");
+            StringBuilder builder = new StringBuilder("TextureTree[").append(this.width).append(", ").append(this.height).append("]").append(Constants.NEWLINE);
+            for (TextureTreeNode node : this.accessMap.values())
+                builder.append("- ").append(node).append(Constants.NEWLINE);
             return builder.toString();
         }
 
+        /**
+         * Gets the image as a JavaFX image, which is only remade when the tree has changed.
+         * @return fxImage
+         */
+        public Image getFXImage() {
+            if (this.fxImage == null)
+                this.fxImage = Utils.toFXImage(this.image, false);
+            return this.fxImage;
+        }
+
+        private void drawNode(TextureTreeNode node) {
+            Graphics2D graphics = this.image.createGraphics();
+            graphics.drawImage(node.getImage(), node.getX(), node.getY(), node.getWidth(), node.getHeight(), null);
+            graphics.dispose();
+            this.fxImage = null;
+        }
+
         /**
          * Updates the image, remaking it if necessary.
          */
@@ -455,6 +757,7 @@ public class TextureMap {
                 graphics.drawImage(node.getImage(), node.getX(), node.getY(), node.getWidth(), node.getHeight(), null);
 
             graphics.dispose();
+            this.fxImage = null;
         }
     }
 
@@ -462,8 +765,6 @@ public class TextureMap {
     @Setter
     public static class TextureTreeNode {
         private final TextureTree tree;
-        private TextureTreeNode left;
-        private TextureTreeNode right;
         private int x;
         private int y;
         private int width;
@@ -475,19 +776,9 @@ public class TextureMap {
             this.tree = tree;
         }
 
-        /**
-         * Gets this node (and subsequent nodes) returned as a display string.
-         */
-        public void toString(String padding, StringBuilder builder, String prefix) {
-            builder.append(padding).append("- ");
-            if (prefix != null)
-                builder.append(prefix).append(" ");
-            builder.append("Node ").append(gameImage != null ? gameImage.getLocalImageID() : -1).append("@[").append(this.x).append(", ").append(this.y)
-                    .append(", ").append(this.width).append(", ").append(this.height).append("]").append(Constants.NEWLINE);
-            if (getLeft() != null)
-                getLeft().toString(padding + " ", builder, "Left");
-            if (getRight() != null)
-                getRight().toString(padding + " ", builder, "Right");
+        @Override
+        public String toString() {
+            return "Node " + (this.gameImage != null ? this.gameImage.getLocalImageID() : -1) + "@[" + this.x + ", " + this.y + ", " + this.width + ", " + this.height + "]";
         }
 
         public float getMinU() {
@@ -520,11 +811,18 @@ public class TextureMap {
          * @param vertCount The amount of vertices to add.
          */
         public void applyMesh(FrogMesh mesh, int vertCount) {
-            mesh.getTexCoords().addAll(getMinU(), getMinV());
-            mesh.getTexCoords().addAll(getMinU(), getMaxV());
-            mesh.getTexCoords().addAll(getMaxU(), getMinV());
+            mesh.getTexCoords().addAll(getTexCoords(vertCount));
+        }
+
+        /**
+         * Gets the texture coordinates which show this whole node on a polygon.
+         * @param vertCount The amount of vertices to get coordinates for.
+         * @return texCoords
+         */
+        public float[] getTexCoords(int vertCount) {
             if (vertCount == MAPPolygon.QUAD_SIZE)
-                mesh.getTexCoords().addAll(getMaxU(), getMaxV());
+                return new float[]{getMinU(), getMinV(), getMinU(), getMaxV(), getMaxU(), getMinV(), getMaxU(), getMaxV()};
+            return new float[]{getMinU(), getMinV(), getMinU(), getMaxV(), getMaxU(), getMinV()};
         }
 
         /**
@@ -571,17 +869,9 @@ public class TextureMap {
         boolean isOverlay(TextureMap map);
 
         /**
-         * Creates a hash code identifier which should match other textures that would look exactly the same, but not match others.
+         * Creates an identifier which should match other textures that would look exactly the same, but not match others.
          */
-        BigInteger makeIdentifier(TextureMap map);
-
-        default BigInteger makeIdentifier(int... colors) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < colors.length; i++)
-                sb.append(Utils.padStringLeft(Integer.toHexString(colors[i]).toUpperCase(), Constants.INTEGER_SIZE, '0'));
-
-            return new BigInteger(sb.toString(), 16);
-        }
+        TextureKey makeIdentifier(TextureMap map);
 
         /**
          * Gets the GameImage this source represents, if it represents one.
@@ -275,7 +275,7 @@ public class MOFHolder extends GameFile {
      * @return textureMap
      */
     public TextureMap makeTextureMap() {
-        return TextureMap.newTextureMap(this, ShadingMode.NO_SHADING);
+        return TextureMap.newTextureMap(this, ShadingMode.NO_SHADING, true);
     }
 
     /**
@@ -20,8 +20,6 @@ public class MR_QUAT_SCALE extends TransformObject {
     private final short[] scale = new short[3]; // 3.5 fixed point scaling.
     private short flags;
 
-    private static final PSXMatrix SCALE_MATRIX = PSXMatrix.newIdentityMatrix();
-
     @Override
     public void load(DataReader reader) {
         this.c = reader.readShort();
@@ -87,10 +85,11 @@ public class MR_QUAT_SCALE extends TransformObject {
         applyToMatrix(matrix, this.c, this.x, this.y, this.z);
 
         if ((this.flags & 1) == 1) {
-            SCALE_MATRIX.getMatrix()[0][0] = (short) (this.scale[0] << 7);
-            SCALE_MATRIX.getMatrix()[1][1] = (short) (this.scale[1] << 7);
-            SCALE_MATRIX.getMatrix()[2][2] = (short) (this.scale[2] << 7);
-            PSXMatrix.MRMulMatrixABB(SCALE_MATRIX, matrix);
+            PSXMatrix scaleMatrix = PSXMatrix.newIdentityMatrix(); // Not shared, so matrices can be created from multiple threads.
+            scaleMatrix.getMatrix()[0][0] = (short) (this.scale[0] << 7);
+            scaleMatrix.getMatrix()[1][1] = (short) (this.scale[1] << 7);
+            scaleMatrix.getMatrix()[2][2] = (short) (this.scale[2] << 7);
+            PSXMatrix.MRMulMatrixABB(scaleMatrix, matrix);
         }
 
         // Apply transform.
@@ -3,12 +3,12 @@ package net.highwayfrogs.editor.file.mof.prims;
 import lombok.Getter;
 import net.highwayfrogs.editor.file.map.MAPFile;
 import net.highwayfrogs.editor.file.map.view.TextureMap;
+import net.highwayfrogs.editor.file.map.view.TextureMap.TextureKey;
 import net.highwayfrogs.editor.file.mof.MOFPart;
 import net.highwayfrogs.editor.file.vlo.GameImage;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.math.BigInteger;
 
 /**
  * Represents a vertex color mof polygon.
@@ -38,8 +38,8 @@ public class MOFColorPolygon extends MOFPolygon {
     }
 
     @Override
-    public BigInteger makeIdentifier(TextureMap map) {
-        return makeIdentifier(0xF1A7C010, getColor().toRGB());
+    public TextureKey makeIdentifier(TextureMap map) {
+        return TextureKey.pack(TextureKey.FLAT_COLOR, 0, getColor().toRGB());
     }
 
     @Override
@@ -0,0 +1,166 @@
+package net.highwayfrogs.editor.file.mof.view;
+
+import lombok.Getter;
+import net.highwayfrogs.editor.file.mof.MOFHolder;
+import net.highwayfrogs.editor.file.mof.MOFPart;
+import net.highwayfrogs.editor.file.mof.MOFPartcel;
+import net.highwayfrogs.editor.file.mof.animation.MOFAnimation;
+import net.highwayfrogs.editor.file.standard.IVector;
+import net.highwayfrogs.editor.file.standard.SVector;
+import net.highwayfrogs.editor.file.standard.psx.PSXMatrix;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches the vertex positions of each animation frame of a MOF, in the same x, y, z float layout a TriangleMesh uses for its points.
+ * Frames can be baked ahead of time in the background, so playing an animation only has to copy the points of each frame into the mesh.
+ * Baking runs on a small pool of its own, so it doesn't compete with loading and saving for the common pool.
+ * Only the most recently used actions are kept, so models with many actions don't use too much memory.
+ * Created by agent on 10/18/2026.
+ */
+public class MOFFrameCache {
+    @Getter private final MOFHolder holder;
+    private final Map<Integer, AtomicReferenceArray<float[]>> actionFrames = new LinkedHashMap<Integer, AtomicReferenceArray<float[]>>(16, .75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Entry<Integer, AtomicReferenceArray<float[]>> eldest) {
+            return size() > MAX_CACHED_ACTIONS;
+        }
+    };
+    private final List<Future<?>> bakeTasks = new ArrayList<>();
+    private volatile boolean cancelled;
+
+    public static int MAX_CACHED_ACTIONS = 32; // The number of actions to keep the frames of.
+    private static final int NO_ACTION = -1;
+    private static final ExecutorService BAKE_POOL = Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)), runnable -> {
+        Thread thread = new Thread(runnable, "MOF Frame Baker");
+        thread.setDaemon(true); // Baking shouldn't keep FrogLord open.
+        return thread;
+    });
+
+    public MOFFrameCache(MOFHolder holder) {
+        this.holder = holder;
+    }
+
+    /**
+     * Starts baking the frames of every action in the background.
+     * If there are more actions than can be cached, only the first actions are baked.
+     */
+    public synchronized void startBaking() {
+        cancel();
+        this.cancelled = false;
+        int actionCount = Math.min(MAX_CACHED_ACTIONS, this.holder.getAnimationCount());
+        for (int i = 0; i < actionCount; i++) {
+            final int action = i;
+            this.bakeTasks.add(BAKE_POOL.submit(() -> bakeAction(action)));
+        }
+    }
+
+    /**
+     * Stops baking frames in the background. Frames which are requested are still baked.
+     */
+    public synchronized void cancel() {
+        this.cancelled = true;
+        for (Future<?> task : this.bakeTasks)
+            task.cancel(false); // Tasks which have started stop at the next frame, since cancelled is set.
+        this.bakeTasks.clear();
+    }
+
+    /**
+     * Removes every baked frame, so they will be baked again when they are next used.
+     * Should be called after the MOF is edited.
+     */
+    public synchronized void clear() {
+        this.actionFrames.clear();
+    }
+
+    /**
+     * Gets the points of an animation frame, baking them now if they have not been baked yet.
+     * The array returned is shared, and should not be modified.
+     * @param action The action to get the frame of, or -1 if there is no animation.
+     * @param frame  The frame to get.
+     * @return points
+     */
+    public float[] getFrame(int action, int frame) {
+        AtomicReferenceArray<float[]> frames = getFrames(action);
+        int index = (action != NO_ACTION) ? frame : 0; // Without an animation, every frame has the same vertices.
+        if (index < 0 || index >= frames.length())
+            return bakeFrame(action, frame); // The frame is out of the range of the action, so it isn't cached.
+
+        float[] points = frames.get(index);
+        if (points == null)
+            frames.set(index, points = bakeFrame(action, frame));
+        return points;
+    }
+
+    private void bakeAction(int action) {
+        AtomicReferenceArray<float[]> frames = getFrames(action);
+        for (int frame = 0; frame < frames.length() && !this.cancelled; frame++)
+            if (frames.get(frame) == null)
+                frames.set(frame, bakeFrame(action, frame));
+    }
+
+    private synchronized AtomicReferenceArray<float[]> getFrames(int action) {
+        int frameCount = (action != NO_ACTION) ? this.holder.getFrameCount(action) : 1;
+        AtomicReferenceArray<float[]> frames = this.actionFrames.get(action);
+        if (frames == null || frames.length() != frameCount) // If the frame count has changed, the animation was edited.
+            this.actionFrames.put(action, frames = new AtomicReferenceArray<>(frameCount));
+
+        return frames;
+    }
+
+    /**
+     * Calculates the points of an animation frame.
+     * @param action The action to calculate the frame of, or -1 if there is no animation.
+     * @param frame  The frame to calculate.
+     * @return points
+     */
+    public float[] bakeFrame(int action, int frame) {
+        boolean hasAnimation = (action != NO_ACTION);
+        int animAction = Math.max(0, action);
+        int animFrame = hasAnimation ? frame : 0;
+        MOFAnimation animatedFile = hasAnimation && this.holder.isAnimatedMOF() ? this.holder.getAnimatedFile() : null;
+
+        int vertexCount = this.holder.isWeirdFrogMOF() ? 1 : 0;
+        for (MOFPart part : this.holder.asStaticFile().getParts())
+            if (!part.shouldHide())
+                vertexCount += getPartcel(part, hasAnimation, animAction, animFrame).getVertices().size();
+
+        float[] points = new float[vertexCount * 3];
+        IVector transformed = new IVector();
+        int index = 0;
+        for (MOFPart part : this.holder.asStaticFile().getParts()) {
+            if (part.shouldHide())
+                continue;
+
+            MOFPartcel partcel = getPartcel(part, hasAnimation, animAction, animFrame);
+            PSXMatrix transform = animatedFile != null ? animatedFile.getTransform(part, animAction, animFrame).calculatePartTransform() : null;
+            for (SVector vertex : partcel.getVertices()) {
+                if (transform != null) {
+                    PSXMatrix.MRApplyMatrix(transform, vertex, transformed);
+                    points[index++] = transformed.getFloatX();
+                    points[index++] = transformed.getFloatY();
+                    points[index++] = transformed.getFloatZ();
+                } else {
+                    points[index++] = vertex.getFloatX();
+                    points[index++] = vertex.getFloatY();
+                    points[index++] = vertex.getFloatZ();
+                }
+            }
+        }
+
+        // The weird vertex added to incomplete MOFs is at 0, 0, 0, which is where the array already is.
+        return points;
+    }
+
+    private static MOFPartcel getPartcel(MOFPart part, boolean hasAnimation, int action, int frame) {
+        return hasAnimation ? part.getCel(action, frame) : part.getStaticPartcel();
+    }
+}
@@ -21,6 +21,7 @@ import net.highwayfrogs.editor.file.standard.Vector;
 import net.highwayfrogs.editor.file.standard.psx.PSXMatrix;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -34,14 +35,28 @@ public class MOFMesh extends FrogMesh<MOFPolygon> {
     private int animationId;
     private int frameCount;
     private final List<Vector> verticeCache = new ArrayList<>();
+    private final MOFFrameCache frameCache;
+    private int[] partVertexCounts = new int[0]; // The number of vertices each part had when the polygon data was last built.
     @Setter private boolean showOverlay;
 
     public MOFMesh(MOFHolder holder) {
         super(holder.makeTextureMap(), VertexFormat.POINT_TEXCOORD);
         this.mofHolder = holder;
+        this.frameCache = new MOFFrameCache(holder);
         updateData();
     }
 
+    @Override
+    public void updateVertices() {
+        getPoints().setAll(this.frameCache.getFrame(this.animationId, getFrame()));
+    }
+
+    @Override
+    public void updatePolygonData() {
+        super.updatePolygonData();
+        this.partVertexCounts = getPartVertexCounts();
+    }
+
     @Override
     public void onUpdatePolygonData() {
         AtomicInteger texId = new AtomicInteger();
@@ -108,11 +123,32 @@ public class MOFMesh extends FrogMesh<MOFPolygon> {
      * @param newFrame The frame to use.
      */
     public void setFrame(int newFrame) {
+        setFrame(newFrame, false);
+    }
+
+    private void setFrame(int newFrame, boolean rebuildPolygons) {
         if (newFrame < 0)
             newFrame = getMofHolder().getFrameCount(this.animationId) + newFrame;
 
         this.frameCount = (newFrame % getMofHolder().getFrameCount(this.animationId));
-        updateData();
+
+        // Polygon data only has to be rebuilt if texture animation changes the texture coordinates, or the number of vertices in a part changes.
+        if (rebuildPolygons || getMofHolder().asStaticFile().hasTextureAnimation() || !Arrays.equals(this.partVertexCounts, getPartVertexCounts())) {
+            updateData();
+        } else {
+            updateVertices();
+        }
+    }
+
+    private int[] getPartVertexCounts() {
+        List<MOFPart> parts = getMofHolder().asStaticFile().getParts();
+        int[] vertexCounts = new int[parts.size()];
+        for (int i = 0; i < parts.size(); i++) {
+            MOFPart part = parts.get(i);
+            vertexCounts[i] = part.shouldHide() ? -1 : part.getCel(getAction(), getFrame()).getVertices().size();
+        }
+
+        return vertexCounts;
     }
 
     /**
@@ -133,7 +169,8 @@ public class MOFMesh extends FrogMesh<MOFPolygon> {
      * Update this frame.
      */
     public void updateFrame() {
-        setFrame(this.frameCount);
+        this.frameCache.clear(); // Something other than the frame may have changed, so the baked frames and the polygon data are rebuilt.
+        setFrame(this.frameCount, true);
     }
 
     /**
@@ -0,0 +1,513 @@
+package net.highwayfrogs.editor.file.packers;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.highwayfrogs.editor.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Packs a byte array into PP20 compressed data, using hash chains to find matches.
+ * Unlike PP20Packer, this does not try to give the same output as the original packer, which makes it much faster.
+ * The output uses the same compression settings as PP20Packer, so the game can still unpack it.
+ *
+ * PP20 data is unpacked from the end backwards, so the data is reversed before packing, and back-references point to later data.
+ * Created by agent on 10/18/2026.
+ */
+public class PP20FastPacker {
+    private static final byte[] COMPRESSION_SETTINGS = PP20Packer.EXTREME_COMPRESSION_SETTINGS;
+    private static final int SMALL_OFFSET_DISTANCE = 1 << PP20Packer.OPTIONAL_BITS_SMALL_OFFSET;
+    private static final int WINDOW_SIZE = 1 << COMPRESSION_SETTINGS[COMPRESSION_SETTINGS.length - 1];
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+    private static final int MAX_MATCH_LENGTH = 0x7FFF;
+    private static final int LONG_MATCH_LENGTH = 5; // Matches at least this long use the last compression level, and have their length written.
+    private static final int NO_POSITION = -1;
+
+    // Costs are measured in thirds of a bit, since every literal adds two thirds of a bit to the length of its literal run.
+    private static final int LITERAL_COST = 3 * Constants.BITS_PER_BYTE + 2;
+    private static final int LITERAL_RUN_COST = 3 * (1 + PP20Packer.INPUT_BIT_LENGTH + Constants.BITS_PER_BYTE); // The first literal in a run.
+    private static final int INFINITE_COST = Integer.MAX_VALUE / 2;
+
+    @Getter
+    @AllArgsConstructor
+    public enum PackerEffort {
+        FAST(8, 32, false, false), // Takes the best match at each position.
+        NORMAL(64, 128, true, false), // Checks whether the match at the next position is better before taking a match.
+        EXTREME(512, 256, false, true); // Finds the cheapest way to encode the whole file.
+
+        private final int maxChainLength; // How many earlier positions to check for a match.
+        private final int niceLength; // A match this long is taken without looking for anything better.
+        private final boolean lazyMatching;
+        private final boolean optimalParsing;
+    }
+
+    /**
+     * Pack a byte array into PP20 compressed data.
+     * @param data   The data to pack.
+     * @param effort How hard to try to make the data smaller.
+     * @return packedData
+     */
+    public static byte[] packData(byte[] data, PackerEffort effort) {
+        return packData(data, data.length, effort);
+    }
+
+    /**
+     * Pack the start of a byte array into PP20 compressed data.
+     * @param data   The array holding the data to pack.
+     * @param length The number of bytes to pack, starting from the start of the array.
+     * @param effort How hard to try to make the data smaller.
+     * @return packedData
+     */
+    public static byte[] packData(byte[] data, int length, PackerEffort effort) {
+        if (length > PP20Packer.MAX_UNCOMPRESSED_FILE_SIZE)
+            throw new RuntimeException("packData tried to compress data larger than the maximum PP20 file size! (" + length + " > " + PP20Packer.MAX_UNCOMPRESSED_FILE_SIZE + ")!");
+
+        byte[] reversed = new byte[length];
+        for (int i = 0; i < length; i++)
+            reversed[i] = data[length - i - 1];
+
+        MatchFinder matchFinder = new MatchFinder(reversed, effort);
+        TokenList tokens = effort.isOptimalParsing() ? parseOptimal(matchFinder) : parseGreedy(matchFinder, effort.isLazyMatching());
+        return writeData(reversed, tokens);
+    }
+
+    private static TokenList parseGreedy(MatchFinder matchFinder, boolean lazyMatching) {
+        TokenList tokens = new TokenList();
+        int length = matchFinder.getData().length;
+
+        int pos = 0;
+        boolean nextSearched = false;
+        while (pos < length) {
+            if (!nextSearched)
+                matchFinder.findBestMatch(pos);
+            nextSearched = false;
+
+            int matchLength = matchFinder.getBestLength();
+            int matchDistance = matchFinder.getBestDistance();
+            if (matchLength == 0) {
+                matchFinder.insert(pos);
+                tokens.addLiteral();
+                pos++;
+                continue;
+            }
+
+            // If the next position has a better match, this byte is written as a literal.
+            if (lazyMatching && matchLength < matchFinder.getEffort().getNiceLength() && pos + 1 < length) {
+                int savings = matchFinder.getBestSavings();
+                matchFinder.insert(pos);
+                matchFinder.findBestMatch(pos + 1);
+                if (matchFinder.getBestSavings() > savings + LITERAL_COST) {
+                    tokens.addLiteral();
+                    pos++;
+                    nextSearched = true;
+                    continue;
+                }
+            } else {
+                matchFinder.insert(pos);
+            }
+
+            tokens.addMatch(matchLength, matchDistance);
+            for (int i = pos + 1; i < pos + matchLength; i++)
+                matchFinder.insert(i);
+            pos += matchLength;
+        }
+
+        return tokens;
+    }
+
+    private static TokenList parseOptimal(MatchFinder matchFinder) {
+        int length = matchFinder.getData().length;
+
+        // The cheapest way to encode the data before each position, ending with either a literal or a match.
+        int[] literalCost = new int[length + 1];
+        int[] matchCost = new int[length + 1];
+        boolean[] literalAfterLiteral = new boolean[length + 1];
+        boolean[] matchAfterLiteral = new boolean[length + 1];
+        int[] matchLengths = new int[length + 1];
+        int[] matchDistances = new int[length + 1];
+        Arrays.fill(literalCost, INFINITE_COST);
+        Arrays.fill(matchCost, INFINITE_COST);
+        matchCost[0] = 0; // Nothing has been written yet, so the first literal starts a new run.
+
+        int[] candidateLengths = new int[matchFinder.getEffort().getMaxChainLength()];
+        int[] candidateDistances = new int[candidateLengths.length];
+        for (int pos = 0; pos < length; pos++) {
+            int fromLiteral = literalCost[pos];
+            int fromMatch = matchCost[pos];
+
+            // Encode the next byte as a literal.
+            int addLiteral = Math.min(fromLiteral + LITERAL_COST, fromMatch + LITERAL_RUN_COST);
+            if (addLiteral < literalCost[pos + 1]) {
+                literalCost[pos + 1] = addLiteral;
+                literalAfterLiteral[pos + 1] = fromLiteral + LITERAL_COST <= fromMatch + LITERAL_RUN_COST;
+            }
+
+            // Encode the next bytes as a match. A later candidate is only useful for lengths that the closer candidates can't reach.
+            int candidates = matchFinder.findMatches(pos, candidateLengths, candidateDistances);
+            int lastLength = 1;
+            int longestLength = 0;
+            int longestDistance = 0;
+            for (int i = 0; i < candidates; i++) {
+                int distance = candidateDistances[i];
+                for (int matchLength = lastLength + 1; matchLength <= candidateLengths[i]; matchLength++) {
+                    int bits = getMatchBits(matchLength, distance);
+                    if (bits < 0)
+                        continue;
+
+                    boolean afterLiteral = fromLiteral <= fromMatch + 3;
+                    int cost = (afterLiteral ? fromLiteral : fromMatch + 3) + (3 * bits);
+                    if (cost < matchCost[pos + matchLength]) {
+                        matchCost[pos + matchLength] = cost;
+                        matchAfterLiteral[pos + matchLength] = afterLiteral;
+                        matchLengths[pos + matchLength] = matchLength;
+                        matchDistances[pos + matchLength] = distance;
+                    }
+                }
+
+                lastLength = Math.max(lastLength, candidateLengths[i]);
+                if (candidateLengths[i] > longestLength) {
+                    longestLength = candidateLengths[i];
+                    longestDistance = distance;
+                }
+            }
+
+            matchFinder.insert(pos);
+
+            // Long matches are taken right away, since looking inside of them is slow and rarely helps.
+            if (longestLength >= matchFinder.getEffort().getNiceLength()) {
+                int end = pos + longestLength;
+                boolean afterLiteral = fromLiteral <= fromMatch + 3;
+                matchCost[end] = (afterLiteral ? fromLiteral : fromMatch + 3) + (3 * getMatchBits(longestLength, longestDistance));
+                matchAfterLiteral[end] = afterLiteral;
+                matchLengths[end] = longestLength;
+                matchDistances[end] = longestDistance;
+                literalCost[end] = INFINITE_COST;
+
+                for (int i = pos + 1; i < end; i++)
+                    matchFinder.insert(i);
+                pos = end - 1;
+            }
+        }
+
+        // Walk backwards through the cheapest path.
+        int tokenCount = 0;
+        int[] tokenLengths = new int[length]; // Zero marks a literal.
+        int[] tokenDistances = new int[length];
+        boolean isLiteral = literalCost[length] < matchCost[length];
+        for (int pos = length; pos > 0; tokenCount++) {
+            if (isLiteral) {
+                isLiteral = literalAfterLiteral[pos];
+                pos--;
+            } else {
+                tokenLengths[tokenCount] = matchLengths[pos];
+                tokenDistances[tokenCount] = matchDistances[pos];
+                isLiteral = matchAfterLiteral[pos];
+                pos -= matchLengths[pos];
+            }
+        }
+
+        TokenList tokens = new TokenList();
+        for (int i = tokenCount - 1; i >= 0; i--) {
+            if (tokenLengths[i] == 0) {
+                tokens.addLiteral();
+            } else {
+                tokens.addMatch(tokenLengths[i], tokenDistances[i]);
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Gets the number of bits it takes to write a match, not including the bit which says whether there are literals before it.
+     * @param length   The number of bytes to copy.
+     * @param distance How far back the bytes are copied from.
+     * @return bitCount, or -1 if the match can't be written.
+     */
+    private static int getMatchBits(int length, int distance) {
+        if (length < PP20Packer.MINIMUM_DECODE_DATA_LENGTH || length > MAX_MATCH_LENGTH)
+            return -1;
+
+        if (length < LONG_MATCH_LENGTH) {
+            int offsetBits = COMPRESSION_SETTINGS[length - PP20Packer.MINIMUM_DECODE_DATA_LENGTH];
+            return distance <= (1 << offsetBits) ? PP20Packer.COMPRESSION_LEVEL_BITS + offsetBits : -1;
+        }
+
+        if (distance > WINDOW_SIZE)
+            return -1;
+
+        int offsetBits = distance <= SMALL_OFFSET_DISTANCE ? PP20Packer.OPTIONAL_BITS_SMALL_OFFSET : COMPRESSION_SETTINGS[COMPRESSION_SETTINGS.length - 1];
+        int lengthBits = PP20Packer.OFFSET_BIT_LENGTH * ((length - LONG_MATCH_LENGTH) / PP20Packer.OFFSET_CONTINUE_WRITING_BITS + 1);
+        return PP20Packer.COMPRESSION_LEVEL_BITS + 1 + offsetBits + lengthBits;
+    }
+
+    private static byte[] writeData(byte[] reversed, TokenList tokens) {
+        // The stream is padded to a multiple of four bytes like the original packer. The unpacker skips the padding bits first.
+        long totalBits = tokens.getTotalBits();
+        int paddingBits = (int) ((Integer.SIZE - (totalBits % Integer.SIZE)) % Integer.SIZE);
+        int streamLength = (int) ((totalBits + paddingBits) / Constants.BITS_PER_BYTE);
+
+        int headerLength = PP20Packer.MARKER_BYTES.length + COMPRESSION_SETTINGS.length;
+        byte[] packedData = new byte[headerLength + streamLength + Constants.INTEGER_SIZE];
+        System.arraycopy(PP20Packer.MARKER_BYTES, 0, packedData, 0, PP20Packer.MARKER_BYTES.length);
+        System.arraycopy(COMPRESSION_SETTINGS, 0, packedData, PP20Packer.MARKER_BYTES.length, COMPRESSION_SETTINGS.length);
+        packedData[packedData.length - 4] = (byte) (reversed.length >> 16);
+        packedData[packedData.length - 3] = (byte) (reversed.length >> 8);
+        packedData[packedData.length - 2] = (byte) reversed.length;
+        packedData[packedData.length - 1] = (byte) paddingBits;
+
+        StreamWriter writer = new StreamWriter(packedData, packedData.length - Constants.INTEGER_SIZE - 1);
+        writer.writeBits(0, paddingBits);
+
+        int dataPos = 0;
+        int literalCount = 0;
+        for (int i = 0; i < tokens.getSize(); i++) {
+            int matchLength = tokens.getLengths()[i];
+            if (matchLength == 0) {
+                literalCount++;
+                continue;
+            }
+
+            dataPos = writeLiterals(writer, reversed, dataPos, literalCount);
+            literalCount = 0;
+
+            int distance = tokens.getDistances()[i];
+            int offset = distance - 1;
+            if (matchLength >= LONG_MATCH_LENGTH) {
+                boolean largeMode = distance > SMALL_OFFSET_DISTANCE;
+                int lengthValue = matchLength - LONG_MATCH_LENGTH;
+                writer.writeBits(PP20Packer.INPUT_CONTINUE_WRITING_BITS, PP20Packer.COMPRESSION_LEVEL_BITS);
+                writer.writeBits(largeMode ? Constants.BIT_TRUE : Constants.BIT_FALSE, 1);
+                writer.writeBits(offset, largeMode ? COMPRESSION_SETTINGS[COMPRESSION_SETTINGS.length - 1] : PP20Packer.OPTIONAL_BITS_SMALL_OFFSET);
+                for (int j = 0; j < lengthValue / PP20Packer.OFFSET_CONTINUE_WRITING_BITS; j++)
+                    writer.writeBits(PP20Packer.OFFSET_CONTINUE_WRITING_BITS, PP20Packer.OFFSET_BIT_LENGTH);
+                writer.writeBits(lengthValue % PP20Packer.OFFSET_CONTINUE_WRITING_BITS, PP20Packer.OFFSET_BIT_LENGTH);
+            } else {
+                int compressionLevel = matchLength - PP20Packer.MINIMUM_DECODE_DATA_LENGTH;
+                writer.writeBits(compressionLevel, PP20Packer.COMPRESSION_LEVEL_BITS);
+                writer.writeBits(offset, COMPRESSION_SETTINGS[compressionLevel]);
+            }
+
+            dataPos += matchLength;
+        }
+
+        if (literalCount > 0)
+            writeLiterals(writer, reversed, dataPos, literalCount);
+
+        writer.flush();
+        return packedData;
+    }
+
+    private static int writeLiterals(StreamWriter writer, byte[] reversed, int dataPos, int literalCount) {
+        if (literalCount == 0) {
+            writer.writeBits(PP20Packer.HAS_RAW_DATA_BIT ^ Constants.BIT_TRUE, 1);
+            return dataPos;
+        }
+
+        int countValue = literalCount - 1;
+        writer.writeBits(PP20Packer.HAS_RAW_DATA_BIT, 1);
+        for (int i = 0; i < countValue / PP20Packer.INPUT_CONTINUE_WRITING_BITS; i++)
+            writer.writeBits(PP20Packer.INPUT_CONTINUE_WRITING_BITS, PP20Packer.INPUT_BIT_LENGTH);
+        writer.writeBits(countValue % PP20Packer.INPUT_CONTINUE_WRITING_BITS, PP20Packer.INPUT_BIT_LENGTH);
+
+        for (int i = 0; i < literalCount; i++)
+            writer.writeBits(reversed[dataPos++] & 0xFF, Constants.BITS_PER_BYTE);
+        return dataPos;
+    }
+
+    /**
+     * Finds earlier occurrences of the data at a position, using a hash chain keyed on the next two bytes.
+     */
+    @Getter
+    private static class MatchFinder {
+        private final byte[] data;
+        private final PackerEffort effort;
+        private final int[] head = new int[1 << (2 * Constants.BITS_PER_BYTE)]; // The last position each pair of bytes was seen at.
+        private final int[] previous = new int[WINDOW_SIZE]; // The position before this one with the same pair of bytes.
+        private int bestLength;
+        private int bestDistance;
+        private int bestSavings;
+
+        public MatchFinder(byte[] data, PackerEffort effort) {
+            this.data = data;
+            this.effort = effort;
+            Arrays.fill(this.head, NO_POSITION);
+        }
+
+        /**
+         * Add a position to the hash chain. Positions must be added in order.
+         * @param pos The position to add.
+         */
+        public void insert(int pos) {
+            if (pos + 1 >= this.data.length)
+                return;
+
+            int key = getKey(pos);
+            this.previous[pos & WINDOW_MASK] = this.head[key];
+            this.head[key] = pos;
+        }
+
+        /**
+         * Finds the match which saves the most bits at a position. The position must not have been inserted yet.
+         * @param pos The position to find a match for.
+         */
+        public void findBestMatch(int pos) {
+            this.bestLength = 0;
+            this.bestDistance = 0;
+            this.bestSavings = 0;
+            if (pos + 1 >= this.data.length)
+                return;
+
+            int maxLength = Math.min(MAX_MATCH_LENGTH, this.data.length - pos);
+            int chainLength = this.effort.getMaxChainLength();
+            for (int matchPos = this.head[getKey(pos)]; matchPos != NO_POSITION && pos - matchPos <= WINDOW_SIZE && chainLength-- > 0; matchPos = this.previous[matchPos & WINDOW_MASK]) {
+                int matchLength = getMatchLength(matchPos, pos, maxLength);
+                int distance = pos - matchPos;
+                int bits = getMatchBits(matchLength, distance);
+                int savings = bits >= 0 ? (matchLength * LITERAL_COST) - (3 * (bits + 1)) : 0;
+                if (savings > this.bestSavings) {
+                    this.bestLength = matchLength;
+                    this.bestDistance = distance;
+                    this.bestSavings = savings;
+                }
+
+                if (matchLength >= Math.min(maxLength, this.effort.getNiceLength()))
+                    break;
+            }
+        }
+
+        /**
+         * Finds matches at a position, closest first. Each match is longer than the ones before it.
+         * @param pos       The position to find matches for. The position must not have been inserted yet.
+         * @param lengths   The array to store match lengths in.
+         * @param distances The array to store match distances in.
+         * @return matchCount
+         */
+        public int findMatches(int pos, int[] lengths, int[] distances) {
+            if (pos + 1 >= this.data.length)
+                return 0;
+
+            int count = 0;
+            int longestLength = 1;
+            int maxLength = Math.min(MAX_MATCH_LENGTH, this.data.length - pos);
+            int chainLength = this.effort.getMaxChainLength();
+            for (int matchPos = this.head[getKey(pos)]; matchPos != NO_POSITION && pos - matchPos <= WINDOW_SIZE && chainLength-- > 0; matchPos = this.previous[matchPos & WINDOW_MASK]) {
+                int matchLength = getMatchLength(matchPos, pos, maxLength);
+                if (matchLength <= longestLength)
+                    continue;
+
+                lengths[count] = longestLength = matchLength;
+                distances[count++] = pos - matchPos;
+                if (matchLength >= Math.min(maxLength, this.effort.getNiceLength()))
+                    break;
+            }
+
+            return count;
+        }
+
+        private int getMatchLength(int matchPos, int pos, int maxLength) {
+            int length = 2; // The first two bytes match, since they have the same key.
+            while (length < maxLength && this.data[matchPos + length] == this.data[pos + length])
+                length++;
+            return length;
+        }
+
+        private int getKey(int pos) {
+            return ((this.data[pos] & 0xFF) << Constants.BITS_PER_BYTE) | (this.data[pos + 1] & 0xFF);
+        }
+    }
+
+    /**
+     * A list of literals and matches, in the order they are unpacked.
+     */
+    @Getter
+    private static class TokenList {
+        private int[] lengths = new int[256]; // Zero marks a literal.
+        private int[] distances = new int[256];
+        private int size;
+        private long totalBits;
+        private int literalRunLength;
+
+        /**
+         * Adds a literal byte.
+         */
+        public void addLiteral() {
+            add(0, 0);
+            if (this.literalRunLength++ == 0) {
+                this.totalBits += 1 + PP20Packer.INPUT_BIT_LENGTH + Constants.BITS_PER_BYTE;
+            } else {
+                this.totalBits += Constants.BITS_PER_BYTE;
+                if ((this.literalRunLength - 1) % PP20Packer.INPUT_CONTINUE_WRITING_BITS == 0)
+                    this.totalBits += PP20Packer.INPUT_BIT_LENGTH;
+            }
+        }
+
+        /**
+         * Adds a match.
+         * @param length   The number of bytes to copy.
+         * @param distance How far back to copy from.
+         */
+        public void addMatch(int length, int distance) {
+            add(length, distance);
+            this.totalBits += getMatchBits(length, distance) + (this.literalRunLength == 0 ? 1 : 0);
+            this.literalRunLength = 0;
+        }
+
+        private void add(int length, int distance) {
+            if (this.size == this.lengths.length) {
+                this.lengths = Arrays.copyOf(this.lengths, this.size * 2);
+                this.distances = Arrays.copyOf(this.distances, this.size * 2);
+            }
+
+            this.lengths[this.size] = length;
+            this.distances[this.size++] = distance;
+        }
+    }
+
+    /**
+     * Writes the bit stream, which the unpacker reads backwards from the end of the data, lowest bit first.
+     */
+    private static class StreamWriter {
+        private final byte[] output;
+        private int bytePos; // Counts down.
+        private long bitBuffer;
+        private int bitCount;
+
+        private static final byte[] REVERSED_BYTES = new byte[256];
+
+        public StreamWriter(byte[] output, int startPos) {
+            this.output = output;
+            this.bytePos = startPos;
+        }
+
+        /**
+         * Write a value, highest bit first.
+         * @param value  The value to write.
+         * @param amount The number of bits to write, up to 32.
+         */
+        public void writeBits(int value, int amount) {
+            if (amount <= 0)
+                return;
+
+            this.bitBuffer = (this.bitBuffer << amount) | (value & (0xFFFFFFFFL >>> (Integer.SIZE - amount)));
+            this.bitCount += amount;
+            while (this.bitCount >= Constants.BITS_PER_BYTE) {
+                this.bitCount -= Constants.BITS_PER_BYTE;
+                this.output[this.bytePos--] = REVERSED_BYTES[(int) (this.bitBuffer >>> this.bitCount) & 0xFF];
+            }
+        }
+
+        /**
+         * Writes any bits which don't fill a full byte yet.
+         */
+        public void flush() {
+            if (this.bitCount > 0)
+                writeBits(0, Constants.BITS_PER_BYTE - this.bitCount);
+        }
+
+        static {
+            for (int i = 0; i < REVERSED_BYTES.length; i++)
+                REVERSED_BYTES[i] = (byte) (Integer.reverse(i) >>> 24);
+        }
+    }
+}
@@ -48,29 +48,50 @@ public class PP20Packer {
         return packData(data, false, EXTREME_COMPRESSION_SETTINGS);
     }
 
+    /**
+     * Packs the start of a byte array using extreme compression settings.
+     * This allows packing data without copying it to an array of the exact size first, such as the array of an ArrayReceiver.
+     * @param data   The array holding the data to pack.
+     * @param length The number of bytes to pack, starting from the start of the array.
+     * @return packedData
+     */
+    public static byte[] packData(byte[] data, int length) {
+        return packData(data, length, false, EXTREME_COMPRESSION_SETTINGS);
+    }
+
     /**
      * Pack a byte array into PP20 compressed data.
      * @param data The data to compress.
      * @return packedData
      */
     public static byte[] packData(byte[] data, boolean oldVersion, byte[] compressionSettings) {
-        if (data.length > MAX_UNCOMPRESSED_FILE_SIZE)
-            throw new RuntimeException("packData tried to compress data larger than the maximum PP20 file size! (" + data.length + " > " + MAX_UNCOMPRESSED_FILE_SIZE + ")!");
+        return packData(data, data.length, oldVersion, compressionSettings);
+    }
+
+    /**
+     * Pack the start of a byte array into PP20 compressed data.
+     * @param data   The array holding the data to compress.
+     * @param length The number of bytes to compress, starting from the start of the array.
+     * @return packedData
+     */
+    public static byte[] packData(byte[] data, int length, boolean oldVersion, byte[] compressionSettings) {
+        if (length > MAX_UNCOMPRESSED_FILE_SIZE)
+            throw new RuntimeException("packData tried to compress data larger than the maximum PP20 file size! (" + length + " > " + MAX_UNCOMPRESSED_FILE_SIZE + ")!");
 
         PackerDataInstance packerData = new PackerDataInstance(oldVersion, compressionSettings);
 
         // Take the compressed data, and pad it with the file structure. Then, we're done.
-        byte[] compressedData = compressData(data, packerData);
-        byte[] sizeBytes = Utils.reverseByteArray(Utils.toByteArray(data.length));
+        byte[] compressedData = compressData(data, length, packerData);
+        byte[] sizeBytes = Utils.reverseByteArray(Utils.toByteArray(length));
         System.arraycopy(MARKER_BYTES, 0, compressedData, 0, MARKER_BYTES.length);
         System.arraycopy(compressionSettings, 0, compressedData, 4, compressionSettings.length);
         System.arraycopy(sizeBytes, 1, compressedData, compressedData.length - 4, Constants.INTEGER_SIZE - 1);
         return compressedData;
     }
 
-    private static int updateSpeedupLarge(byte[] curr, int curIndex, int next, int count, PackerDataInstance info) {
+    private static int updateSpeedupLarge(byte[] curr, int length, int curIndex, int next, int count, PackerDataInstance info) {
         for (int i = curIndex + info.getWindowMax(); i < curIndex + info.getWindowMax() + count; ++i) {
-            if (i >= curr.length - 1)
+            if (i >= length - 1)
                 continue;
 
             int val = ((curr[i] & 0xFF) << 8) | (curr[i + 1] & 0xFF);
@@ -107,17 +128,17 @@ public class PP20Packer {
     }
 
     @SuppressWarnings("StatementWithEmptyBody")
-    private static byte[] compressData(byte[] data, PackerDataInstance info) {
+    private static byte[] compressData(byte[] data, int length, PackerDataInstance info) {
         BitWriter writer = new BitWriter();
         writer.setReverseBits(true);
 
-        int maxSize = Math.min(data.length, info.getWindowLeft());
-        updateSpeedupLarge(data, -info.getWindowMax(), 0, maxSize, info);
+        int maxSize = Math.min(length, info.getWindowLeft());
+        updateSpeedupLarge(data, length, -info.getWindowMax(), 0, maxSize, info);
 
         int srcCurrIdx = 0;
         int bits = 0;
-        while (srcCurrIdx < data.length) {
-            int srcMax = Math.min(data.length, srcCurrIdx + 0x7FFF);
+        while (srcCurrIdx < length) {
+            int srcMax = Math.min(length, srcCurrIdx + 0x7FFF);
 
             final int oldWindowOffset = info.getWindowOffset();
             int nextSrc = srcCurrIdx + 1;
@@ -140,7 +161,7 @@ public class PP20Packer {
 
                         cmpSrc = srcCurrIdx + 2;
                         int cmpFrom = nextSrc + 1;
-                        while (cmpSrc < srcMax && data[cmpSrc++] == data[Math.min(data.length - 1, cmpFrom++)])
+                        while (cmpSrc < srcMax && data[cmpSrc++] == data[Math.min(length - 1, cmpFrom++)])
                             ; // I spent hours debugging how to fix this compared to the C++ version. I tried fixing the C++ version to no avail. Then, somehow... Math.min ended up fixing it. For literally every file I tried, and I tried the full game. I'm pretty suspicious that this is a proper fix, and not just lucky, but I'll take it.
                         cmpFrom--;
 
@@ -177,13 +198,13 @@ public class PP20Packer {
                     writer.writeByte(data[srcCurrIdx]);
                     bits++;
                     prepareDict(1, info);
-                    srcCurrIdx = updateSpeedupLarge(data, srcCurrIdx, srcCurrIdx + 1, 1, info);
+                    srcCurrIdx = updateSpeedupLarge(data, length, srcCurrIdx, srcCurrIdx + 1, 1, info);
                     break;
                 }
 
                 if (info.getWindowMax() > repeats) {
                     prepareDict(repeats, info);
-                    srcCurrIdx = updateSpeedupLarge(data, srcCurrIdx, srcCurrIdx + repeats, repeats, info);
+                    srcCurrIdx = updateSpeedupLarge(data, length, srcCurrIdx, srcCurrIdx + repeats, repeats, info);
                 } else {
                     srcCurrIdx += repeats;
 
@@ -194,7 +215,7 @@ public class PP20Packer {
                         info.getWindowArray()[info.getWindowMax() + i] = 0;
                     }
 
-                    srcCurrIdx = updateSpeedupLarge(data, srcCurrIdx - info.getWindowLeft(), srcCurrIdx, info.getWindowLeft(), info);
+                    srcCurrIdx = updateSpeedupLarge(data, length, srcCurrIdx - info.getWindowLeft(), srcCurrIdx, info.getWindowLeft(), info);
                 }
 
                 // Write Control Code (And possibly raw data packer header.)
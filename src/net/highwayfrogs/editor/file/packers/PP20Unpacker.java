@@ -1,7 +1,6 @@
 package net.highwayfrogs.editor.file.packers;
 
 import net.highwayfrogs.editor.Constants;
-import net.highwayfrogs.editor.file.writer.BitReader;
 import net.highwayfrogs.editor.utils.Utils;
 
 /**
@@ -34,8 +33,7 @@ public class PP20Unpacker {
         int skip = data[data.length - 1] & 0xFF; // Last byte contains the amount of bits to trash.
         byte[] out = new byte[getDecodedDataSize(data)];
         int outPos = out.length;
-        BitReader in = new BitReader(data, 4);
-        in.setReverseBytes(true);
+        ReverseBitReader in = new ReverseBitReader(data, data.length - 5);
         in.readBits(skip); // skipped bits
 
         while (outPos > 0)
@@ -55,7 +53,7 @@ public class PP20Unpacker {
         return (data[i - 2] & 0xFF) << 16 | (data[i - 1] & 0xFF) << 8 | data[i] & 0xFF;
     }
 
-    private static int decodeSegment(BitReader in, byte[] out, int outPos, int[] offsetBitLengths) {
+    private static int decodeSegment(ReverseBitReader in, byte[] out, int outPos, int[] offsetBitLengths) {
         if (in.readBit() == PP20Packer.HAS_RAW_DATA_BIT)
             outPos = copyFromInput(in, out, outPos);
         if (outPos > 0)
@@ -64,7 +62,7 @@ public class PP20Unpacker {
     }
 
     // Appears to put it into the table.
-    private static int copyFromInput(BitReader reader, byte[] out, int bytePos) {
+    private static int copyFromInput(ReverseBitReader reader, byte[] out, int bytePos) {
         int count = 1, countInc;
         while ((countInc = reader.readBits(PP20Packer.INPUT_BIT_LENGTH)) == PP20Packer.INPUT_CONTINUE_WRITING_BITS) // Read the string size. If it == 3, that means the length might be longer.
             count += PP20Packer.INPUT_CONTINUE_WRITING_BITS;
@@ -75,7 +73,7 @@ public class PP20Unpacker {
         return bytePos;
     }
 
-    private static int copyFromDecoded(BitReader in, byte[] out, int bytePos, int[] offsetBitLengths) {
+    private static int copyFromDecoded(ReverseBitReader in, byte[] out, int bytePos, int[] offsetBitLengths) {
         int compressionLevel = in.readBits(PP20Packer.COMPRESSION_LEVEL_BITS); // always at least 2 bytes (2 bytes ~ 0, 3 ~ 1, 4 ~ 2, 5+ ~ 3)
         boolean extraLengthData = (compressionLevel == PP20Packer.INPUT_CONTINUE_WRITING_BITS);
         int offBits = extraLengthData && in.readBit() == Constants.BIT_FALSE ? PP20Packer.OPTIONAL_BITS_SMALL_OFFSET : offsetBitLengths[compressionLevel];
@@ -90,9 +88,76 @@ public class PP20Unpacker {
             } while (lastLengthBits == PP20Packer.OFFSET_CONTINUE_WRITING_BITS);
         }
 
-        for (int i = 0; i < copyLength; i++, bytePos--)
-            out[bytePos - 1] = out[bytePos + off];
+        bytePos -= copyLength;
+        if (off + 1 >= copyLength) { // The source doesn't overlap the bytes being written, so it can be copied all at once.
+            System.arraycopy(out, bytePos + off + 1, out, bytePos, copyLength);
+        } else { // The copy repeats bytes it has just written, so it must go one byte at a time.
+            for (int i = copyLength - 1; i >= 0; i--)
+                out[bytePos + i] = out[bytePos + i + off + 1];
+        }
 
         return bytePos;
     }
+
+    /**
+     * Reads the PP20 bit stream, which starts at the end of the data and is read backwards, lowest bit first.
+     * Bits are buffered 64 at a time, with the bits of each byte reversed so reading a value is a single shift.
+     */
+    private static class ReverseBitReader {
+        private final byte[] data;
+        private int bytePos; // The next byte to add to the buffer. Counts down.
+        private long bitBuffer; // The next bit to read is the highest bit.
+        private int bitCount;
+
+        private static final byte[] REVERSED_BYTES = new byte[256];
+
+        public ReverseBitReader(byte[] data, int startPos) {
+            this.data = data;
+            this.bytePos = startPos;
+        }
+
+        /**
+         * Read the next bit.
+         * @return bitValue
+         */
+        public int readBit() {
+            if (this.bitCount == 0)
+                refill();
+
+            int bit = (int) (this.bitBuffer >>> 63);
+            this.bitBuffer <<= 1;
+            this.bitCount--;
+            return bit;
+        }
+
+        /**
+         * Read a number of bits into an integer, with the first bit read as the highest bit.
+         * @param amount The number of bits to read, up to 32.
+         * @return readValue
+         */
+        public int readBits(int amount) {
+            if (amount <= 0)
+                return 0;
+            if (amount > this.bitCount)
+                refill();
+
+            int value = (int) (this.bitBuffer >>> (Long.SIZE - amount));
+            this.bitBuffer <<= amount;
+            this.bitCount -= amount;
+            return value;
+        }
+
+        private void refill() {
+            while (this.bitCount <= Long.SIZE - Constants.BITS_PER_BYTE) {
+                int value = this.bytePos >= 0 ? REVERSED_BYTES[this.data[this.bytePos--] & 0xFF] & 0xFF : 0; // Past the start of the data reads as zero.
+                this.bitBuffer |= (long) value << (Long.SIZE - Constants.BITS_PER_BYTE - this.bitCount);
+                this.bitCount += Constants.BITS_PER_BYTE;
+            }
+        }
+
+        static {
+            for (int i = 0; i < REVERSED_BYTES.length; i++)
+                REVERSED_BYTES[i] = (byte) (Integer.reverse(i) >>> 24);
+        }
+    }
 }
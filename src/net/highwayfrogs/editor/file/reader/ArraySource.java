@@ -10,33 +10,82 @@ import lombok.Setter;
 @Getter
 public class ArraySource implements DataSource {
     @Setter private int index;
-    private byte[] data;
+    private final byte[] data;
+    private final int startIndex; // The array index which this source starts at.
+    private final int size;
 
     public ArraySource(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    public ArraySource(byte[] data, int startIndex, int size) {
+        if (startIndex < 0 || size < 0 || startIndex + size > data.length)
+            throw new IndexOutOfBoundsException("Cannot read " + size + " bytes at " + startIndex + " from an array of " + data.length + " bytes.");
+
         this.data = data;
+        this.startIndex = startIndex;
+        this.size = size;
+    }
+
+    /**
+     * Gets the bytes this source reads from. A slice only returns a copy of its own bytes, not the whole array it was sliced from.
+     * @return data
+     */
+    public byte[] getData() {
+        if (this.startIndex == 0 && this.size == this.data.length)
+            return this.data;
+
+        byte[] sliceData = new byte[this.size];
+        System.arraycopy(this.data, this.startIndex, sliceData, 0, this.size);
+        return sliceData;
     }
 
     @Override
     public byte readByte() {
-        return data[this.index++];
+        checkRead(1);
+        return data[this.startIndex + this.index++];
     }
 
     @Override
     public byte[] readBytes(int amount) {
+        checkRead(amount);
         byte[] readBytes = new byte[amount];
-        System.arraycopy(this.data, this.index, readBytes, 0, amount);
+        System.arraycopy(this.data, this.startIndex + this.index, readBytes, 0, amount);
         this.index += amount;
         return readBytes;
     }
 
+    @Override
+    public short readShort() {
+        checkRead(2);
+        int pos = this.startIndex + this.index;
+        this.index += 2;
+        return (short) ((this.data[pos] & 0xFF) | (this.data[pos + 1] << 8));
+    }
+
+    @Override
+    public int readInt() {
+        checkRead(4);
+        int pos = this.startIndex + this.index;
+        this.index += 4;
+        return (this.data[pos] & 0xFF) | (this.data[pos + 1] & 0xFF) << 8 | (this.data[pos + 2] & 0xFF) << 16 | this.data[pos + 3] << 24;
+    }
+
     @Override
     public void skip(int byteCount) {
         this.index += byteCount;
     }
 
-
     @Override
-    public int getSize() {
-        return data.length;
+    public DataSource slice(int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > this.size)
+            throw new IndexOutOfBoundsException("Cannot slice " + length + " bytes at " + offset + " from a source of " + this.size + " bytes.");
+        return new ArraySource(this.data, this.startIndex + offset, length);
+    }
+
+    // Slices share their parent's array, so reading past the end of a slice must fail instead of reading the bytes after it.
+    private void checkRead(int amount) {
+        if (amount < 0 || this.index < 0 || this.index + amount > this.size)
+            throw new IndexOutOfBoundsException("Cannot read " + amount + " bytes at " + this.index + ", the source only has " + this.size + " bytes.");
     }
 }
@@ -138,7 +138,11 @@ public class DataReader {
      * @return floatValue
      */
     public float readFloat() {
-        return Utils.readFloatFromBytes(readBytes(Constants.FLOAT_SIZE));
+        try {
+            return source.readFloat();
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read float.", ex);
+        }
     }
 
     /**
@@ -147,7 +151,11 @@ public class DataReader {
      * @return intValue
      */
     public int readInt() {
-        return readInt(Constants.INTEGER_SIZE);
+        try {
+            return source.readInt();
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read integer.", ex);
+        }
     }
 
     /**
@@ -156,10 +164,11 @@ public class DataReader {
      * @return shortValue
      */
     public short readShort() {
-        short value = 0;
-        for (int i = 0; i < Constants.SHORT_SIZE; i++)
-            value += ((long) readByte() & 0xFFL) << (Constants.BITS_PER_BYTE * i);
-        return value;
+        try {
+            return source.readShort();
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read short.", ex);
+        }
     }
 
     /**
@@ -315,10 +324,10 @@ public class DataReader {
      * @return newReader
      */
     public DataReader newReader(int startOffset, int length) {
-        jumpTemp(startOffset);
-        byte[] bytes = readBytes(length >= 0 ? length : getRemaining());
-        jumpReturn();
-
-        return new DataReader(new ArraySource(bytes));
+        try {
+            return new DataReader(source.slice(startOffset, length >= 0 ? length : getSize() - startOffset));
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to create a sub-reader at " + startOffset + ".", ex);
+        }
     }
 }
@@ -21,6 +21,32 @@ public interface DataSource {
      */
     public byte[] readBytes(int amount) throws IOException;
 
+    /**
+     * Read the next two bytes as a little-endian short.
+     * Sources which can read the bytes directly should override this, so reading a short doesn't go through readByte() twice.
+     * @return shortValue
+     */
+    public default short readShort() throws IOException {
+        return (short) ((readByte() & 0xFF) | (readByte() & 0xFF) << 8);
+    }
+
+    /**
+     * Read the next four bytes as a little-endian integer.
+     * Sources which can read the bytes directly should override this, so reading an integer doesn't go through readByte() four times.
+     * @return intValue
+     */
+    public default int readInt() throws IOException {
+        return (readByte() & 0xFF) | (readByte() & 0xFF) << 8 | (readByte() & 0xFF) << 16 | (readByte() & 0xFF) << 24;
+    }
+
+    /**
+     * Read the next four bytes as a little-endian float.
+     * @return floatValue
+     */
+    public default float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
     /**
      * Skip a given number of bytes, from the current index.
      * @param byteCount The bytes to skip.
@@ -44,4 +70,19 @@ public interface DataSource {
      * @return size
      */
     public int getSize() throws IOException;
+
+    /**
+     * Creates a source which reads a section of this source, starting at index 0. Data is shared instead of copied whenever possible.
+     * The index of this source is not changed.
+     * @param offset The index in this source which the new source starts at.
+     * @param length The amount of bytes the new source can read.
+     * @return slicedSource
+     */
+    public default DataSource slice(int offset, int length) throws IOException {
+        int oldIndex = getIndex();
+        setIndex(offset);
+        byte[] data = readBytes(length);
+        setIndex(oldIndex);
+        return new ArraySource(data);
+    }
 }
\ No newline at end of file
@@ -29,6 +29,20 @@ public class FileSource implements DataSource {
         return bytes;
     }
 
+    @Override
+    public short readShort() {
+        int pos = this.index;
+        this.index += 2;
+        return (short) ((this.fileData[pos] & 0xFF) | (this.fileData[pos + 1] << 8));
+    }
+
+    @Override
+    public int readInt() {
+        int pos = this.index;
+        this.index += 4;
+        return (this.fileData[pos] & 0xFF) | (this.fileData[pos + 1] & 0xFF) << 8 | (this.fileData[pos + 2] & 0xFF) << 16 | this.fileData[pos + 3] << 24;
+    }
+
     @Override
     public void skip(int byteCount) throws IOException {
         this.index += byteCount;
@@ -48,4 +62,9 @@ public class FileSource implements DataSource {
     public int getSize() throws IOException {
         return this.fileData.length;
     }
+
+    @Override
+    public DataSource slice(int offset, int length) {
+        return new ArraySource(this.fileData, offset, length);
+    }
 }
@@ -0,0 +1,85 @@
+package net.highwayfrogs.editor.file.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A data source backed by a memory-mapped file.
+ * The file is paged in by the operating system as it is read, so even very large files take up very little heap.
+ * Created by agent on 10/18/2026.
+ */
+public class MappedFileSource implements DataSource {
+    private final ByteBuffer buffer;
+
+    public MappedFileSource(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            this.buffer = channel.map(MapMode.READ_ONLY, 0, channel.size()); // The mapping remains valid after the channel is closed.
+        }
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private MappedFileSource(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN); // Slices are always big-endian, regardless of the buffer they were sliced from.
+    }
+
+    @Override
+    public byte readByte() {
+        return this.buffer.get();
+    }
+
+    @Override
+    public byte[] readBytes(int amount) {
+        byte[] bytes = new byte[amount];
+        this.buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public short readShort() {
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public int readInt() {
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public float readFloat() {
+        return this.buffer.getFloat();
+    }
+
+    @Override
+    public void skip(int byteCount) {
+        this.buffer.position(this.buffer.position() + byteCount);
+    }
+
+    @Override
+    public void setIndex(int newIndex) {
+        this.buffer.position(newIndex);
+    }
+
+    @Override
+    public int getIndex() {
+        return this.buffer.position();
+    }
+
+    @Override
+    public int getSize() {
+        return this.buffer.limit();
+    }
+
+    @Override
+    public DataSource slice(int offset, int length) {
+        ByteBuffer sliceBuffer = this.buffer.duplicate();
+        sliceBuffer.limit(offset + length);
+        sliceBuffer.position(offset);
+        return new MappedFileSource(sliceBuffer.slice());
+    }
+}
@@ -13,8 +13,10 @@ import javax.sound.sampled.AudioFormat.Encoding;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Represents a game sound.
@@ -46,6 +48,15 @@ public abstract class GameSound extends GameObject {
      */
     public abstract byte[] toRawAudio();
 
+    /**
+     * Opens a stream which reads the raw PCM audio data.
+     * Sounds which have to be converted to PCM should convert the audio as it is read, so it can be played without converting all of it first.
+     * @return rawAudioStream
+     */
+    public InputStream openRawAudioStream() {
+        return new ByteArrayInputStream(toRawAudio());
+    }
+
     /**
      * Export this audio entry as a standard audio clip.
      * @return audioClip
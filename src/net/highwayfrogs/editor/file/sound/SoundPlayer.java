@@ -0,0 +1,113 @@
+package net.highwayfrogs.editor.file.sound;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Plays a sound by streaming its PCM audio to a SourceDataLine on a background thread.
+ * Audio is decoded as it plays, so playback starts right away, and memory use doesn't depend on how long the sound is.
+ * Created by agent on 10/18/2026.
+ */
+public class SoundPlayer {
+    private final GameSound sound;
+    private final boolean loop;
+    private final Runnable onStop;
+    private volatile boolean stopped;
+    private volatile SourceDataLine line;
+    private Thread thread;
+
+    public static int BUFFER_MILLIS = 100; // How much audio the line holds. Smaller values stop faster, but may stutter.
+    private static final int READ_SIZE = 8192;
+
+    /**
+     * Creates a new sound player.
+     * @param sound  The sound to play.
+     * @param loop   Whether the sound should play again each time it finishes, until stopped.
+     * @param onStop Called on the playing thread once the sound stops, whether it finished or was stopped. Can be null.
+     */
+    public SoundPlayer(GameSound sound, boolean loop, Runnable onStop) {
+        this.sound = sound;
+        this.loop = loop;
+        this.onStop = onStop;
+    }
+
+    /**
+     * Starts playing the sound.
+     */
+    public void play() {
+        if (this.thread != null)
+            throw new RuntimeException("The sound has already been played.");
+
+        this.thread = new Thread(this::run, "Sound Player");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Test if the sound is still playing.
+     * @return isPlaying
+     */
+    public boolean isPlaying() {
+        return this.thread != null && this.thread.isAlive() && !this.stopped;
+    }
+
+    /**
+     * Stops playing the sound.
+     */
+    public void stop() {
+        this.stopped = true;
+        SourceDataLine currentLine = this.line;
+        if (currentLine != null) { // Makes a blocked write return right away.
+            currentLine.stop();
+            currentLine.flush();
+        }
+    }
+
+    private void run() {
+        AudioFormat format = this.sound.getAudioFormat();
+        int frameSize = Math.max(1, format.getFrameSize());
+        int bufferSize = Math.max(frameSize, (int) (format.getFrameRate() * BUFFER_MILLIS / 1000) * frameSize);
+
+        try (SourceDataLine newLine = AudioSystem.getSourceDataLine(format)) {
+            newLine.open(format, bufferSize);
+            this.line = newLine;
+            if (this.stopped)
+                return;
+
+            newLine.start();
+            byte[] buffer = new byte[READ_SIZE + frameSize];
+            long playedBytes;
+            do {
+                playedBytes = 0;
+                try (InputStream inputStream = this.sound.openRawAudioStream()) {
+                    int pending = 0;
+                    int readBytes;
+                    while (!this.stopped && (readBytes = inputStream.read(buffer, pending, READ_SIZE)) > 0) {
+                        int total = pending + readBytes;
+                        int writeBytes = total - (total % frameSize); // Only whole frames can be written.
+                        newLine.write(buffer, 0, writeBytes);
+                        playedBytes += writeBytes;
+                        pending = total - writeBytes;
+                        System.arraycopy(buffer, writeBytes, buffer, 0, pending);
+                    }
+                }
+            } while (this.loop && !this.stopped && playedBytes > 0);
+
+            if (!this.stopped)
+                newLine.drain(); // Let the end of the sound play.
+            newLine.stop();
+        } catch (LineUnavailableException | IOException | IllegalArgumentException ex) { // IllegalArgumentException is thrown when there's no line which can play the format.
+            System.out.println("Failed to play sound " + this.sound.getVanillaTrackId() + ".");
+            ex.printStackTrace();
+        } finally {
+            this.line = null;
+            this.stopped = true;
+            if (this.onStop != null)
+                this.onStop.run();
+        }
+    }
+}
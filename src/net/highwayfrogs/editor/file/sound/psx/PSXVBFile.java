@@ -15,6 +15,7 @@ import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 
 /**
@@ -70,6 +71,11 @@ public class PSXVBFile extends AbstractVBFile<PSXVHFile> {
             return VAGUtil.rawVagToWav(this.audioData);
         }
 
+        @Override
+        public InputStream openRawAudioStream() {
+            return new VAGInputStream(this.audioData);
+        }
+
         @Override
         public Clip toStandardAudio() throws LineUnavailableException {
             byte[] byteData = toRawAudio();
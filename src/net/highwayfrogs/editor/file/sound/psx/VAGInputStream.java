@@ -0,0 +1,128 @@
+package net.highwayfrogs.editor.file.sound.psx;
+
+import net.highwayfrogs.editor.Constants;
+
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Reads VAG audio as 16 bit little-endian PCM, decoding it a chunk at a time as it is read.
+ * Recently decoded chunks are kept in a small cache shared by every stream, so replaying or looping a sound doesn't decode it again.
+ * Created by agent on 10/18/2026.
+ */
+public class VAGInputStream extends InputStream {
+    private final byte[] vagAudioData;
+    private final int blockCount;
+    private final double[] state = new double[2];
+    private byte[] chunk;
+    private int chunkPosition;
+    private int nextChunk;
+
+    public static int MAX_CACHED_CHUNKS = 64; // The number of decoded chunks to keep, shared between every sound. Each chunk is about 14KB.
+    private static final int BLOCKS_PER_CHUNK = 256;
+    private static final Map<ChunkKey, DecodedChunk> CACHED_CHUNKS = new LinkedHashMap<ChunkKey, DecodedChunk>(16, .75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Entry<ChunkKey, DecodedChunk> eldest) {
+            return size() > MAX_CACHED_CHUNKS;
+        }
+    };
+
+    public VAGInputStream(byte[] vagAudioData) {
+        this.vagAudioData = vagAudioData;
+        this.blockCount = VAGUtil.getBlockCount(vagAudioData);
+    }
+
+    @Override
+    public int read() {
+        if (!hasMore())
+            return -1;
+
+        return this.chunk[this.chunkPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0)
+            return 0;
+        if (!hasMore())
+            return -1;
+
+        int readLength = Math.min(length, this.chunk.length - this.chunkPosition);
+        System.arraycopy(this.chunk, this.chunkPosition, buffer, offset, readLength);
+        this.chunkPosition += readLength;
+        return readLength;
+    }
+
+    @Override
+    public int available() {
+        return this.chunk != null ? this.chunk.length - this.chunkPosition : 0;
+    }
+
+    private boolean hasMore() {
+        return (this.chunk != null && this.chunkPosition < this.chunk.length) || loadNextChunk();
+    }
+
+    private boolean loadNextChunk() {
+        int firstBlock = this.nextChunk * BLOCKS_PER_CHUNK;
+        if (firstBlock >= this.blockCount)
+            return false; // Reached the end.
+
+        // Chunks are always decoded in order from the start of the sound, so a cached chunk was decoded from the same state this one would be.
+        ChunkKey key = new ChunkKey(this.vagAudioData, this.nextChunk++);
+        DecodedChunk decodedChunk;
+        synchronized (CACHED_CHUNKS) {
+            decodedChunk = CACHED_CHUNKS.get(key);
+        }
+
+        if (decodedChunk == null) {
+            int chunkBlocks = Math.min(BLOCKS_PER_CHUNK, this.blockCount - firstBlock);
+            byte[] pcmData = new byte[chunkBlocks * VAGUtil.SAMPLES_PER_BLOCK * Constants.SHORT_SIZE];
+            VAGUtil.decodeBlocks(this.vagAudioData, firstBlock, chunkBlocks, this.state, pcmData, 0);
+            decodedChunk = new DecodedChunk(pcmData, this.state[0], this.state[1]);
+            synchronized (CACHED_CHUNKS) {
+                CACHED_CHUNKS.put(key, decodedChunk);
+            }
+        } else {
+            this.state[0] = decodedChunk.s1;
+            this.state[1] = decodedChunk.s2;
+        }
+
+        this.chunk = decodedChunk.pcmData;
+        this.chunkPosition = 0;
+        return true;
+    }
+
+    private static final class ChunkKey {
+        private final byte[] vagAudioData; // Compared by identity, since replacing a sound replaces its array.
+        private final int chunkIndex;
+
+        private ChunkKey(byte[] vagAudioData, int chunkIndex) {
+            this.vagAudioData = vagAudioData;
+            this.chunkIndex = chunkIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(this.vagAudioData)) + this.chunkIndex;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof ChunkKey) && ((ChunkKey) other).vagAudioData == this.vagAudioData && ((ChunkKey) other).chunkIndex == this.chunkIndex;
+        }
+    }
+
+    private static final class DecodedChunk {
+        private final byte[] pcmData;
+        private final double s1; // The decoder state after the chunk.
+        private final double s2;
+
+        private DecodedChunk(byte[] pcmData, double s1, double s2) {
+            this.pcmData = pcmData;
+            this.s1 = s1;
+            this.s2 = s2;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package net.highwayfrogs.editor.file.sound.psx;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
 import net.highwayfrogs.editor.Constants;
 import net.highwayfrogs.editor.file.reader.ArraySource;
 import net.highwayfrogs.editor.file.reader.DataReader;
-import net.highwayfrogs.editor.file.writer.ArrayReceiver;
-import net.highwayfrogs.editor.file.writer.DataWriter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Utilities for the VAG file format.
@@ -14,18 +16,33 @@ import net.highwayfrogs.editor.file.writer.DataWriter;
  * - https://github.com/simias/psxsdk/blob/master/tools/vag2wav.c
  * - https://github.com/simias/psxsdk/blob/master/tools/wav2vag.c
  * - https://github.com/losnoco/vgmstream/blob/2125433cd5fc362e679373cce7777110f7b5fba0/src/coding/psx_decoder.c
+ * Encoding picks the predictor of every block in parallel, using exact integer math. Packing carries the rounding error of each sample into the next block,
+ * but a block which uses predictor 0 ignores the carry, so the blocks are packed in parallel runs which start at those blocks.
  * Created by Kneesnap on 11/30/2019.
  */
 public class VAGUtil {
     private static final String RIFF_SIGNATURE = "RIFF";
     private static final String WAV_SIGNATURE = "WAVE";
     private static final String DATA_CHUNK_SIGNATURE = "data";
-    private static final int BUFFER_SIZE = 128 * 8;
+    private static final int BUFFER_SIZE = 128 * 8; // Samples are read in chunks of this size, and each chunk is padded to a whole number of blocks.
+    public static final int SAMPLES_PER_BLOCK = 28;
+    private static final int BLOCK_SIZE = 16;
+    private static final int WAV_HEADER_SIZE = 44;
+    private static final byte END_FLAG = 7;
+    private static final int MIN_BLOCKS_PER_TASK = 256; // The fewest blocks encoded by one task, so small sounds aren't split into tiny tasks.
     private static final double[][] TABLE = new double[][]{{0.0, 0.0},
             {60D / 64D, 0D},
             {115D / 64D, -52D / 64D},
             {98D / 64D, -55D / 64D},
             {122D / 64D, -60D / 64D}};
+    private static final int[][] FIXED_TABLE = {{0, 0}, {60, 0}, {115, -52}, {98, -55}, {122, -60}}; // TABLE, multiplied by 64.
+    private static final int[][] NIBBLE_SAMPLES = new int[16][16]; // The sample each nibble becomes, for each shift factor.
+
+    static {
+        for (int shiftFactor = 0; shiftFactor < NIBBLE_SAMPLES.length; shiftFactor++)
+            for (int nibble = 0; nibble < NIBBLE_SAMPLES[shiftFactor].length; nibble++)
+                NIBBLE_SAMPLES[shiftFactor][nibble] = ((short) (nibble << 12)) >> shiftFactor;
+    }
 
     /**
      * Converts a playstation VAG sound to raw PCM.
@@ -44,74 +61,97 @@ public class VAGUtil {
      */
     public static byte[] rawVagToWav(byte[] vagAudioData, int sampleRate) {
         boolean includeWavHeader = (sampleRate > 0);
-        double[] samples = new double[28];
-        double s1 = 0;
-        double s2 = 0;
-
-        DataReader reader = new DataReader(new ArraySource(vagAudioData));
-
-        ArrayReceiver dataReceiver = new ArrayReceiver();
-        DataWriter writer = new DataWriter(dataReceiver);
+        int blockCount = getBlockCount(vagAudioData);
+        int headerSize = includeWavHeader ? WAV_HEADER_SIZE : 0;
+        byte[] output = new byte[headerSize + (blockCount * SAMPLES_PER_BLOCK * Constants.SHORT_SIZE)];
 
         // Write wav.
-        int fileSizeAddress = -1;
-        int subChunk2SizeAddress = -1;
         if (includeWavHeader) {
-            writer.writeStringBytes(RIFF_SIGNATURE);
-            fileSizeAddress = writer.writeNullPointer();
-            writer.writeStringBytes(WAV_SIGNATURE);
-            writer.writeStringBytes("fmt ");
-            writer.writeInt(16); // Write chunk 1 size.
-            writer.writeShort((short) 1); // Writes audio format. 1 = PCM.
-            writer.writeShort((short) 1); // Number of channels.
-            writer.writeInt(sampleRate);
-            writer.writeInt(sampleRate * 2); // (SampleRate * NumChannels * BitsPerSample/8). That would be 44100*1*(16/8), thus 88200.
-            writer.writeShort((short) 2); // Block align: (NumChannels * BitsPerSample/8), thus 2
-            writer.writeShort((short) 16); // 16 bits per sample.
-
-            writer.writeStringBytes(DATA_CHUNK_SIGNATURE);
-            subChunk2SizeAddress = writer.writeNullPointer();
+            ByteBuffer header = ByteBuffer.wrap(output, 0, WAV_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(RIFF_SIGNATURE.getBytes());
+            header.putInt(output.length - 8); // File size, after this.
+            header.put(WAV_SIGNATURE.getBytes());
+            header.put("fmt ".getBytes());
+            header.putInt(16); // Write chunk 1 size.
+            header.putShort((short) 1); // Writes audio format. 1 = PCM.
+            header.putShort((short) 1); // Number of channels.
+            header.putInt(sampleRate);
+            header.putInt(sampleRate * 2); // (SampleRate * NumChannels * BitsPerSample/8). That would be 44100*1*(16/8), thus 88200.
+            header.putShort((short) 2); // Block align: (NumChannels * BitsPerSample/8), thus 2
+            header.putShort((short) 16); // 16 bits per sample.
+            header.put(DATA_CHUNK_SIGNATURE.getBytes());
+            header.putInt(output.length - WAV_HEADER_SIZE); // Chunk size.
         }
 
-        while (reader.hasMore()) {
-            byte predictNr = reader.readByte();
-            int shiftFactor = (predictNr & 0b1111);
-            predictNr >>= 4;
-            byte flags = reader.readByte();
+        decodeBlocks(vagAudioData, 0, blockCount, new double[2], output, headerSize);
+        return output;
+    }
 
-            if (flags == 7)
+    /**
+     * Gets the number of blocks of audio in VAG audio data, not counting the block with the end flag.
+     * @param vagAudioData The vag audio data.
+     * @return blockCount
+     */
+    public static int getBlockCount(byte[] vagAudioData) {
+        int blockCount = 0;
+        for (int offset = 0; offset < vagAudioData.length; offset += BLOCK_SIZE) {
+            if (offset + 1 < vagAudioData.length && vagAudioData[offset + 1] == END_FLAG)
                 break; // End.
 
-            for (int i = 0; i < 28; i += 2) {
-                byte d = reader.readByte();
-                int s = (d & 0xF) << 12;
-                if ((s & 0x8000) == 0x8000)
-                    s |= 0xFFFF0000;
-                samples[i] = (s >> shiftFactor);
-                s = (d & 0xF0) << 8;
-                if ((s & 0x8000) == 0x8000)
-                    s |= 0xFFFF0000;
-                samples[i + 1] = (s >> shiftFactor);
-            }
+            if (offset + BLOCK_SIZE > vagAudioData.length)
+                throw new RuntimeException("The VAG audio data ends in the middle of a block.");
+            blockCount++;
+        }
 
-            for (int i = 0; i < 28; i++) {
-                samples[i] += (s1 * TABLE[predictNr][0]) + (s2 * TABLE[predictNr][1]);
-                s2 = s1;
-                s1 = samples[i];
-                int d = (int) (samples[i] + .5);
-                writer.writeByte((byte) (d & 0xFF));
-                writer.writeByte((byte) ((d >> 8) & 0xFF));
+        return blockCount;
+    }
+
+    /**
+     * Decodes blocks of VAG audio into 16 bit little-endian PCM. Each block becomes 28 samples.
+     * Sounds can be decoded a few blocks at a time, by passing the same state to each call.
+     * @param vagAudioData The vag audio data to decode.
+     * @param blockIndex   The index of the first block to decode.
+     * @param blockCount   The number of blocks to decode.
+     * @param state        The last two samples decoded before the first block. Starts as zeros, and is updated with the last two samples decoded.
+     * @param output       The array to write the PCM samples to.
+     * @param outputIndex  The index in the output array to start writing at.
+     * @return The number of blocks decoded, which is less than blockCount if the end of the audio was reached.
+     */
+    public static int decodeBlocks(byte[] vagAudioData, int blockIndex, int blockCount, double[] state, byte[] output, int outputIndex) {
+        double s1 = state[0];
+        double s2 = state[1];
+
+        int blocksDecoded = 0;
+        for (int offset = blockIndex * BLOCK_SIZE; blocksDecoded < blockCount && offset + BLOCK_SIZE <= vagAudioData.length; offset += BLOCK_SIZE) {
+            byte predictNr = vagAudioData[offset];
+            int[] nibbleSamples = NIBBLE_SAMPLES[predictNr & 0b1111];
+            predictNr >>= 4;
+            if (vagAudioData[offset + 1] == END_FLAG)
+                break; // End.
+
+            if (predictNr < 0 || predictNr >= TABLE.length)
+                throw new RuntimeException("VAG block " + (offset / BLOCK_SIZE) + " uses an unknown predictor. (" + predictNr + ")");
+
+            double filter1 = TABLE[predictNr][0];
+            double filter2 = TABLE[predictNr][1];
+            for (int i = 2; i < BLOCK_SIZE; i++) {
+                int d = vagAudioData[offset + i];
+                for (int nibble = 0; nibble < 2; nibble++) { // The low nibble is the first sample.
+                    double sample = nibbleSamples[(d >> (nibble * 4)) & 0xF] + ((s1 * filter1) + (s2 * filter2));
+                    s2 = s1;
+                    s1 = sample;
+                    int pcm = (int) (sample + .5);
+                    output[outputIndex++] = (byte) pcm;
+                    output[outputIndex++] = (byte) (pcm >> 8);
+                }
             }
-        }
 
-        // Write sizes.
-        if (includeWavHeader) {
-            writer.writeAddressAt(fileSizeAddress, writer.getIndex() - (fileSizeAddress + Constants.INTEGER_SIZE)); // Write file size.
-            writer.writeAddressAt(subChunk2SizeAddress, writer.getIndex() - (subChunk2SizeAddress + Constants.INTEGER_SIZE)); // Write chunk size.
+            blocksDecoded++;
         }
 
-        writer.closeReceiver();
-        return dataReceiver.toArray();
+        state[0] = s1;
+        state[1] = s2;
+        return blocksDecoded;
     }
 
     /**
@@ -120,19 +160,8 @@ public class VAGUtil {
      * @return vagAudio
      */
     public static byte[] wavToVag(byte[] wavBytes) {
-        double[] samples = new double[28];
-        short[] fourBit = new short[28];
-        short[] wave = new short[BUFFER_SIZE + 28];
-        double s1 = 0;
-        double s2 = 0;
-        double oldS1 = 0;
-        double oldS2 = 0;
-
         DataReader reader = new DataReader(new ArraySource(wavBytes));
 
-        ArrayReceiver dataReceiver = new ArrayReceiver();
-        DataWriter writer = new DataWriter(dataReceiver);
-
         // Read wav file.
         reader.verifyString(RIFF_SIGNATURE);
         reader.skipInt(); // File size address.
@@ -159,133 +188,205 @@ public class VAGUtil {
 
         reader.verifyString(DATA_CHUNK_SIGNATURE);
         int dataChunkSize = reader.readInt();
-
         int sampleLen = (dataChunkSize / (bitsPerSample / Constants.BITS_PER_BYTE));
-        int flags = 0;
-
-        int predictNr = 0;
-        int shiftFactor = 0;
-        while (sampleLen > 0) {
-            int size = Math.min(BUFFER_SIZE, sampleLen);
-            for (int i = 0; i < size; i++)
-                wave[i] = reader.readShort();
-
-            int i = size / 28;
-            if ((size % 28) != 0) {
-                for (int j = size % 28; j < 28; j++)
-                    wave[(28 * i) + j] = 0;
-                i++;
-            }
-
-            for (int j = 0; j < i; j++) { // Pack 28 samples.
-                PredictResult pResult = findPredict(wave, j * 28, samples, predictNr, oldS1, oldS2);
-                oldS1 = pResult.getS1();
-                oldS2 = pResult.getS2();
-                predictNr = pResult.getPredictNr();
-                shiftFactor = pResult.getShiftFactor();
-
-                PackResult result = pack(samples, fourBit, predictNr, shiftFactor, s1, s2);
-                s1 = result.getS1();
-                s2 = result.getS2();
-
-                writer.writeByte((byte) ((predictNr << 4) | shiftFactor));
-                writer.writeByte((byte) flags);
-                for (int k = 0; k < 28; k += 2)
-                    writer.writeByte((byte) (((fourBit[k + 1] >> 8) & 0xF0) | ((fourBit[k] >> 12) & 0xF)));
-
-                sampleLen -= 28;
-                if (sampleLen < 28)
-                    flags = 1;
-            }
-        }
 
-        writer.writeByte((byte) ((predictNr << 4) | shiftFactor));
-        writer.writeByte((byte) 7); // End flag.
-        writer.writeNull(14);
-        writer.closeReceiver();
-        return dataReceiver.toArray();
+        VAGEncoder encoder = new VAGEncoder(wavBytes, reader.getIndex(), sampleLen);
+        return encoder.encode();
     }
 
-    private static PredictResult findPredict(short[] useSamples, int startIndex, double[] samples, int predictNr, double oldS1, double oldS2) {
-        double[][] buffer = new double[28][5];
-        double min = 10000000000D;
-        double s1 = oldS1;
-        double s2 = oldS2;
-
-        for (int i = 0; i < 5; i++) {
-            double max = 0;
-            s1 = oldS1;
-            s2 = oldS2;
-            for (int j = 0; j < 28; j++) {
-                double s0 = Math.min(30720D, Math.max(-30719D, useSamples[startIndex + j])); // s[t-0]
-                double ds = s0 + s1 * -TABLE[i][0] + s2 * -TABLE[i][1];
-                buffer[j][i] = ds;
-                if (fabs(ds) > max)
-                    max = fabs(ds);
-
-                s2 = s1; // new s[t-2]
-                s1 = s0; // new s[t-1]
+    /**
+     * Encodes 16 bit PCM samples into VAG blocks.
+     * The samples are read in chunks of BUFFER_SIZE, and the last block of each chunk is padded with silence, so the block layout is worked out first.
+     */
+    private static class VAGEncoder {
+        private final byte[] wavBytes;
+        private final int dataOffset;
+        private final int blockCount;
+        private final int[] blockStarts; // The index of the first sample of each block.
+        private final byte[] blockSampleCounts; // The number of samples read for each block. The rest of the block is silence.
+        private final byte[] blockFlags;
+        private final byte[] predictNrs;
+        private final byte[] shiftFactors;
+        private final int[] differences; // The difference of each sample from its prediction, multiplied by 64.
+        private final byte[] output;
+
+        private VAGEncoder(byte[] wavBytes, int dataOffset, int sampleLen) {
+            this.wavBytes = wavBytes;
+            this.dataOffset = dataOffset;
+
+            // Lay out the blocks the same way as reading the samples a chunk at a time does.
+            List<int[]> blocks = new ArrayList<>();
+            int sampleIndex = 0;
+            int flags = 0;
+            while (sampleLen > 0) {
+                int size = Math.min(BUFFER_SIZE, sampleLen);
+                for (int start = 0; start < size; start += SAMPLES_PER_BLOCK) {
+                    blocks.add(new int[] {sampleIndex + start, Math.min(SAMPLES_PER_BLOCK, size - start), flags});
+                    sampleLen -= SAMPLES_PER_BLOCK;
+                    if (sampleLen < SAMPLES_PER_BLOCK)
+                        flags = 1;
+                }
+
+                sampleIndex += size;
             }
 
-            if (max < min) {
-                min = max;
-                predictNr = i;
-            }
-            if (min <= 7) {
-                predictNr = 0;
-                break;
+            if (dataOffset + ((long) sampleIndex * Constants.SHORT_SIZE) > wavBytes.length)
+                throw new RuntimeException("The WAV file ended before all of its samples were read.");
+
+            this.blockCount = blocks.size();
+            this.blockStarts = new int[this.blockCount];
+            this.blockSampleCounts = new byte[this.blockCount];
+            this.blockFlags = new byte[this.blockCount];
+            for (int i = 0; i < this.blockCount; i++) {
+                int[] block = blocks.get(i);
+                this.blockStarts[i] = block[0];
+                this.blockSampleCounts[i] = (byte) block[1];
+                this.blockFlags[i] = (byte) block[2];
             }
+
+            this.predictNrs = new byte[this.blockCount];
+            this.shiftFactors = new byte[this.blockCount];
+            this.differences = new int[this.blockCount * SAMPLES_PER_BLOCK];
+            this.output = new byte[(this.blockCount + 1) * BLOCK_SIZE];
         }
 
-        for (int i = 0; i < 28; i++)
-            samples[i] = buffer[i][predictNr];
+        private byte[] encode() {
+            // 1. Pick the predictor of every block. This only uses the input samples, so every block can be done at once.
+            int taskCount = (this.blockCount + MIN_BLOCKS_PER_TASK - 1) / MIN_BLOCKS_PER_TASK;
+            IntStream.range(0, taskCount).parallel().forEach(task -> {
+                int[] samples = new int[SAMPLES_PER_BLOCK];
+                int endBlock = Math.min(this.blockCount, (task + 1) * MIN_BLOCKS_PER_TASK);
+                for (int block = task * MIN_BLOCKS_PER_TASK; block < endBlock; block++)
+                    findPredict(block, samples);
+            });
+
+            // 2. Pack the blocks. A block using predictor 0 doesn't use the error carried from the previous block, so packing can start fresh at any of them.
+            List<Integer> runStarts = new ArrayList<>();
+            runStarts.add(0);
+            for (int block = 1; block < this.blockCount; block++)
+                if (this.predictNrs[block] == 0 && block - runStarts.get(runStarts.size() - 1) >= MIN_BLOCKS_PER_TASK)
+                    runStarts.add(block);
+            runStarts.add(this.blockCount);
+
+            IntStream.range(0, runStarts.size() - 1).parallel().forEach(run -> {
+                double[] state = new double[2];
+                for (int block = runStarts.get(run); block < runStarts.get(run + 1); block++)
+                    pack(block, state);
+            });
+
+            // Write the end block.
+            int lastBlock = this.blockCount - 1;
+            int endOffset = this.blockCount * BLOCK_SIZE;
+            this.output[endOffset] = lastBlock >= 0 ? (byte) ((this.predictNrs[lastBlock] << 4) | this.shiftFactors[lastBlock]) : 0;
+            this.output[endOffset + 1] = END_FLAG;
+            return this.output;
+        }
 
-        int min2 = (int) min;
-        int shiftMask = 0x4000;
+        private int readClampedSample(int block, int index) {
+            if (index >= this.blockSampleCounts[block])
+                return 0; // Padding.
 
-        int shiftFactor;
-        for (shiftFactor = 0; shiftFactor < 12; shiftFactor++) {
-            if ((shiftMask & (min2 + (shiftMask >> 3))) != 0)
-                break;
-            shiftMask = shiftMask >> 1;
+            int offset = this.dataOffset + ((this.blockStarts[block] + index) * Constants.SHORT_SIZE);
+            int sample = (short) ((this.wavBytes[offset] & 0xFF) | (this.wavBytes[offset + 1] << 8));
+            return Math.min(30720, Math.max(-30719, sample));
         }
 
-        return new PredictResult(predictNr, shiftFactor, s1, s2);
-    }
+        private void findPredict(int block, int[] samples) {
+            for (int i = 0; i < SAMPLES_PER_BLOCK; i++)
+                samples[i] = readClampedSample(block, i);
+
+            // The predictions continue from the last two samples of the previous block.
+            int oldS1 = block > 0 ? readClampedSample(block - 1, SAMPLES_PER_BLOCK - 1) : 0;
+            int oldS2 = block > 0 ? readClampedSample(block - 1, SAMPLES_PER_BLOCK - 2) : 0;
+
+            // Every value here is 64 times larger than the value it stands for, so the math is exact.
+            int min = Integer.MAX_VALUE;
+            int predictNr = 0;
+            for (int i = 0; i < FIXED_TABLE.length; i++) {
+                int filter1 = FIXED_TABLE[i][0];
+                int filter2 = FIXED_TABLE[i][1];
+                int max = 0;
+                int s1 = oldS1;
+                int s2 = oldS2;
+                for (int j = 0; j < SAMPLES_PER_BLOCK; j++) {
+                    int s0 = samples[j]; // s[t-0]
+                    int ds = (s0 * 64) - (s1 * filter1) - (s2 * filter2);
+                    if (Math.abs(ds) > max)
+                        max = Math.abs(ds);
+
+                    s2 = s1; // new s[t-2]
+                    s1 = s0; // new s[t-1]
+                }
+
+                if (max < min) {
+                    min = max;
+                    predictNr = i;
+                }
+                if (min <= 7 * 64) {
+                    predictNr = 0;
+                    break;
+                }
+            }
 
-    @Getter
-    @AllArgsConstructor
-    private static class PredictResult {
-        private int predictNr;
-        private int shiftFactor;
-        private double s1;
-        private double s2;
-    }
+            // Save the differences of the chosen predictor.
+            int filter1 = FIXED_TABLE[predictNr][0];
+            int filter2 = FIXED_TABLE[predictNr][1];
+            int s1 = oldS1;
+            int s2 = oldS2;
+            int differenceIndex = block * SAMPLES_PER_BLOCK;
+            for (int j = 0; j < SAMPLES_PER_BLOCK; j++) {
+                int s0 = samples[j];
+                this.differences[differenceIndex + j] = (s0 * 64) - (s1 * filter1) - (s2 * filter2);
+                s2 = s1;
+                s1 = s0;
+            }
 
-    private static PackResult pack(double[] samples, short[] fourBit, int predictNr, int shiftFactor, double s1, double s2) {
-        for (int i = 0; i < 28; i++) {
-            double s0 = samples[i] + s1 * -TABLE[predictNr][0] + s2 * -TABLE[predictNr][1];
-            double ds = s0 * (double) (1 << shiftFactor);
-            int di = Math.max(-32768, Math.min(32767, (((int) ds + 0x800) & 0xfffff000)));
+            int min2 = min >> 6;
+            int shiftMask = 0x4000;
 
-            fourBit[i] = (short) di;
+            int shiftFactor;
+            for (shiftFactor = 0; shiftFactor < 12; shiftFactor++) {
+                if ((shiftMask & (min2 + (shiftMask >> 3))) != 0)
+                    break;
+                shiftMask = shiftMask >> 1;
+            }
 
-            di >>= shiftFactor;
-            s2 = s1;
-            s1 = (double) di - s0;
+            this.predictNrs[block] = (byte) predictNr;
+            this.shiftFactors[block] = (byte) shiftFactor;
         }
 
-        return new PackResult(s1, s2);
-    }
-
-    @Getter
-    @AllArgsConstructor
-    private static class PackResult {
-        private double s1;
-        private double s2;
-    }
+        private void pack(int block, double[] state) {
+            int predictNr = this.predictNrs[block];
+            int shiftFactor = this.shiftFactors[block];
+            double filter1 = -TABLE[predictNr][0];
+            double filter2 = -TABLE[predictNr][1];
+            double s1 = state[0];
+            double s2 = state[1];
+
+            // The rounding error is carried as a double, since that's what decides how each sample rounds.
+            int offset = block * BLOCK_SIZE;
+            int differenceIndex = block * SAMPLES_PER_BLOCK;
+            this.output[offset] = (byte) ((predictNr << 4) | shiftFactor);
+            this.output[offset + 1] = this.blockFlags[block];
+            for (int i = 0; i < SAMPLES_PER_BLOCK; i++) {
+                double s0 = (this.differences[differenceIndex + i] / 64D) + s1 * filter1 + s2 * filter2;
+                double ds = s0 * (double) (1 << shiftFactor);
+                int di = Math.max(-32768, Math.min(32767, (((int) ds + 0x800) & 0xfffff000)));
+
+                int nibble = (di >> 12) & 0xF;
+                if ((i & 1) == 0) {
+                    this.output[offset + 2 + (i / 2)] = (byte) nibble;
+                } else {
+                    this.output[offset + 2 + (i / 2)] |= (byte) (nibble << 4);
+                }
+
+                di >>= shiftFactor;
+                s2 = s1;
+                s1 = (double) di - s0;
+            }
 
-    private static double fabs(double val) {
-        return (val >= 0 ? val : -val);
+            state[0] = s1;
+            state[1] = s2;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package net.highwayfrogs.editor.file.sound.retail;
 
 import lombok.Getter;
+import net.highwayfrogs.editor.Constants;
 import net.highwayfrogs.editor.file.reader.ArraySource;
 import net.highwayfrogs.editor.file.reader.DataReader;
 import net.highwayfrogs.editor.file.sound.GameSound;
@@ -11,9 +12,9 @@ import net.highwayfrogs.editor.file.writer.DataWriter;
 
 import javax.sound.sampled.AudioFileFormat.Type;
 import javax.sound.sampled.*;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -52,12 +53,15 @@ public class RetailPCVBFile extends PCVBFile {
 
         @Override
         public byte[] toRawAudio() {
-            ArrayReceiver receiver = new ArrayReceiver();
-            DataWriter writer = new DataWriter(receiver);
+            int byteWidth = getByteWidth();
+            byte[] rawAudio = new byte[this.audioData.length * byteWidth];
+            writeSamples(this.audioData, 0, this.audioData.length, byteWidth, rawAudio, 0);
+            return rawAudio;
+        }
 
-            for (int i = 0; i < getAudioData().length; i++)
-                writer.writeNumber(getAudioData()[i], getByteWidth());
-            return receiver.toArray();
+        @Override
+        public InputStream openRawAudioStream() {
+            return new SampleInputStream(this.audioData, getByteWidth());
         }
 
         @Override
@@ -71,8 +75,7 @@ public class RetailPCVBFile extends PCVBFile {
 
         @Override
         public void exportToFile(File saveTo) throws IOException {
-            Clip clip = getClip();
-            AudioInputStream inputStream = new AudioInputStream(new ByteArrayInputStream(toRawAudio()), clip.getFormat(), clip.getFrameLength());
+            AudioInputStream inputStream = new AudioInputStream(openRawAudioStream(), getAudioFormat(), this.audioData.length);
             AudioSystem.write(inputStream, Type.WAVE, saveTo);
         }
 
@@ -105,4 +108,83 @@ public class RetailPCVBFile extends PCVBFile {
             onImport();
         }
     }
+
+    /**
+     * Writes samples as little-endian PCM.
+     * @param samples     The samples to write.
+     * @param startIndex  The index of the first sample to write.
+     * @param sampleCount The number of samples to write.
+     * @param byteWidth   The number of bytes in each sample.
+     * @param output      The array to write the PCM to.
+     * @param outputIndex The index in the output array to start writing at.
+     */
+    private static void writeSamples(int[] samples, int startIndex, int sampleCount, int byteWidth, byte[] output, int outputIndex) {
+        for (int i = startIndex; i < startIndex + sampleCount; i++) {
+            int sample = samples[i];
+            for (int j = 0; j < byteWidth; j++)
+                output[outputIndex++] = (byte) (sample >> (j * Constants.BITS_PER_BYTE));
+        }
+    }
+
+    /**
+     * Reads samples as little-endian PCM, converting them as they are read.
+     */
+    private static class SampleInputStream extends InputStream {
+        private final int[] samples;
+        private final int byteWidth;
+        private final byte[] sampleBytes;
+        private int nextSample;
+        private int sampleBytePosition;
+
+        private SampleInputStream(int[] samples, int byteWidth) {
+            this.samples = samples;
+            this.byteWidth = byteWidth;
+            this.sampleBytes = new byte[byteWidth];
+            this.sampleBytePosition = byteWidth;
+        }
+
+        @Override
+        public int read() {
+            if (this.sampleBytePosition >= this.byteWidth) {
+                if (this.nextSample >= this.samples.length)
+                    return -1;
+
+                writeSamples(this.samples, this.nextSample++, 1, this.byteWidth, this.sampleBytes, 0);
+                this.sampleBytePosition = 0;
+            }
+
+            return this.sampleBytes[this.sampleBytePosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0)
+                return 0;
+
+            // Finish any sample which was partly read, then convert whole samples straight into the buffer.
+            int readBytes = 0;
+            while (this.sampleBytePosition < this.byteWidth && readBytes < length)
+                buffer[offset + readBytes++] = this.sampleBytes[this.sampleBytePosition++];
+
+            int sampleCount = Math.min((length - readBytes) / this.byteWidth, this.samples.length - this.nextSample);
+            writeSamples(this.samples, this.nextSample, sampleCount, this.byteWidth, buffer, offset + readBytes);
+            this.nextSample += sampleCount;
+            readBytes += sampleCount * this.byteWidth;
+
+            if (readBytes == 0) { // The buffer is smaller than a sample, or the end was reached.
+                int value = read();
+                if (value == -1)
+                    return -1;
+                buffer[offset] = (byte) value;
+                return 1;
+            }
+
+            return readBytes;
+        }
+
+        @Override
+        public int available() {
+            return ((this.samples.length - this.nextSample) * this.byteWidth) + (this.byteWidth - this.sampleBytePosition);
+        }
+    }
 }
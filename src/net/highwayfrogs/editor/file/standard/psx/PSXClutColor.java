@@ -24,6 +24,7 @@ public class PSXClutColor extends GameObject {
     private static final int GREEN_OFFSET = RED_OFFSET + BITS_PER_VALUE;
     private static final int BLUE_OFFSET = GREEN_OFFSET + BITS_PER_VALUE;
     private static final int TO_FULL_BYTE = Constants.BITS_PER_BYTE - BITS_PER_VALUE;
+    private static final int VALUE_MASK = (1 << BITS_PER_VALUE) - 1;
     private static final int STP_FLAG = Constants.BIT_FLAG_15;
     public static final int BYTE_SIZE = Constants.SHORT_SIZE;
 
@@ -76,12 +77,7 @@ public class PSXClutColor extends GameObject {
      * @return intValue
      */
     public int toRGBA() {
-        byte[] arr = new byte[4]; //RGBA
-        arr[0] = Utils.unsignedShortToByte((short) (Utils.byteToUnsignedShort(getRed()) << TO_FULL_BYTE));
-        arr[1] = Utils.unsignedShortToByte((short) (Utils.byteToUnsignedShort(getGreen()) << TO_FULL_BYTE));
-        arr[2] = Utils.unsignedShortToByte((short) (Utils.byteToUnsignedShort(getBlue()) << TO_FULL_BYTE));
-        arr[3] = (byte) (isStp() ? 0x01 : 0x00);
-        return Utils.readNumberFromBytes(arr);
+        return readColorFromShort(toShort());
     }
 
     /**
@@ -129,15 +125,10 @@ public class PSXClutColor extends GameObject {
      * @return rgbaColor
      */
     public static int readColorFromShort(short color) {
-        byte blue = getByte(color, BLUE_OFFSET);
-        byte green = getByte(color, GREEN_OFFSET);
-        byte red = getByte(color, RED_OFFSET);
-        boolean stp = (color & STP_FLAG) == STP_FLAG;
-        byte[] arr = new byte[4]; //RGBA
-        arr[0] = Utils.unsignedShortToByte((short) (Utils.byteToUnsignedShort(red) << TO_FULL_BYTE));
-        arr[1] = Utils.unsignedShortToByte((short) (Utils.byteToUnsignedShort(green) << TO_FULL_BYTE));
-        arr[2] = Utils.unsignedShortToByte((short) (Utils.byteToUnsignedShort(blue) << TO_FULL_BYTE));
-        arr[3] = (byte) (stp ? 0x01 : 0x00);
-        return Utils.readNumberFromBytes(arr);
+        int red = ((color >> RED_OFFSET) & VALUE_MASK) << TO_FULL_BYTE;
+        int green = ((color >> GREEN_OFFSET) & VALUE_MASK) << TO_FULL_BYTE;
+        int blue = ((color >> BLUE_OFFSET) & VALUE_MASK) << TO_FULL_BYTE;
+        int stp = (color & STP_FLAG) == STP_FLAG ? 0x01 : 0x00;
+        return red | (green << 8) | (blue << 16) | (stp << 24); // RGBA, with red in the lowest byte.
     }
 }
\ No newline at end of file
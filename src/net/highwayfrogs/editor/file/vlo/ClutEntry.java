@@ -22,6 +22,7 @@ public class ClutEntry extends GameObject {
     private PSXRect clutRect = new PSXRect();
     private List<PSXClutColor> colors = new ArrayList<>();
     private transient int tempSaveColorsPointer;
+    private transient int[] cachedPalette;
 
     private static final int BYTE_SIZE = PSXRect.BYTE_SIZE + Constants.INTEGER_SIZE;
 
@@ -70,6 +71,28 @@ public class ClutEntry extends GameObject {
         return getClutRect().getWidth() * getClutRect().getHeight();
     }
 
+    /**
+     * Gets the colors of this clut as RGBA integers, the same way PSXClutColor.toRGBA makes them.
+     * The palette is made once, so decoding an indexed image only needs an array lookup for each pixel.
+     * @return palette
+     */
+    public int[] getPalette() {
+        if (this.cachedPalette != null && this.cachedPalette.length == this.colors.size())
+            return this.cachedPalette;
+
+        int[] palette = new int[this.colors.size()];
+        for (int i = 0; i < palette.length; i++)
+            palette[i] = this.colors.get(i).toRGBA();
+        return this.cachedPalette = palette;
+    }
+
+    /**
+     * Invalidates the cached palette, such as when the colors are changed.
+     */
+    public void invalidatePalette() {
+        this.cachedPalette = null;
+    }
+
     /**
      * Creates an image with clut colors.
      * @return clutImage
@@ -7,21 +7,22 @@ import lombok.Setter;
 import lombok.SneakyThrows;
 import net.highwayfrogs.editor.Constants;
 import net.highwayfrogs.editor.file.GameObject;
+import net.highwayfrogs.editor.file.MWDFile;
+import net.highwayfrogs.editor.file.MWIFile.FileEntry;
 import net.highwayfrogs.editor.file.map.view.TextureMap;
+import net.highwayfrogs.editor.file.map.view.TextureMap.TextureKey;
 import net.highwayfrogs.editor.file.map.view.TextureMap.TextureSource;
 import net.highwayfrogs.editor.file.reader.DataReader;
 import net.highwayfrogs.editor.file.standard.psx.PSXClutColor;
 import net.highwayfrogs.editor.file.vlo.ImageWorkHorse.BlackFilter;
 import net.highwayfrogs.editor.file.writer.DataWriter;
+import net.highwayfrogs.editor.system.AssetCache;
 import net.highwayfrogs.editor.utils.Utils;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.math.BigInteger;
+import java.awt.image.DataBufferInt;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.IntBuffer;
-import java.util.Arrays;
 import java.util.Comparator;
 
 /**
@@ -48,6 +49,7 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
 
     private transient int tempSaveImageDataPointer;
     private transient BufferedImage cachedImage;
+    private transient boolean replaced; // True once the pixels are no longer the ones the VLO was loaded with.
 
     public static final int MAX_DIMENSION = 256;
     private static final int PC_BYTES_PER_PIXEL = 4;
@@ -109,28 +111,28 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
 
         int pixelCount = getFullWidth() * getFullHeight();
         if (getParent().isPsxMode()) {
-            ByteBuffer buffer = ByteBuffer.allocate(PC_BYTES_PER_PIXEL * pixelCount);
+            int[] pixels = new int[pixelCount]; // The pixels are decoded in bulk, then written as bytes all at once.
 
             if (getClutMode() == ImageClutMode.MODE_15BIT_NO_CLUT) { // Used in PS1 demo. Example: Frogger's eye, VOL@35 (The fireball texture)
+                byte[] data = reader.readBytes(pixelCount * Constants.SHORT_SIZE);
                 for (int i = 0; i < pixelCount; i++)
-                    buffer.putInt(PSXClutColor.readColorFromShort(reader.readShort()));
+                    pixels[i] = PSXClutColor.readColorFromShort((short) ((data[2 * i] & 0xFF) | (data[(2 * i) + 1] << 8)));
             } else if (getClutMode() == ImageClutMode.MODE_8BIT) { // Used in PS1 release. Example: STARTNTSC.VLO
-                ClutEntry clut = getClut();
+                int[] palette = getClut().getPalette();
+                byte[] data = reader.readBytes(pixelCount);
                 for (int i = 0; i < pixelCount; i++)
-                    readPSXPixel(reader.readUnsignedByteAsShort(), clut, buffer);
+                    pixels[i] = palette[data[i] & 0xFF];
             } else { // 4bit (normal) mode.
-                ClutEntry clut = getClut();
-                for (int i = 0; i < pixelCount / 2; i++) { // We read two pixels per iteration.
-                    short value = reader.readUnsignedByteAsShort();
-                    int low = value & 0x0F;
-                    int high = value >> 4;
-
-                    readPSXPixel(low, clut, buffer);
-                    readPSXPixel(high, clut, buffer);
+                int[] palette = getClut().getPalette();
+                byte[] data = reader.readBytes(pixelCount / 2);
+                for (int i = 0; i < data.length; i++) { // Each byte holds two pixels, low nibble first.
+                    pixels[2 * i] = palette[data[i] & 0x0F];
+                    pixels[(2 * i) + 1] = palette[(data[i] & 0xF0) >> 4];
                 }
             }
 
-            this.imageBytes = buffer.array();
+            this.imageBytes = new byte[PC_BYTES_PER_PIXEL * pixelCount];
+            ByteBuffer.wrap(this.imageBytes).asIntBuffer().put(pixels);
         } else {
             this.imageBytes = reader.readBytes(pixelCount * PC_BYTES_PER_PIXEL);
         }
@@ -218,6 +220,7 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
         PSXClutColor unused = new PSXClutColor();
         while (maxColors > clut.getColors().size())
             clut.getColors().add(unused);
+        clut.invalidatePalette();
     }
 
     /**
@@ -289,10 +292,6 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
         return (short) ((getVramY() % (getParent().isPsxMode() ? PSX_PAGE_HEIGHT : PC_PAGE_HEIGHT)) + ((getFullHeight() - getIngameHeight()) / 2));
     }
 
-    private void readPSXPixel(int clutIndex, ClutEntry clut, ByteBuffer buffer) {
-        buffer.putInt(clut.getColors().get(clutIndex).toRGBA());
-    }
-
     private ClutEntry getClut() {
         int clutX = ((clutId & 0x3F) << 4);
         int clutY = (clutId >> 6);
@@ -382,6 +381,22 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
      */
     public void invalidateCache() {
         this.cachedImage = null;
+        this.replaced = true;
+        TextureMap.clearSharedAtlases(); // Shared atlases may have the old image.
+    }
+
+    /**
+     * Makes the key which textures made from this image are kept in the asset cache under.
+     * The key covers the bytes of the VLO this image was loaded from, and the settings which change how the image is displayed.
+     * @return cacheKey, or null if the image can't be cached, such as when its pixels have been replaced.
+     */
+    public byte[] getCacheKey() {
+        MWDFile mwd = !this.replaced && getParent() != null ? getParent().getIndexingMWD() : null;
+        FileEntry entry = mwd != null ? mwd.getEntryMap().get(getParent()) : null;
+        if (entry == null || entry.getCacheKey() == null)
+            return null;
+
+        return AssetCache.makeKey(entry.getCacheKey(), getLocalImageID(), this.flags, this.fullWidth, this.fullHeight, this.ingameWidth, this.ingameHeight);
     }
 
     /**
@@ -392,28 +407,43 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
         if (this.cachedImage != null)
             return this.cachedImage;
 
-        int height = getFullHeight();
-        int width = getFullWidth();
-
-        byte[] cloneBytes = Arrays.copyOf(getImageBytes(), getImageBytes().length); // We don't want to make changes to the original array.
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage image = new BufferedImage(getFullWidth(), getFullHeight(), BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixels.length; i++)
+            pixels[i] = getARGB(i);
+        return this.cachedImage = image;
+    }
 
-        //ABGR -> BGRA
-        for (int temp = 0; temp < cloneBytes.length; temp += PC_BYTES_PER_PIXEL) {
-            byte alpha = cloneBytes[temp];
-            int alphaIndex = temp + PC_BYTES_PER_PIXEL - 1;
-            System.arraycopy(cloneBytes, temp + 1, cloneBytes, temp, alphaIndex - temp);
-            cloneBytes[alphaIndex] = (byte) (0xFF - alpha); // Alpha needs to be flipped.
+    /**
+     * Draws this image onto an ARGB pixel array, such as the DataBufferInt of a BufferedImage, without making a BufferedImage for this image.
+     * Pixels which do not fit in the array are skipped. Like drawing onto an opaque image, fully transparent pixels are skipped, and the rest are drawn as opaque.
+     * @param target       The pixels to draw onto.
+     * @param targetWidth  The width of the pixel array.
+     * @param targetHeight The height of the pixel array.
+     * @param x            The x position to draw this image at.
+     * @param y            The y position to draw this image at.
+     */
+    public void drawPixels(int[] target, int targetWidth, int targetHeight, int x, int y) {
+        int startX = Math.max(0, -x);
+        int endX = Math.min(getFullWidth(), targetWidth - x);
+        int startY = Math.max(0, -y);
+        int endY = Math.min(getFullHeight(), targetHeight - y);
+
+        for (int imageY = startY; imageY < endY; imageY++) {
+            int pixelIndex = (imageY * getFullWidth());
+            int targetIndex = ((y + imageY) * targetWidth) + x;
+            for (int imageX = startX; imageX < endX; imageX++) {
+                int argb = getARGB(pixelIndex + imageX);
+                if ((argb & 0xFF000000) != 0)
+                    target[targetIndex + imageX] = argb | 0xFF000000;
+            }
         }
+    }
 
-        IntBuffer buffer = ByteBuffer.wrap(cloneBytes)
-                .order(ByteOrder.LITTLE_ENDIAN)
-                .asIntBuffer();
-
-        int[] array = new int[buffer.remaining()];
-        buffer.get(array);
-        image.setRGB(0, 0, image.getWidth(), image.getHeight(), array, 0, image.getWidth());
-        return this.cachedImage = image;
+    private int getARGB(int pixelIndex) {
+        int index = pixelIndex * PC_BYTES_PER_PIXEL; // The bytes are ABGR, with alpha flipped.
+        return ((0xFF - (this.imageBytes[index] & 0xFF)) << 24) | ((this.imageBytes[index + 3] & 0xFF) << 16)
+                | ((this.imageBytes[index + 2] & 0xFF) << 8) | (this.imageBytes[index + 1] & 0xFF);
     }
 
     /**
@@ -493,6 +523,22 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
         this.ingameWidth = (width == MAX_DIMENSION ? 0 : Utils.unsignedShortToByte(width));
     }
 
+    /**
+     * Set the texture id of this image.
+     * @param textureId The new texture id.
+     */
+    public void setTextureId(short textureId) {
+        short oldTextureId = this.textureId;
+        this.textureId = textureId;
+
+        if (oldTextureId == textureId || getParent() == null || !getParent().getImages().contains(this))
+            return; // Only images in a VLO are indexed. (Cloned images keep the parent they were cloned from until they are added to a VLO.)
+
+        MWDFile mwd = getParent().getIndexingMWD();
+        if (mwd != null)
+            mwd.onTextureIdChanged(this, oldTextureId);
+    }
+
     /**
      * Test whether or not this image contains a certain coordinate in VRAM.
      * @param x The x coordinate.
@@ -528,8 +574,8 @@ public class GameImage extends GameObject implements Cloneable, TextureSource {
     }
 
     @Override
-    public BigInteger makeIdentifier(TextureMap map) {
-        return makeIdentifier(0x7E8BA5E, getTextureId());
+    public TextureKey makeIdentifier(TextureMap map) {
+        return TextureKey.pack(TextureKey.TEXTURE, getTextureId(), 0);
     }
 
     @Override
@@ -4,8 +4,10 @@ import lombok.Getter;
 import net.highwayfrogs.editor.file.vlo.ImageWorkHorse.TransparencyFilter;
 
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * Contains information about what operations should and should not be applied.
@@ -19,7 +21,14 @@ public class ImageFilterSettings {
     private boolean allowFlip;
     private boolean allowScrunch;
     private boolean scaleToMaxSize;
-    private Map<BufferedImage, BufferedImage> renderCache = new HashMap<>();
+    private final Map<BufferedImage, BufferedImage> renderCache = Collections.synchronizedMap(new LinkedHashMap<BufferedImage, BufferedImage>(16, .75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Entry<BufferedImage, BufferedImage> eldest) {
+            return size() > MAX_CACHED_RENDERS; // Shared settings can filter every image in the MWD, so only the most recently used renders are kept.
+        }
+    }); // Synchronized, since shared settings are used by exports running on several threads.
+
+    public static int MAX_CACHED_RENDERS = 512; // The number of filtered images to keep.
 
     public ImageFilterSettings(ImageState state) {
         this.state = state;
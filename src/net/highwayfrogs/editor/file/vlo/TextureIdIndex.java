@@ -0,0 +1,141 @@
+package net.highwayfrogs.editor.file.vlo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds images by their texture id without searching every VLO.
+ * Texture ids are unsigned shorts, so images are kept in an array indexed by texture id.
+ * Images with the same texture id are kept in the order they were added, so the first one is the one a search of every VLO would find.
+ * Created by agent on 10/18/2026.
+ */
+public class TextureIdIndex {
+    private List<GameImage>[] imagesById;
+
+    private static final int DEFAULT_SIZE = 4096;
+    private static final int MAX_TEXTURE_ID = 0xFFFF;
+
+    public TextureIdIndex() {
+        this.imagesById = makeArray(DEFAULT_SIZE);
+    }
+
+    /**
+     * Adds every image in a VLO to the index.
+     * @param vlo The VLO to add.
+     */
+    public void addImages(VLOArchive vlo) {
+        for (GameImage image : vlo.getImages())
+            addImage(image);
+    }
+
+    /**
+     * Removes every image in a VLO from the index.
+     * @param vlo The VLO to remove.
+     */
+    public void removeImages(VLOArchive vlo) {
+        for (GameImage image : vlo.getImages())
+            removeImage(image);
+    }
+
+    /**
+     * Replaces the images of a VLO with the images of the VLO replacing it.
+     * The new images take the place of the old VLO's images, so the VLO found first for a texture id shared with other VLOs doesn't change.
+     * @param oldVlo The VLO being replaced.
+     * @param newVlo The VLO replacing it.
+     */
+    public void replaceImages(VLOArchive oldVlo, VLOArchive newVlo) {
+        for (GameImage image : newVlo.getImages()) {
+            List<GameImage> images = getImageList(toIndex(image.getTextureId()));
+            int slot = images != null ? indexOfParent(images, oldVlo) : -1;
+            if (slot >= 0) {
+                images.add(slot, image);
+            } else {
+                addImage(image);
+            }
+        }
+
+        removeImages(oldVlo);
+    }
+
+    /**
+     * Adds an image to the index.
+     * @param image The image to add.
+     */
+    public void addImage(GameImage image) {
+        int textureId = toIndex(image.getTextureId());
+        if (textureId >= this.imagesById.length) {
+            List<GameImage>[] newArray = makeArray(Math.min(MAX_TEXTURE_ID + 1, Math.max(textureId + 1, this.imagesById.length * 2)));
+            System.arraycopy(this.imagesById, 0, newArray, 0, this.imagesById.length);
+            this.imagesById = newArray;
+        }
+
+        List<GameImage> images = this.imagesById[textureId];
+        if (images == null)
+            this.imagesById[textureId] = images = new ArrayList<>(1);
+        images.add(image);
+    }
+
+    /**
+     * Removes an image from the index.
+     * @param image The image to remove.
+     */
+    public void removeImage(GameImage image) {
+        removeImage(image, image.getTextureId());
+    }
+
+    /**
+     * Removes an image from the index, which was added under a texture id it no longer has.
+     * @param image     The image to remove.
+     * @param textureId The texture id the image was added with.
+     */
+    public void removeImage(GameImage image, short textureId) {
+        int index = toIndex(textureId);
+        List<GameImage> images = index < this.imagesById.length ? this.imagesById[index] : null;
+        if (images == null)
+            return;
+
+        images.remove(image);
+        if (images.isEmpty())
+            this.imagesById[index] = null;
+    }
+
+    /**
+     * Gets the first image with a texture id.
+     * @param textureId The texture id to find.
+     * @return image, or null if there isn't one.
+     */
+    public GameImage getImage(int textureId) {
+        List<GameImage> images = getImageList(textureId);
+        return images != null ? images.get(0) : null;
+    }
+
+    /**
+     * Gets every image with a texture id.
+     * @param textureId The texture id to find.
+     * @return images
+     */
+    public List<GameImage> getImages(int textureId) {
+        List<GameImage> images = getImageList(textureId);
+        return images != null ? new ArrayList<>(images) : new ArrayList<>();
+    }
+
+    private List<GameImage> getImageList(int textureId) {
+        return (textureId >= 0 && textureId < this.imagesById.length) ? this.imagesById[textureId] : null;
+    }
+
+    private static int indexOfParent(List<GameImage> images, VLOArchive parent) {
+        for (int i = 0; i < images.size(); i++)
+            if (images.get(i).getParent() == parent)
+                return i;
+        return -1;
+    }
+
+    private static int toIndex(short textureId) {
+        return textureId & MAX_TEXTURE_ID;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<GameImage>[] makeArray(int size) {
+        return (List<GameImage>[]) new List<?>[size];
+    }
+}
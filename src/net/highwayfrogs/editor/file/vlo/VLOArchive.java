@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.SneakyThrows;
 import net.highwayfrogs.editor.Constants;
 import net.highwayfrogs.editor.file.GameFile;
+import net.highwayfrogs.editor.file.MWDFile;
 import net.highwayfrogs.editor.file.MWIFile.FileEntry;
 import net.highwayfrogs.editor.file.WADFile;
 import net.highwayfrogs.editor.file.WADFile.WADEntry;
@@ -23,6 +24,7 @@ import net.highwayfrogs.editor.utils.Utils;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -170,6 +172,40 @@ public class VLOArchive extends GameFile {
         return list;
     }
 
+    /**
+     * Adds an image to this VLO.
+     * @param image The image to add.
+     */
+    public void addImage(GameImage image) {
+        image.setParent(this);
+        this.images.add(image);
+
+        MWDFile mwd = getIndexingMWD();
+        if (mwd != null)
+            mwd.onImageAdded(image);
+    }
+
+    /**
+     * Removes an image from this VLO.
+     * @param image The image to remove.
+     */
+    public void removeImage(GameImage image) {
+        if (!this.images.remove(image))
+            return;
+
+        MWDFile mwd = getIndexingMWD();
+        if (mwd != null)
+            mwd.onImageRemoved(image);
+    }
+
+    /**
+     * Gets the MWD which indexes the images in this VLO by texture id.
+     * @return mwd, or null if this VLO is not part of the loaded MWD.
+     */
+    protected MWDFile getIndexingMWD() {
+        return getConfig() != null && getMWD().getEntryMap().containsKey(this) ? getMWD() : null;
+    }
+
     /**
      * Get an image that holds a specific vram coordinate.
      */
@@ -255,7 +291,7 @@ public class VLOArchive extends GameFile {
     public BufferedImage makeVRAMImage(BufferedImage vramImage) {
         int calcWidth = getVramWidth();
         int calcHeight = getVramHeight();
-        if (vramImage == null || (calcWidth != vramImage.getWidth() || calcHeight != vramImage.getHeight()))
+        if (vramImage == null || (calcWidth != vramImage.getWidth() || calcHeight != vramImage.getHeight()) || vramImage.getType() != BufferedImage.TYPE_INT_ARGB)
             vramImage = new BufferedImage(calcWidth, calcHeight, BufferedImage.TYPE_INT_ARGB);
 
         // Draw on image.
@@ -278,11 +314,13 @@ public class VLOArchive extends GameFile {
                 graphics.drawImage(clutEntry.makeImage(), null, clutEntry.getClutRect().getX() * psxMultiple, clutEntry.getClutRect().getY());
         }
 
-        // Draw images.
+        graphics.dispose(); // Cleanup.
+
+        // Draw images straight onto the pixels, instead of making a BufferedImage for each image.
+        int[] pixels = ((DataBufferInt) vramImage.getRaster().getDataBuffer()).getData();
         for (GameImage image : getImages())
-            graphics.drawImage(image.toBufferedImage(VRAM_EXPORT_NO_SCRUNCH), null, image.getVramX() * (isPsxMode() ? (psxMultiple / image.getWidthMultiplier()) : 1), image.getVramY());
+            image.drawPixels(pixels, calcWidth, calcHeight, image.getVramX() * (isPsxMode() ? (psxMultiple / image.getWidthMultiplier()) : 1), image.getVramY());
 
-        graphics.dispose(); // Cleanup.
         return vramImage;
     }
 }
@@ -1,47 +1,77 @@
 package net.highwayfrogs.editor.file.writer;
 
 import lombok.Getter;
-import net.highwayfrogs.editor.Constants;
-import net.highwayfrogs.editor.utils.Utils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * An in-memory data receiver.
+ * Data is written to a byte array which doubles in size whenever it runs out of space.
  * Created by Kneesnap on 8/13/2018.
  */
 @Getter
 public class ArrayReceiver implements DataReceiver {
-    private List<Byte> bytes;
+    private byte[] array; // Only the first 'size' bytes are written data.
+    private int size;
     private int index;
 
+    private static final int DEFAULT_CAPACITY = 256;
+
     public ArrayReceiver() {
-        this.bytes = new ArrayList<>();
+        this(DEFAULT_CAPACITY);
     }
 
     public ArrayReceiver(int startingSize) {
-        this.bytes = new ArrayList<>(startingSize);
+        this.array = new byte[Math.max(1, startingSize)];
     }
 
     @Override
-    public void writeByte(byte value)  {
-        while (this.index > bytes.size()) // Add data up to the index.
-            bytes.add(Constants.NULL_BYTE);
+    public void writeByte(byte value) {
+        ensureCapacity(this.index + 1);
+        this.array[this.index++] = value; // Any bytes skipped over by setIndex are already null.
+        if (this.index > this.size)
+            this.size = this.index;
+    }
 
-        if (bytes.size() > this.index) { // Writing over existing bytes.
-            bytes.set(this.index, value);
-        } else { // Index matches exactly. Append at end.
-            bytes.add(value);
-        }
+    @Override
+    public void writeShort(short value) {
+        ensureCapacity(this.index + 2);
+        this.array[this.index] = (byte) value;
+        this.array[this.index + 1] = (byte) (value >> 8);
+        this.index += 2;
+        if (this.index > this.size)
+            this.size = this.index;
+    }
 
-        this.index++; // Increment index.
+    @Override
+    public void writeInt(int value) {
+        ensureCapacity(this.index + 4);
+        this.array[this.index] = (byte) value;
+        this.array[this.index + 1] = (byte) (value >> 8);
+        this.array[this.index + 2] = (byte) (value >> 16);
+        this.array[this.index + 3] = (byte) (value >> 24);
+        this.index += 4;
+        if (this.index > this.size)
+            this.size = this.index;
     }
 
     @Override
     public void writeBytes(byte[] values) {
-        for (byte value : values)
-            writeByte(value);
+        writeBytes(values, 0, values.length);
+    }
+
+    /**
+     * Write part of an array of bytes to this receiver.
+     * @param values The array to write bytes from.
+     * @param offset The index of the first byte to write.
+     * @param length The amount of bytes to write.
+     */
+    public void writeBytes(byte[] values, int offset, int length) {
+        ensureCapacity(this.index + length);
+        System.arraycopy(values, offset, this.array, this.index, length);
+        this.index += length;
+        if (this.index > this.size)
+            this.size = this.index;
     }
 
     @Override
@@ -49,11 +79,17 @@ public class ArrayReceiver implements DataReceiver {
         this.index = newIndex;
     }
 
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.array.length)
+            this.array = Arrays.copyOf(this.array, Math.max(capacity, this.array.length * 2));
+    }
+
     /**
-     * Get the array of bytes.
+     * Get a copy of the written bytes.
+     * To read the bytes without copying them, use getArray() and getSize() instead.
      * @return array
      */
     public byte[] toArray() {
-        return Utils.toArray(bytes);
+        return Arrays.copyOf(this.array, this.size);
     }
 }
@@ -4,21 +4,22 @@ import lombok.Getter;
 import lombok.Setter;
 import net.highwayfrogs.editor.Constants;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Write bits into a buffer.
  * Default Behavior:
  * - First byte will end up at byte 0, instead of at the end.
  * - First bit will end up as the right-most byte, while the eight will be the left-most. Ie: writeBit(0); writeBit(1); -> 00000010
+ * Bits are collected in a register, and only moved to the byte array once a full byte is available.
  * Created by Kneesnap on 10/5/2018.
  */
 @Getter
 public class BitWriter {
-    private List<Byte> bytes = new ArrayList<>();
-    private int currentBit = Constants.BITS_PER_BYTE;
-    private byte currentByte;
+    private byte[] bytes = new byte[64];
+    private int byteCount; // The number of complete bytes in the array.
+    private long bitRegister; // Bits which have not been moved to the byte array yet.
+    private int registerBits; // The number of bits in the register. Always less than a byte between calls.
     @Setter private boolean reverseBytes;
     @Setter private boolean reverseBits;
 
@@ -28,7 +29,7 @@ public class BitWriter {
      * @return byteCount
      */
     public int getByteCount() {
-        return this.bytes.size() + (this.currentBit != Constants.BITS_PER_BYTE ? 1 : 0);
+        return this.byteCount + (this.registerBits > 0 ? 1 : 0);
     }
 
     /**
@@ -39,20 +40,7 @@ public class BitWriter {
         if (bit != Constants.BIT_TRUE && bit != Constants.BIT_FALSE) // Since this is a high call function, we avoid Utils.verify.
             throw new RuntimeException("Invalid bit number " + bit + ".");
 
-        // Add the bit to the current byte.
-        if (bit == Constants.BIT_TRUE)
-            this.currentByte |= (bit << getCurrentBitID());
-
-        // If the current byte is complete, add it to the list of bytes.
-        if (--this.currentBit == 0) {
-            this.bytes.add(this.currentByte);
-            this.currentByte = 0;
-            this.currentBit = Constants.BITS_PER_BYTE;
-        }
-    }
-
-    private int getCurrentBitID() {
-        return isReverseBits() ? this.currentBit - 1 : Constants.BITS_PER_BYTE - this.currentBit;
+        writeOrderedBits(bit, 1);
     }
 
     /**
@@ -60,8 +48,8 @@ public class BitWriter {
      * @param count The number of bits to write.
      */
     public void writeFalseBits(int count) {
-        for (int i = 0; i < count; i++)
-            writeBit(0);
+        for (; count > 0; count -= Integer.SIZE)
+            writeOrderedBits(0, Math.min(Integer.SIZE, count));
     }
 
     /**
@@ -70,13 +58,11 @@ public class BitWriter {
      * @param bitCount the number of bits.
      */
     public void writeBits(int number, int bitCount) {
-        if (this.reverseBits) {
-            for (int i = 0; i < bitCount; i++)
-                writeBit(((number & (Constants.BIT_TRUE << i)) != 0) ? Constants.BIT_TRUE : Constants.BIT_FALSE);
-        } else {
-            for (int i = bitCount - 1; i >= 0; i--)
-                writeBit((number >> i) & Constants.BIT_TRUE);
-        }
+        if (bitCount <= 0)
+            return;
+
+        // Both modes write the bits in the opposite order from how the register stores them, so the bits are reversed here.
+        writeOrderedBits(Integer.reverse(number) >>> (Integer.SIZE - bitCount), bitCount);
     }
 
     /**
@@ -84,15 +70,42 @@ public class BitWriter {
      * @param value The byte to write bits from.
      */
     public void writeByte(byte value) {
+        writeBits(value & 0xFF, Constants.BITS_PER_BYTE);
+    }
+
+    /**
+     * Adds bits to the register, then moves any complete bytes to the byte array.
+     * In reverse bit mode, the first bit of a byte is the left-most bit, so bits are shifted in from the right, and bits is in writing order from left to right.
+     * Otherwise, the first bit of a byte is the right-most bit, so bits are placed to the left of the bits already written, and bits is in writing order from right to left.
+     * @param bits     The bits to write.
+     * @param bitCount The number of bits to write.
+     */
+    private void writeOrderedBits(int bits, int bitCount) {
+        long newBits = bits & (0xFFFFFFFFL >>> (Integer.SIZE - bitCount));
         if (this.reverseBits) {
-            for (int i = 0; i < Constants.BITS_PER_BYTE; i++)
-                writeBit(((value & (Constants.BIT_TRUE << i)) != 0) ? Constants.BIT_TRUE : Constants.BIT_FALSE);
+            this.bitRegister = (this.bitRegister << bitCount) | newBits;
         } else {
-            for (int i = Constants.BITS_PER_BYTE - 1; i >= 0; i--)
-                writeBit((value >> i) & Constants.BIT_TRUE);
+            this.bitRegister |= newBits << this.registerBits;
+        }
+
+        this.registerBits += bitCount;
+        while (this.registerBits >= Constants.BITS_PER_BYTE) {
+            this.registerBits -= Constants.BITS_PER_BYTE;
+            if (this.reverseBits) {
+                addByte((byte) (this.bitRegister >>> this.registerBits));
+            } else {
+                addByte((byte) this.bitRegister);
+                this.bitRegister >>>= Constants.BITS_PER_BYTE;
+            }
         }
     }
 
+    private void addByte(byte value) {
+        if (this.byteCount == this.bytes.length)
+            this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+        this.bytes[this.byteCount++] = value;
+    }
+
     /**
      * Export all written data as a byte array.
      * WARNING: This operation will add bits if there is an incomplete byte, meaning it will change the state of this writer.
@@ -111,10 +124,14 @@ public class BitWriter {
         finishCurrentByte();
 
         // Write in backwards order, because PP20 does that.
-        byte[] arr = new byte[extraBytesBefore + this.bytes.size() + extraBytesAfter];
-        int i = isReverseBytes() ? arr.length - 1 - extraBytesAfter : extraBytesBefore;
-        for (Byte aByte : this.bytes)
-            arr[isReverseBytes() ? i-- : i++] = aByte;
+        byte[] arr = new byte[extraBytesBefore + this.byteCount + extraBytesAfter];
+        if (isReverseBytes()) {
+            int i = arr.length - 1 - extraBytesAfter;
+            for (int j = 0; j < this.byteCount; j++)
+                arr[i--] = this.bytes[j];
+        } else {
+            System.arraycopy(this.bytes, 0, arr, extraBytesBefore, this.byteCount);
+        }
 
         return arr;
     }
@@ -123,12 +140,11 @@ public class BitWriter {
      * Finish the current byte being written.
      */
     public int finishCurrentByte() {
-        int writtenBits = 0;
-        while (this.currentBit != Constants.BITS_PER_BYTE) {
-            writeBit(0); // Finish the current byte.
-            writtenBits++;
-        }
+        if (this.registerBits == 0)
+            return 0;
 
+        int writtenBits = Constants.BITS_PER_BYTE - this.registerBits;
+        writeOrderedBits(0, writtenBits);
         return writtenBits;
     }
 }
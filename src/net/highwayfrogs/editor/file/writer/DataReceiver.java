@@ -20,6 +20,36 @@ public interface DataReceiver {
      */
     public void writeBytes(byte[] values) throws IOException;
 
+    /**
+     * Write a short to this receiver, in little-endian order.
+     * Receivers which can write the bytes directly should override this, so writing a short doesn't go through writeByte() twice.
+     * @param value The value to write.
+     */
+    public default void writeShort(short value) throws IOException {
+        writeByte((byte) value);
+        writeByte((byte) (value >> 8));
+    }
+
+    /**
+     * Write an integer to this receiver, in little-endian order.
+     * Receivers which can write the bytes directly should override this, so writing an integer doesn't go through writeByte() four times.
+     * @param value The value to write.
+     */
+    public default void writeInt(int value) throws IOException {
+        writeByte((byte) value);
+        writeByte((byte) (value >> 8));
+        writeByte((byte) (value >> 16));
+        writeByte((byte) (value >> 24));
+    }
+
+    /**
+     * Write a float to this receiver, in little-endian order.
+     * @param value The value to write.
+     */
+    public default void writeFloat(float value) throws IOException {
+        writeInt(Float.floatToRawIntBits(value));
+    }
+
     /**
      * Set the current write index.
      * @param newIndex The new index to write data at.
@@ -6,7 +6,6 @@ import net.highwayfrogs.editor.Constants;
 import net.highwayfrogs.editor.utils.Utils;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Stack;
@@ -21,9 +20,6 @@ public class DataWriter {
     private DataReceiver output;
     private Stack<Integer> jumpStack = new Stack<>();
 
-    private static final ByteBuffer INT_BUFFER = ByteBuffer.allocate(Constants.INTEGER_SIZE);
-    private static final ByteBuffer SHORT_BUFFER = ByteBuffer.allocate(Constants.SHORT_SIZE);
-
     public DataWriter(DataReceiver output) {
         this.output = output;
     }
@@ -171,8 +167,7 @@ public class DataWriter {
      * @param value The integer to write.
      */
     public void writeFloat(float value) {
-        INT_BUFFER.clear();
-        writeBytes(INT_BUFFER.order(getEndian()).putFloat(value).array());
+        writeInt(Float.floatToRawIntBits(value));
     }
 
     /**
@@ -180,8 +175,11 @@ public class DataWriter {
      * @param value The integer to write.
      */
     public void writeInt(int value) {
-        INT_BUFFER.clear();
-        writeBytes(INT_BUFFER.order(getEndian()).putInt(value).array());
+        try {
+            output.writeInt(this.endian == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value));
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to write an integer to the receiver.", ex);
+        }
     }
 
     /**
@@ -199,8 +197,11 @@ public class DataWriter {
      * @param value The short to write.
      */
     public void writeShort(short value) {
-        SHORT_BUFFER.clear();
-        writeBytes(SHORT_BUFFER.order(getEndian()).putShort(value).array());
+        try {
+            output.writeShort(this.endian == ByteOrder.LITTLE_ENDIAN ? value : Short.reverseBytes(value));
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to write a short to the receiver.", ex);
+        }
     }
 
     /**
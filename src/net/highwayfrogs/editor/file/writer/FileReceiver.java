@@ -7,6 +7,7 @@ import net.highwayfrogs.editor.utils.Utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 
 /**
@@ -37,6 +38,16 @@ public class FileReceiver implements DataReceiver {
         this.arrayReceiver.writeBytes(values);
     }
 
+    @Override
+    public void writeShort(short value) {
+        this.arrayReceiver.writeShort(value);
+    }
+
+    @Override
+    public void writeInt(int value) {
+        this.arrayReceiver.writeInt(value);
+    }
+
     @Override
     public void setIndex(int newIndex) throws IOException {
         this.arrayReceiver.setIndex(newIndex);
@@ -57,8 +68,8 @@ public class FileReceiver implements DataReceiver {
         }
 
         Utils.deleteFile(this.targetFile);
-        try {
-            Files.write(this.targetFile.toPath(), this.arrayReceiver.toArray());
+        try (OutputStream outputStream = Files.newOutputStream(this.targetFile.toPath())) {
+            outputStream.write(this.arrayReceiver.getArray(), 0, this.arrayReceiver.getSize());
         } catch (IOException e) {
             Utils.makeErrorPopUp("FileReceiver failed to write data to the file: '" + this.targetFile.getName() + "'.", e, true);
         }
@@ -22,8 +22,22 @@ public class FixedArrayReceiver implements DataReceiver {
 
     @Override
     public void writeBytes(byte[] values) {
-        for (byte value : values)
-            writeByte(value);
+        System.arraycopy(values, 0, this.array, this.index, values.length);
+        this.index += values.length;
+    }
+
+    @Override
+    public void writeShort(short value) {
+        this.array[this.index++] = (byte) value;
+        this.array[this.index++] = (byte) (value >> 8);
+    }
+
+    @Override
+    public void writeInt(int value) {
+        this.array[this.index++] = (byte) value;
+        this.array[this.index++] = (byte) (value >> 8);
+        this.array[this.index++] = (byte) (value >> 16);
+        this.array[this.index++] = (byte) (value >> 24);
     }
 
     @Override
@@ -1,10 +1,11 @@
 package net.highwayfrogs.editor.games.tgq;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import net.highwayfrogs.editor.file.GameObject;
 import net.highwayfrogs.editor.file.reader.ArraySource;
 import net.highwayfrogs.editor.file.reader.DataReader;
-import net.highwayfrogs.editor.file.reader.FileSource;
+import net.highwayfrogs.editor.file.reader.MappedFileSource;
 import net.highwayfrogs.editor.file.writer.ArrayReceiver;
 import net.highwayfrogs.editor.file.writer.DataWriter;
 import net.highwayfrogs.editor.file.writer.FileReceiver;
@@ -14,6 +15,7 @@ import net.highwayfrogs.editor.utils.Utils;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Parses Frogger TGQ's main game data file.
@@ -30,6 +32,7 @@ public class TGQBinFile extends GameObject {
     private Map<Integer, TGQFile> nameMap = new HashMap<>();
 
     private static final int NAME_SIZE = 0x108;
+    private static final int SIGNATURE_SIZE = 4;
 
     @Override
     public void load(DataReader reader) {
@@ -45,35 +48,56 @@ public class TGQBinFile extends GameObject {
             this.globalPaths.add(reader.readTerminatedStringOfLength(NAME_SIZE));
         reader.jumpReturn();
 
-        // Read unnamed files.
+        // Read the file table first, so the files can be read in any order.
+        List<FileEntry> entries = new ArrayList<>(unnamedFiles + namedFiles);
         for (int i = 0; i < unnamedFiles; i++)
-            readFile(reader, null, reader.readInt());
-
-        // Read named files.
+            entries.add(readFileEntry(reader, null, reader.readInt()));
         for (int i = 0; i < namedFiles; i++)
-            readFile(reader, reader.readTerminatedStringOfLength(NAME_SIZE), 0);
+            entries.add(readFileEntry(reader, reader.readTerminatedStringOfLength(NAME_SIZE), 0));
+
+        // Decompress and read the files, using every core. Only one file per core is being decompressed at once, so memory use stays low.
+        TGQFile[] readFiles = new TGQFile[entries.size()];
+        IntStream.range(0, readFiles.length).parallel().forEach(i -> readFiles[i] = readFile(entries.get(i), i));
+        for (TGQFile readFile : readFiles) {
+            this.files.add(readFile);
+            if (readFile.getNameHash() != 0)
+                this.nameMap.put(readFile.getNameHash(), readFile);
+        }
+
+        // Find the chunks which have file names. Only these chunks are loaded now, the rest are loaded when they're first used.
+        List<TGQChunkedFile> chunkedFiles = new ArrayList<>();
+        for (TGQFile file : getFiles())
+            if (file instanceof TGQChunkedFile)
+                chunkedFiles.add((TGQChunkedFile) file);
+
+        chunkedFiles.parallelStream().forEach(file -> {
+            file.getChunks(TGQChunkTextureReference.class);
+            file.getChunks(TGQChunk3DModel.class);
+        });
 
+        // Apply the file names, once every file has been read.
         //TODO: Clean this up, maybe move it somewhere else.
-        for (TGQFile file : getFiles()) {
-            if (!(file instanceof TGQChunkedFile))
-                continue;
+        for (TGQChunkedFile chunkedFile : chunkedFiles) {
+            for (TGQChunkTextureReference chunk : chunkedFile.getChunks(TGQChunkTextureReference.class))
+                applyFileName(chunk.getPath());
 
-            TGQChunkedFile chunkedFile = (TGQChunkedFile) file;
-            for (kcCResource chunk : chunkedFile.getChunks()) {
-                if (chunk instanceof TGQChunkTextureReference)
-                    applyFileName(((TGQChunkTextureReference) chunk).getPath());
-                if (chunk instanceof TGQChunk3DModel && ((TGQChunk3DModel) chunk).getFullReferenceName() != null) {
-                    applyFileName(((TGQChunk3DModel) chunk).getFullReferenceName());
-
-                    TGQFile tgqFile = getFileByName(((TGQChunk3DModel) chunk).getFullReferenceName());
-                    if (tgqFile instanceof TGQChunkedFile)
-                        ((TGQChunk3DModel) ((TGQChunkedFile) tgqFile).getChunks().get(0)).setEnvironmentFile(chunkedFile);
+            for (TGQChunk3DModel chunk : chunkedFile.getChunks(TGQChunk3DModel.class)) {
+                if (chunk.getFullReferenceName() == null)
+                    continue;
+
+                applyFileName(chunk.getFullReferenceName());
+
+                TGQFile tgqFile = getFileByName(chunk.getFullReferenceName());
+                if (tgqFile instanceof TGQChunkedFile) {
+                    List<TGQChunk3DModel> models = ((TGQChunkedFile) tgqFile).getChunks(TGQChunk3DModel.class);
+                    if (models.size() > 0 && models.get(0).isRootChunk())
+                        models.get(0).setEnvironmentFile(chunkedFile);
                 }
             }
         }
     }
 
-    private TGQFile readFile(DataReader reader, String name, int crc) {
+    private static FileEntry readFileEntry(DataReader reader, String name, int crc) {
         int size = reader.readInt();
         int zSize = reader.readInt();
         int offset = reader.readInt();
@@ -83,34 +107,40 @@ public class TGQBinFile extends GameObject {
 
         boolean isCompressed = (zSize != 0); // ZLib compression.
 
-        reader.jumpTemp(offset);
-        byte[] fileBytes = isCompressed ? TGQUtils.zlibDecompress(reader.readBytes(zSize), size) : reader.readBytes(size);
-        reader.jumpReturn();
+        // Each file gets its own reader, so files can be read at the same time. Uncompressed files are read straight from the archive, without copying them.
+        DataReader fileReader = reader.newReader(offset, isCompressed ? zSize : size);
+        return new FileEntry(name, crc, size, isCompressed, fileReader);
+    }
+
+    private TGQFile readFile(FileEntry entry, int fileIndex) {
+        DataReader fileReader = entry.getReader();
+        if (entry.isCompressed())
+            fileReader = new DataReader(new ArraySource(TGQUtils.zlibDecompress(fileReader.readBytes(fileReader.getSize()), entry.getSize())));
+
+        int size = entry.getSize();
+        byte[] signature = fileReader.readBytes(Math.min(SIGNATURE_SIZE, size));
+        fileReader.setIndex(0);
 
         TGQFile readFile;
-        if (Utils.testSignature(fileBytes, TGQImageFile.SIGNATURE)) {
+        if (Utils.testSignature(signature, TGQImageFile.SIGNATURE)) {
             readFile = new TGQImageFile(this, true);
-        } else if (Utils.testSignature(fileBytes, "6YTV") || Utils.testSignature(fileBytes, "TOC\0")) { //TODO: Fix up.
+        } else if (Utils.testSignature(signature, "6YTV") || Utils.testSignature(signature, "TOC\0")) { //TODO: Fix up.
             readFile = new TGQChunkedFile(this);
-        } else if (this.files.size() > 100 && fileBytes.length > 30) {
+        } else if (fileIndex > 100 && size > 30) {
             readFile = new TGQImageFile(this, false);
         } else {
-            readFile = new TGQDummyFile(this, fileBytes.length);
+            readFile = new TGQDummyFile(this, size);
         }
 
         // Read file.
-        readFile.init(name, isCompressed, crc);
+        readFile.init(entry.getName(), entry.isCompressed(), entry.getCrc());
 
         try {
-            DataReader fileReader = new DataReader(new ArraySource(fileBytes));
             readFile.load(fileReader);
         } catch (Exception ex) {
-            throw new RuntimeException("There was a problem reading " + readFile.getClass().getSimpleName() + " [File " + this.files.size() + "]", ex);
+            throw new RuntimeException("There was a problem reading " + readFile.getClass().getSimpleName() + " [File " + fileIndex + "]", ex);
         }
 
-        this.files.add(readFile);
-        if (readFile.getNameHash() != 0)
-            this.nameMap.put(readFile.getNameHash(), readFile);
         return readFile;
     }
 
@@ -204,7 +234,7 @@ public class TGQBinFile extends GameObject {
 
         // Load main bin.
         System.out.println("Loading file...");
-        DataReader reader = new DataReader(new FileSource(binFile));
+        DataReader reader = new DataReader(new MappedFileSource(binFile));
         TGQBinFile mainFile = new TGQBinFile();
         mainFile.load(reader);
 
@@ -336,4 +366,14 @@ public class TGQBinFile extends GameObject {
             writer.closeReceiver();
         }
     }
+
+    @Getter
+    @AllArgsConstructor
+    private static class FileEntry {
+        private final String name;
+        private final int crc;
+        private final int size;
+        private final boolean compressed;
+        private final DataReader reader;
+    }
 }
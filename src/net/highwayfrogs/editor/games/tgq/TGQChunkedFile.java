@@ -4,7 +4,6 @@ import lombok.Cleanup;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import net.highwayfrogs.editor.Constants;
-import net.highwayfrogs.editor.file.reader.ArraySource;
 import net.highwayfrogs.editor.file.reader.DataReader;
 import net.highwayfrogs.editor.file.writer.ArrayReceiver;
 import net.highwayfrogs.editor.file.writer.DataWriter;
@@ -29,6 +28,7 @@ import java.util.Map;
 @Getter
 public class TGQChunkedFile extends TGQFile {
     private List<kcCResource> chunks = new ArrayList<>();
+    private transient List<DataReader> unloadedChunks; // The data of each chunk, or null once the chunk has been loaded.
 
     public TGQChunkedFile(TGQBinFile mainArchive) {
         super(mainArchive);
@@ -36,21 +36,81 @@ public class TGQChunkedFile extends TGQFile {
 
     @Override
     public void load(DataReader reader) {
+        // Chunks are only loaded once they're used, so this just finds where each chunk is.
+        List<DataReader> chunkReaders = new ArrayList<>();
         while (reader.hasMore()) {
             String magic = reader.readString(4);
             int length = reader.readInt() + 0x20; // 0x20 and not 0x24 because we're reading from the start of the data, not the length.
-            byte[] readBytes = reader.readBytes(Math.min(reader.getRemaining(), length)); //TODO: Handle bad length.
+            int readLength = Math.min(reader.getRemaining(), length); //TODO: Handle bad length.
+            chunkReaders.add(reader.newReader(reader.getIndex(), readLength));
+            reader.skipBytes(readLength);
 
-            // Read chunk.
+            // Create chunk.
             KCResourceID readType = KCResourceID.getByMagic(magic);
 
             kcCResource newChunk = readType != null && readType.getMaker() != null ?
                     readType.getMaker().apply(this) : new TGQDummyFileChunk(this, magic);
-            newChunk.load(new DataReader(new ArraySource(readBytes)));
             this.chunks.add(newChunk);
 
             //TODO: Warning if it doesn't read the entire file.
         }
+
+        this.unloadedChunks = chunkReaders;
+    }
+
+    /**
+     * Gets every chunk in this file, loading any which haven't been loaded yet.
+     * @return chunks
+     */
+    public synchronized List<kcCResource> getChunks() {
+        if (this.unloadedChunks != null) {
+            for (int i = 0; i < this.chunks.size(); i++)
+                loadChunk(i);
+            this.unloadedChunks = null; // Lets go of the file data.
+        }
+
+        return this.chunks;
+    }
+
+    /**
+     * Gets the chunks in this file of a certain type, only loading those chunks.
+     * @param chunkClass The type of chunk to get.
+     * @return chunks
+     */
+    public synchronized <T extends kcCResource> List<T> getChunks(Class<T> chunkClass) {
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < this.chunks.size(); i++) {
+            kcCResource chunk = this.chunks.get(i);
+            if (chunkClass.isInstance(chunk)) {
+                loadChunk(i);
+                results.add(chunkClass.cast(chunk));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Test if a chunk is the root chunk of this file. This does not load any chunks.
+     * @param chunk The chunk to test.
+     * @return isRootChunk
+     */
+    public synchronized boolean isRootChunk(kcCResource chunk) {
+        return this.chunks.isEmpty() || this.chunks.get(0) == chunk;
+    }
+
+    private void loadChunk(int index) {
+        DataReader chunkReader = this.unloadedChunks != null ? this.unloadedChunks.get(index) : null;
+        if (chunkReader == null)
+            return; // Already loaded.
+
+        this.unloadedChunks.set(index, null); // Chunks may look at the other chunks while loading, so this is marked first.
+        kcCResource chunk = this.chunks.get(index);
+        try {
+            chunk.load(chunkReader);
+        } catch (Exception ex) {
+            throw new RuntimeException("There was a problem reading " + chunk.getClass().getSimpleName() + " [Chunk " + index + "] in " + getExportName() + ".", ex);
+        }
     }
 
     @Override
@@ -91,7 +151,7 @@ public class TGQChunkedFile extends TGQFile {
 
         // Export Chunks.
         Map<String, Integer> countMap = new HashMap<>();
-        for (kcCResource chunk : this.chunks) {
+        for (kcCResource chunk : getChunks()) {
             ArrayReceiver receiver = new ArrayReceiver();
             DataWriter dataWriter = new DataWriter(receiver);
             chunk.save(dataWriter);
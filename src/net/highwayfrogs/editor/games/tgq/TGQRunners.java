@@ -1,7 +1,7 @@
 package net.highwayfrogs.editor.games.tgq;
 
 import net.highwayfrogs.editor.file.reader.DataReader;
-import net.highwayfrogs.editor.file.reader.FileSource;
+import net.highwayfrogs.editor.file.reader.MappedFileSource;
 import net.highwayfrogs.editor.file.writer.DataWriter;
 import net.highwayfrogs.editor.file.writer.FileReceiver;
 
@@ -22,7 +22,7 @@ public class TGQRunners {
 
         // Load main bin.
         System.out.println("Loading file...");
-        DataReader reader = new DataReader(new FileSource(binFile));
+        DataReader reader = new DataReader(new MappedFileSource(binFile));
         TGQBinFile mainFile = new TGQBinFile();
         mainFile.load(reader);
         System.out.println("Loaded.");
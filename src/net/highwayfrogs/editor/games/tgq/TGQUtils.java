@@ -11,6 +11,7 @@ import java.util.zip.Inflater;
  * Created by Kneesnap on 8/17/2019.
  */
 public class TGQUtils {
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new); // Creating an inflater allocates native memory, so each thread reuses one.
 
     /**
      * Compress data with zlib compression.
@@ -34,16 +35,20 @@ public class TGQUtils {
 
     /**
      * Decompress zlib data.
+     * This is safe to call from several threads at once.
      * @param data The zlib data to decompress.
      * @return decompressedData
      */
     @SneakyThrows
     public static byte[] zlibDecompress(byte[] data, int resultSize) {
         byte[] result = new byte[resultSize];
-        Inflater inflater = new Inflater();
-        inflater.setInput(data);
-        inflater.inflate(result);
-        inflater.end();
+        Inflater inflater = INFLATERS.get();
+        try {
+            inflater.setInput(data);
+            inflater.inflate(result);
+        } finally {
+            inflater.reset(); // Ready it for the next use, and let go of the input.
+        }
         return result;
     }
 
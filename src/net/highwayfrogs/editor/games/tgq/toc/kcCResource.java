@@ -39,7 +39,7 @@ public abstract class kcCResource extends GameObject {
      * @return isRootChunk
      */
     public boolean isRootChunk() {
-        return getParentFile() == null || getParentFile().getChunks().size() == 0 || getParentFile().getChunks().get(0) == this;
+        return getParentFile() == null || getParentFile().isRootChunk(this);
     }
 
     /**
@@ -17,6 +17,7 @@ import net.highwayfrogs.editor.file.config.Config;
 import net.highwayfrogs.editor.file.config.FroggerEXEInfo;
 import net.highwayfrogs.editor.file.reader.DataReader;
 import net.highwayfrogs.editor.file.reader.FileSource;
+import net.highwayfrogs.editor.system.AssetCache;
 import net.highwayfrogs.editor.utils.DataSizeUnit;
 import net.highwayfrogs.editor.utils.FroggerVersionComparison;
 import net.highwayfrogs.editor.utils.Utils;
@@ -33,6 +34,7 @@ public class GUIMain extends Application {
     public static Stage MAIN_STAGE;
     @Getter private static File workingDirectory = new File("./");
     public static FroggerEXEInfo EXE_CONFIG;
+    public static boolean HEADLESS = false; // Set when running without the GUI, so popups are printed instead of shown.
     public static final Image NORMAL_ICON = GameFile.loadIcon("icon");
 
     public static void main(String[] args) {
@@ -52,6 +54,14 @@ public class GUIMain extends Application {
                     + "FrogLord has only been given " + DataSizeUnit.formatSize(availableMemory) + " Memory.\n"
                     + "Proceed at your own risk. Things may not work properly.", AlertType.WARNING);
 
+        String loadMode = getParameters().getNamed().get("load"); // Run with --load=lazy to only load files from the MWD once they are used.
+        if (loadMode != null)
+            MWDFile.setLoadMode(loadMode);
+
+        String cacheFolder = getParameters().getNamed().get("cache"); // Run with --cache=<folder> to keep unpacked files and textures between sessions, so opening the same files again is quicker.
+        if (cacheFolder != null)
+            AssetCache.CACHE_FOLDER = new File(cacheFolder);
+
         openFroggerFiles();
     }
 
@@ -67,45 +77,62 @@ public class GUIMain extends Application {
         return versionMap;
     }
 
-    private void resolveEXE(File exeFile, Runnable onConfigLoad) throws IOException {
-        Map<String, String[]> versions = getVersions();
+    /**
+     * Finds the config for an executable, without asking the user.
+     * @param exeFile The executable to find the config for.
+     * @return config, or null if the executable was not recognized.
+     */
+    public static FroggerEXEInfo findExeConfig(File exeFile) throws IOException {
         byte[] fileBytes = Files.readAllBytes(exeFile.toPath());
-
         long crcHash = Utils.getCRC32(exeFile);
-        Map<String, String> configDisplayName = new HashMap<>();
-        for (String configName : versions.keySet()) {
-            String[] hashes = versions.get(configName);
+        for (Entry<String, String[]> entry : getVersions().entrySet()) {
+            String configName = entry.getKey();
 
             // Executables modified by FrogLord will have a small marker at the end saying which config to use. This works on both playstation and windows executable formats.
             byte[] configNameBytes = configName.getBytes();
-            if (Utils.testSignature(fileBytes, fileBytes.length - configNameBytes.length, configNameBytes)) {
-                makeExeConfig(exeFile, configName, true);
-                onConfigLoad.run();
-                return;
-            }
+            if (Utils.testSignature(fileBytes, fileBytes.length - configNameBytes.length, configNameBytes))
+                return makeExeConfig(exeFile, configName, true);
 
             // Use hashes to detect unmodified executables.
-            for (String testHash : hashes) {
-                if (Long.parseLong(testHash) == crcHash) {
-                    makeExeConfig(exeFile, configName, false);
-                    onConfigLoad.run();
-                    return;
-                }
-            }
+            for (String testHash : entry.getValue())
+                if (Long.parseLong(testHash) == crcHash)
+                    return makeExeConfig(exeFile, configName, false);
+        }
 
+        return null;
+    }
+
+    private void resolveEXE(File exeFile, Runnable onConfigLoad) throws IOException {
+        FroggerEXEInfo foundConfig = findExeConfig(exeFile);
+        if (foundConfig != null) {
+            EXE_CONFIG = foundConfig;
+            onConfigLoad.run();
+            return;
+        }
+
+        long crcHash = Utils.getCRC32(exeFile);
+        Map<String, String> configDisplayName = new HashMap<>();
+        for (String configName : getVersions().keySet()) {
             Config loadedConfig = new Config(Utils.getResourceStream(getExeConfigPath(configName)));
             configDisplayName.put(configName, loadedConfig.getString(FroggerEXEInfo.FIELD_NAME));
         }
 
         System.out.println("Executable CRC32: " + crcHash); // There was no configuration found, so display the CRC32, in-case we want to make a configuration.
         SelectionMenu.promptSelection("Select a configuration.", resourcePath -> {
-            makeExeConfig(exeFile, resourcePath.getKey(), false);
+            EXE_CONFIG = makeExeConfig(exeFile, resourcePath.getKey(), false);
             onConfigLoad.run();
         }, configDisplayName.entrySet(), Entry::getValue, null);
     }
 
-    private void makeExeConfig(File inputExe, String configName, boolean hasConfigIdentifier) {
-        EXE_CONFIG = new FroggerEXEInfo(inputExe, Utils.getResourceStream(getExeConfigPath(configName)), configName, hasConfigIdentifier);
+    /**
+     * Creates the config for an executable.
+     * @param inputExe            The executable to create the config for.
+     * @param configName          The name of the config to use.
+     * @param hasConfigIdentifier Whether the executable has a marker saying which config to use.
+     * @return config
+     */
+    public static FroggerEXEInfo makeExeConfig(File inputExe, String configName, boolean hasConfigIdentifier) {
+        return new FroggerEXEInfo(inputExe, Utils.getResourceStream(getExeConfigPath(configName)), configName, hasConfigIdentifier);
     }
 
     private static String getExeConfigPath(String configName) {
@@ -127,7 +154,12 @@ public class GUIMain extends Application {
         FroggerEXEInfo loadConfig = EXE_CONFIG;
         loadConfig.setup();
         MWDFile mwd = loadConfig.getMWD();
-        mwd.load(new DataReader(new FileSource(mwdFile)));
+        if (MWDFile.LAZY_LOAD) {
+            mwd.loadLazy(mwdFile);
+        } else {
+            mwd.load(new DataReader(new FileSource(mwdFile)));
+        }
+
         MainController.MAIN_WINDOW.loadMWD(mwd); // Setup GUI.
     }
 
@@ -166,7 +198,7 @@ public class GUIMain extends Application {
 
         resolveEXE(exeFile, () -> {
             openGUI(MAIN_STAGE, mwdFile);
-            FroggerVersionComparison.addNewVersionToConfig(EXE_CONFIG);
+            FroggerVersionComparison.addNewVersionToConfig(EXE_CONFIG, mwdFile);
         });
     }
 }
\ No newline at end of file
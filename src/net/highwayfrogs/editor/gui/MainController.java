@@ -15,6 +15,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
 import net.highwayfrogs.editor.file.*;
+import net.highwayfrogs.editor.file.MWDFile.FileType;
 import net.highwayfrogs.editor.file.MWIFile.FileEntry;
 import net.highwayfrogs.editor.file.config.FroggerEXEInfo;
 import net.highwayfrogs.editor.file.map.MAPFile;
@@ -60,7 +61,7 @@ public class MainController implements Initializable {
     @FXML private MenuItem differenceReport;
     @FXML private MenuItem findUnusedVertices;
     private MWDFile mwdFile;
-    private ListView<GameFile> currentFilesList;
+    private ListView<FileEntry> currentFilesList;
 
     public static MainController MAIN_WINDOW;
     @Getter
@@ -83,17 +84,16 @@ public class MainController implements Initializable {
     public void loadMWD(MWDFile file) {
         this.mwdFile = file;
 
-        Map<Integer, ObservableList<GameFile>> gameFileRegistry = new HashMap<>();
+        Map<Integer, ObservableList<FileEntry>> gameFileRegistry = new HashMap<>();
 
-        for (GameFile gameFile : mwdFile.getFiles()) {
-            // Grab corresponding file entry information for the game file
-            FileEntry fileEntry = mwdFile.getEntryMap().get(gameFile);
+        // The lists are made from the file entries, so files from a lazily loaded MWD are only loaded once they are selected.
+        for (FileEntry fileEntry : mwdFile.getFileEntries()) {
             int type = fileEntry.getSpoofedTypeId();
 
             if (!gameFileRegistry.containsKey(type))
                 gameFileRegistry.put(type, FXCollections.observableArrayList());
 
-            gameFileRegistry.get(type).add(gameFile);
+            gameFileRegistry.get(type).add(fileEntry);
         }
 
         addFileList(VLOArchive.TYPE_ID, "VLO", gameFileRegistry);
@@ -112,7 +112,7 @@ public class MainController implements Initializable {
         differenceReport.setDisable(!FroggerVersionComparison.isEnabled());
     }
 
-    private void addFileList(int type, String name, Map<Integer, ObservableList<GameFile>> fileMap) {
+    private void addFileList(int type, String name, Map<Integer, ObservableList<FileEntry>> fileMap) {
         if (!fileMap.containsKey(type))
             return; // There are no files of this type.
 
@@ -120,7 +120,7 @@ public class MainController implements Initializable {
         pane.setPrefSize(200, 180);
         pane.setAnimated(false);
 
-        ListView<GameFile> listView = new ListView<>(fileMap.get(type));
+        ListView<FileEntry> listView = new ListView<>(fileMap.get(type));
         listView.setCellFactory(param -> new AttachmentListCell(mwdFile));
         listView.setItems(fileMap.get(type));
 
@@ -128,7 +128,7 @@ public class MainController implements Initializable {
         pane.setText(name + " Files (" + listView.getItems().size() + " items)");
         accordionMain.getPanes().add(pane);
 
-        listView.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> openEditor(listView, newValue));
+        listView.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> openEditor(listView, mwdFile.getGameFile(newValue)));
 
         // Expand VLO.
         if (type == VLOArchive.TYPE_ID) {
@@ -142,7 +142,7 @@ public class MainController implements Initializable {
      * @return currentFile
      */
     public GameFile getCurrentFile() {
-        return getCurrentFilesList().getSelectionModel().getSelectedItem();
+        return mwdFile.getGameFile(getFileEntry());
     }
 
     /**
@@ -150,7 +150,7 @@ public class MainController implements Initializable {
      * @return fileEntry
      */
     public FileEntry getFileEntry() {
-        return mwdFile.getEntryMap().get(getCurrentFile());
+        return getCurrentFilesList().getSelectionModel().getSelectedItem();
     }
 
     @FXML
@@ -299,8 +299,7 @@ public class MainController implements Initializable {
         byte[] fileBytes = Files.readAllBytes(selectedFile.toPath());
         GameFile oldFile = getCurrentFile();
         GameFile newFile = mwdFile.replaceFile(fileBytes, getFileEntry(), oldFile);
-        this.mwdFile.getFiles().set(this.mwdFile.getFiles().indexOf(oldFile), newFile);
-        getCurrentFilesList().getItems().set(getCurrentFilesList().getItems().indexOf(oldFile), newFile);
+        getCurrentFilesList().refresh();
 
         newFile.onImport(oldFile, getFileEntry().getDisplayName(), selectedFile.getName());
         openEditor(getCurrentFilesList(), newFile); // Open the editor for the new file.
@@ -332,7 +331,7 @@ public class MainController implements Initializable {
      * @param file The file to open the editor for.
      */
     @SneakyThrows
-    public void openEditor(ListView<GameFile> activeList, GameFile file) {
+    public void openEditor(ListView<FileEntry> activeList, GameFile file) {
         if (getCurrentController() != null)
             getCurrentController().onClose(editorPane);
         setCurrentController(null);
@@ -366,20 +365,20 @@ public class MainController implements Initializable {
 
 
     @AllArgsConstructor
-    private static class AttachmentListCell extends ListCell<GameFile> {
+    private static class AttachmentListCell extends ListCell<FileEntry> {
         private final MWDFile mwdFile;
 
         @Override
-        public void updateItem(GameFile file, boolean empty) {
-            super.updateItem(file, empty);
+        public void updateItem(FileEntry entry, boolean empty) {
+            super.updateItem(entry, empty);
             if (empty) {
                 setGraphic(null);
                 setText(null);
                 return;
             }
 
-            FileEntry entry = mwdFile.getEntryMap().get(file);
-            setGraphic(new ImageView(file.getIcon()));
+            GameFile file = mwdFile.getEntryFileMap().get(entry); // Null if the file has not been loaded yet.
+            setGraphic(new ImageView(file != null ? file.getIcon() : FileType.getType(entry).getIcon()));
 
             // Update text.
             boolean isIslandPlaceholder = file instanceof MAPFile && ((MAPFile) file).getMapConfig().isIslandPlaceholder();
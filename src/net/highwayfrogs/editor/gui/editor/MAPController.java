@@ -137,7 +137,7 @@ public class MAPController extends EditorController<MAPFile> {
             return;
         }
 
-        TextureMap textureMap = TextureMap.newTextureMap(getFile(), ShadingMode.NO_SHADING);
+        TextureMap textureMap = TextureMap.newTextureMap(getFile(), ShadingMode.NO_SHADING, true);
         setupMapViewer(GUIMain.MAIN_STAGE, new MapMesh(getFile(), textureMap), textureMap);
     }
 
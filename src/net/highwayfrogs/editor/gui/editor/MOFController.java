@@ -117,6 +117,7 @@ public class MOFController extends EditorController<MOFHolder> {
     @SneakyThrows
     private void setupMofViewer(Stage stageToOverride) {
         this.mofMesh = getFile().makeMofMesh();
+        this.mofMesh.getFrameCache().startBaking();
         this.uiController = new MOFUIController(this);
 
         // Create mesh view and initialise with xyz rotation transforms, materials and initial face culling policy.
@@ -179,6 +180,7 @@ public class MOFController extends EditorController<MOFHolder> {
                 }
 
                 getUiController().stopPlaying();
+                getMofMesh().getFrameCache().cancel();
                 getRenderManager().removeAllDisplayLists();
                 Utils.setSceneKeepPosition(stageToOverride, defaultScene);
                 return;
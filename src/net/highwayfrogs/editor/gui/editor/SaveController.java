@@ -14,8 +14,6 @@ import lombok.Getter;
 import net.highwayfrogs.editor.Constants;
 import net.highwayfrogs.editor.file.MWDFile;
 import net.highwayfrogs.editor.file.config.FroggerEXEInfo;
-import net.highwayfrogs.editor.file.writer.DataWriter;
-import net.highwayfrogs.editor.file.writer.FileReceiver;
 import net.highwayfrogs.editor.system.AbstractService;
 import net.highwayfrogs.editor.utils.Utils;
 
@@ -86,8 +84,6 @@ public class SaveController implements Initializable {
                 return null;
             }
 
-            DataWriter mwdWriter = new DataWriter(new FileReceiver(outputMWD));
-
             mwdToSave.setSaveCallback((entry, file) -> {
                 currentFile.incrementAndGet();
                 if (alreadyScheduledUpdate.getAndSet(true))
@@ -95,7 +91,7 @@ public class SaveController implements Initializable {
 
                 Platform.runLater(() -> {
                     int saveCount = currentFile.get();
-                    int fileCount = mwdToSave.getFiles().size();
+                    int fileCount = mwdToSave.getFileCount();
 
                     double progress = (double) saveCount / (double) fileCount;
                     saveController.getProgressBar().setProgress(progress);
@@ -106,8 +102,7 @@ public class SaveController implements Initializable {
             });
 
             try {
-                mwdToSave.save(mwdWriter);
-                mwdWriter.closeReceiver();
+                mwdToSave.save(outputMWD);
                 mwdToSave.setSaveCallback(null);
             } catch (Exception ex) {
                 Platform.runLater(() -> {
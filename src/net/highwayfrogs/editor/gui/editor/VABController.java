@@ -11,10 +11,9 @@ import javafx.scene.layout.AnchorPane;
 import lombok.SneakyThrows;
 import net.highwayfrogs.editor.file.sound.AbstractVBFile;
 import net.highwayfrogs.editor.file.sound.GameSound;
+import net.highwayfrogs.editor.file.sound.SoundPlayer;
 import net.highwayfrogs.editor.utils.Utils;
 
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineEvent.Type;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.File;
@@ -33,7 +32,7 @@ public class VABController extends EditorController<AbstractVBFile<?>> {
     @FXML private Slider sliderSampleRate;
 
     private GameSound selectedSound;
-    private Clip currentClip;
+    private SoundPlayer currentPlayer;
 
     @Override
     public void loadFile(AbstractVBFile<?> vbFile) {
@@ -62,7 +61,7 @@ public class VABController extends EditorController<AbstractVBFile<?>> {
     @Override
     public void onClose(AnchorPane editorRoot) {
         super.onClose(editorRoot);
-        closeClip();
+        stopSound();
     }
 
     private static class AttachmentListCell extends ListCell<GameSound> {
@@ -116,22 +115,24 @@ public class VABController extends EditorController<AbstractVBFile<?>> {
 
     @FXML
     private void togglePlay(ActionEvent event) {
-        if (this.currentClip == null)
+        if (this.selectedSound == null)
             return;
 
-        if (this.currentClip.isActive()) {
-            this.currentClip.stop();
-            this.currentClip.setMicrosecondPosition(0); // Reset play position.
+        if (this.currentPlayer != null && this.currentPlayer.isPlaying()) {
+            this.currentPlayer.stop();
         } else {
             toggleComponents(true);
             this.playButton.setText("Stop");
 
-            this.currentClip.setMicrosecondPosition(0); // Reset play position.
-            if (this.repeatCheckBox.isSelected()) {
-                this.currentClip.loop(Clip.LOOP_CONTINUOUSLY);
-            } else {
-                this.currentClip.start();
-            }
+            // The sound is decoded as it plays, so it starts right away.
+            this.currentPlayer = new SoundPlayer(this.selectedSound, this.repeatCheckBox.isSelected(), () -> Platform.runLater(() -> {
+                if (this.currentPlayer != null && this.currentPlayer.isPlaying())
+                    return; // A newer sound is playing.
+
+                this.playButton.setText("Play");
+                toggleComponents(false);
+            }));
+            this.currentPlayer.play();
         }
     }
 
@@ -168,42 +169,16 @@ public class VABController extends EditorController<AbstractVBFile<?>> {
         this.sliderSampleRate.setValue(selectedSound.getSampleRate());
     }
 
-    private void closeClip() {
-        if (this.currentClip == null)
-            return;
-
-        this.currentClip.stop(); //Stop the old playing clip. Also sets the play button back to "Play", enables the repeat button, etc.
-        this.currentClip.close(); // Tell the old clip that we aren't going to use it again.
+    private void stopSound() {
+        if (this.currentPlayer != null)
+            this.currentPlayer.stop(); // Stop the old playing sound. Also sets the play button back to "Play", enables the repeat button, etc.
     }
 
     /**
      * Update the displayed image.
      */
     public void updateSound() {
-        closeClip();
-
-        if (this.currentClip != null) {
-            byte[] pcmData = this.selectedSound.toRawAudio();
-
-            try {
-                this.currentClip.open(this.selectedSound.getAudioFormat(), pcmData, 0, pcmData.length);
-            } catch (LineUnavailableException exception) {
-                System.out.println("Could not load audio data from file.");
-                exception.printStackTrace();
-            }
-        } else {
-            this.currentClip = this.selectedSound.getClip();
-
-            this.currentClip.addLineListener(e -> {
-                if (e.getType() != Type.STOP)
-                    return;
-
-                Platform.runLater(() -> {
-                    this.playButton.setText("Play");
-                    toggleComponents(false);
-                });
-            });
-        }
+        stopSound();
     }
 
     private void toggleComponents(boolean newState) {
@@ -110,7 +110,7 @@ public class VLOController extends EditorController<VLOArchive> {
                 return;
 
             int newView = getFile().getImages().size();
-            getFile().getImages().add(gameImage.clone());
+            getFile().addImage(gameImage.clone());
             imageList.setItems(FXCollections.observableArrayList(getFile().getImages()));
             imageList.getSelectionModel().select(newView);
             imageList.scrollTo(newView);
@@ -24,8 +24,8 @@ import net.highwayfrogs.editor.system.AbstractStringConverter;
 import net.highwayfrogs.editor.system.Tuple2;
 import net.highwayfrogs.editor.utils.Utils;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.net.URL;
 import java.util.*;
 import java.util.Map.Entry;
@@ -263,11 +263,12 @@ public class VRAMPageController implements Initializable {
         int width = (isPsxMode() ? GameImage.PSX_FULL_PAGE_WIDTH : GameImage.PC_PAGE_WIDTH);
         int height = (isPsxMode() ? GameImage.PSX_PAGE_HEIGHT : GameImage.PC_PAGE_HEIGHT);
 
-        // Draw over image.
+        // Copy the page's rows over the image.
         BufferedImage image = this.splitImages[splitIndex];
-        Graphics2D graphics = image.createGraphics();
-        graphics.drawImage(this.fullImage, 0, 0, image.getWidth(), image.getHeight(), startX, startY, startX + width, startY + height, null);
-        graphics.dispose();
+        int[] fullPixels = ((DataBufferInt) this.fullImage.getRaster().getDataBuffer()).getData();
+        int[] pagePixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y++)
+            System.arraycopy(fullPixels, ((startY + y) * this.fullImage.getWidth()) + startX, pagePixels, y * width, width);
 
         if (isPsxMode()) { // Update displayed image.
             ImageView updateView = this.splitImageViews[splitIndex];
@@ -113,9 +113,9 @@ public class WADController extends EditorController<WADFile> {
                 return;
             }
         } else if (fileName.endsWith(".vlo") || fileName.endsWith(".xar") || fileName.endsWith(".xmr")) {
-            WADFile.CURRENT_FILE_NAME = selectedEntry.getFileEntry().getDisplayName();
+            WADFile.CURRENT_FILE_NAME.set(selectedEntry.getFileEntry().getDisplayName());
             this.selectedEntry.setFile(getFile().getMWD().replaceFile(newBytes, selectedEntry.getFileEntry(), selectedEntry.getFile()));
-            WADFile.CURRENT_FILE_NAME = null;
+            WADFile.CURRENT_FILE_NAME.remove();
         } else {
             Utils.makePopUp("Don't know how to import this file type. Aborted.", AlertType.WARNING);
             return;
@@ -133,11 +133,11 @@ public class WADController extends EditorController<WADFile> {
         if (selectedFile == null)
             return; // Cancelled.
 
-        WADFile.CURRENT_FILE_NAME = selectedEntry.getFileEntry().getDisplayName();
+        WADFile.CURRENT_FILE_NAME.set(selectedEntry.getFileEntry().getDisplayName());
         DataWriter writer = new DataWriter(new FileReceiver(selectedFile));
         this.selectedEntry.getFile().save(writer);
         writer.closeReceiver();
-        WADFile.CURRENT_FILE_NAME = null;
+        WADFile.CURRENT_FILE_NAME.remove();
     }
 
     @FXML
@@ -149,7 +149,7 @@ public class WADController extends EditorController<WADFile> {
 
         for (WADEntry wadEntry : getFile().getFiles()) {
             FileEntry fileEntry = wadEntry.getFileEntry();
-            WADFile.CURRENT_FILE_NAME = fileEntry.getDisplayName();
+            WADFile.CURRENT_FILE_NAME.set(fileEntry.getDisplayName());
 
             File save = Utils.getNonExistantFile(new File(selectedFolder, fileEntry.getDisplayName()));
             System.out.println("Saving: " + fileEntry.getDisplayName());
@@ -158,7 +158,7 @@ public class WADController extends EditorController<WADFile> {
             wadEntry.getFile().save(writer);
             writer.closeReceiver();
         }
-        WADFile.CURRENT_FILE_NAME = null;
+        WADFile.CURRENT_FILE_NAME.remove();
     }
 
     @FXML
@@ -269,6 +269,16 @@ public class GeometryManager extends MapManager {
         updateUnusedVertexVisibility();
     }
 
+    /**
+     * Refresh how a polygon looks after it has been edited.
+     * The polygon is updated in place if possible, otherwise the whole view is refreshed.
+     * @param poly The polygon which was edited.
+     */
+    public void refreshPolygon(MAPPolygon poly) {
+        if (!getMesh().updatePolygon(poly))
+            refreshView();
+    }
+
     private void updateUnusedVertexBoxes(List<SVector> newBoxes) {
         // Add new boxes.
         while (newBoxes.size() > this.unusedVertexBoxes.size()) {
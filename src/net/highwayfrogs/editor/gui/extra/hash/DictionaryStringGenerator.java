@@ -12,29 +12,19 @@ import java.util.*;
  */
 public class DictionaryStringGenerator implements IHashStringGenerator {
     private final List<String> allLoadedWords = new ArrayList<>();
-    private final Map<Integer, List<String>> wordsByHash = new HashMap<>();
     private final List<String> cachedGeneratedList = new ArrayList<>();
+    private HashStringIndex wordIndex; // The loaded words, grouped by linker hash. Null until a dictionary is loaded.
 
     @Override
     public List<String> generateStrings(int targetLinkerHash, String searchQuery) {
         if (allLoadedWords.isEmpty())
             return Collections.singletonList("Please load a dictionary first.");
 
-        List<String> words = wordsByHash.get(targetLinkerHash);
-        if (words == null)
-            return Collections.emptyList();
-
         cachedGeneratedList.clear();
-        cachedGeneratedList.addAll(words);
-
-        if (searchQuery != null && searchQuery.length() > 0) {
-            Iterator<String> iterator = cachedGeneratedList.iterator();
-            while (iterator.hasNext()) {
-                String word = iterator.next();
-                if (!word.contains(searchQuery))
-                    iterator.remove();
-            }
-        }
+        boolean hasQuery = searchQuery != null && searchQuery.length() > 0;
+        for (String word : wordIndex.getStrings(targetLinkerHash))
+            if (!hasQuery || word.contains(searchQuery))
+                cachedGeneratedList.add(word);
 
         return cachedGeneratedList;
     }
@@ -56,10 +46,6 @@ public class DictionaryStringGenerator implements IHashStringGenerator {
         allLoadedWords.clear();
         allLoadedWords.addAll(Files.readAllLines(file.toPath()));
 
-        wordsByHash.values().forEach(List::clear);
-        for (String word : allLoadedWords)
-            wordsByHash.computeIfAbsent(FroggerHashUtil.getLinkerHash(word), key -> new ArrayList<>()).add(word);
-
-
+        wordIndex = new HashStringIndex(allLoadedWords);
     }
 }
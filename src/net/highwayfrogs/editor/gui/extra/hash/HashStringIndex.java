@@ -0,0 +1,38 @@
+package net.highwayfrogs.editor.gui.extra.hash;
+
+import java.util.*;
+
+/**
+ * Groups strings by their linker hash, so the strings with a hash can be found without searching.
+ * Each group keeps the order the strings were given in.
+ * Created by agent on 10/18/2026.
+ */
+public class HashStringIndex {
+    private final String[][] stringsByHash = new String[FroggerHashUtil.LINKER_HASH_TABLE_SIZE][];
+
+    private static final String[] EMPTY_STRINGS = new String[0];
+
+    public HashStringIndex(Collection<String> strings) {
+        List<List<String>> groups = new ArrayList<>(FroggerHashUtil.LINKER_HASH_TABLE_SIZE);
+        for (int i = 0; i < FroggerHashUtil.LINKER_HASH_TABLE_SIZE; i++)
+            groups.add(new ArrayList<>());
+
+        for (String str : new LinkedHashSet<>(strings)) // Duplicates would give duplicate results.
+            groups.get(FroggerHashUtil.getLinkerHash(str)).add(str);
+
+        for (int hash = 0; hash < groups.size(); hash++) {
+            List<String> group = groups.get(hash);
+            this.stringsByHash[hash] = group.isEmpty() ? EMPTY_STRINGS : group.toArray(EMPTY_STRINGS);
+        }
+    }
+
+    /**
+     * Gets the strings which have a linker hash.
+     * The array returned is not a copy, and should not be modified.
+     * @param linkerHash The linker hash to get strings for.
+     * @return strings
+     */
+    public String[] getStrings(int linkerHash) {
+        return this.stringsByHash[linkerHash];
+    }
+}
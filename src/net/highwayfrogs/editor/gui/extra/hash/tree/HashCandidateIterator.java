@@ -0,0 +1,183 @@
+package net.highwayfrogs.editor.gui.extra.hash.tree;
+
+import net.highwayfrogs.editor.gui.extra.hash.FroggerHashUtil;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily finds the string blueprints which have a target linker hash, one at a time.
+ * Sums which have stored count vectors are read directly. Larger sums are made by combining a stored front half with a stored back half as they are reached.
+ * Blueprints which do not match the search query are skipped before their strings are made.
+ * Created by agent on 10/18/2026.
+ */
+public class HashCandidateIterator implements Iterator<String> {
+    private final HashTreeStringGenerator generator;
+    private final byte[] query;
+    private final byte[] neededCounts;
+    private int nextSum;
+
+    // The halves queued for the current sum. A null front half means the back half is a stored sum to read directly.
+    private final List<HashCountVectors> frontHalves = new ArrayList<>();
+    private final List<HashCountVectors> backHalves = new ArrayList<>();
+    private int halvesIndex;
+
+    private HashCountVectors frontHalf;
+    private HashCountVectors backHalf;
+    private int frontIndex;
+    private int backIndex;
+    private int backEnd;
+    private String nextString;
+
+    public HashCandidateIterator(HashTreeStringGenerator generator, int targetLinkerHash, String searchQuery) {
+        this.generator = generator;
+        this.nextSum = targetLinkerHash;
+        if (searchQuery != null && searchQuery.length() > 0) {
+            this.query = HashStringCountMap.createCountMap(searchQuery).getCounts();
+            this.neededCounts = new byte[HashCountVectors.VECTOR_SIZE];
+        } else {
+            this.query = null;
+            this.neededCounts = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.nextString == null)
+            this.nextString = findNextString();
+        return this.nextString != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        String result = this.nextString;
+        this.nextString = null;
+        return result;
+    }
+
+    private String findNextString() {
+        while (true) {
+            if (this.backHalf != null) {
+                String result = this.frontHalf != null ? findNextCombination() : findNextStored();
+                if (result != null)
+                    return result;
+
+                this.frontHalf = null;
+                this.backHalf = null;
+            }
+
+            if (this.halvesIndex < this.backHalves.size()) {
+                this.frontHalf = this.frontHalves.get(this.halvesIndex);
+                this.backHalf = this.backHalves.get(this.halvesIndex++);
+                this.frontIndex = -1;
+                this.backIndex = 0;
+                this.backEnd = 0;
+            } else if (!queueNextSum()) {
+                return null;
+            }
+        }
+    }
+
+    private String findNextStored() {
+        while (this.backIndex < this.backHalf.size()) {
+            int index = this.backIndex++;
+            if (this.backHalf.contains(index, this.query))
+                return this.backHalf.generateString(index);
+        }
+
+        return null;
+    }
+
+    private String findNextCombination() {
+        while (true) {
+            while (this.backIndex < this.backEnd) {
+                int back = this.backIndex++;
+                if (HashCountVectors.canCombine(this.frontHalf, this.frontIndex, this.backHalf, back) && this.backHalf.contains(back, this.neededCounts))
+                    return HashStringCountMap.generateString(combine(this.frontIndex, back), 0);
+            }
+
+            if (++this.frontIndex >= this.frontHalf.size())
+                return null;
+
+            int length = this.frontHalf.getLength(this.frontIndex);
+            if (this.query != null && !updateNeededCounts()) {
+                this.backIndex = this.backEnd = 0; // The back half can't hold what the query still needs.
+                continue;
+            }
+
+            this.backIndex = this.backHalf.getLengthStart(length);
+            this.backEnd = this.backHalf.getLengthStart(length + 2);
+        }
+    }
+
+    private boolean updateNeededCounts() {
+        byte[] frontCounts = this.frontHalf.getCounts();
+        int offset = this.frontIndex * HashCountVectors.VECTOR_SIZE;
+        int neededLength = 0;
+        for (int i = 0; i < this.neededCounts.length; i++) {
+            int needed = Math.max(0, this.query[i] - frontCounts[offset + i]);
+            this.neededCounts[i] = (byte) needed;
+            neededLength += needed;
+        }
+
+        return neededLength <= this.frontHalf.getLength(this.frontIndex) + 1;
+    }
+
+    private byte[] combine(int front, int back) {
+        byte[] result = new byte[HashCountVectors.VECTOR_SIZE];
+        byte[] frontCounts = this.frontHalf.getCounts();
+        byte[] backCounts = this.backHalf.getCounts();
+        int frontOffset = front * HashCountVectors.VECTOR_SIZE;
+        int backOffset = back * HashCountVectors.VECTOR_SIZE;
+        for (int i = 0; i < result.length; i++)
+            result[i] = (byte) (frontCounts[frontOffset + i] + backCounts[backOffset + i]);
+        return result;
+    }
+
+    private boolean queueNextSum() {
+        HashSumLookupTree lookupTree = this.generator.getLookupTree();
+        this.frontHalves.clear();
+        this.backHalves.clear();
+        this.halvesIndex = 0;
+
+        while (this.nextSum <= lookupTree.getMaxSum()) {
+            int currSum = this.nextSum;
+            this.nextSum += FroggerHashUtil.LINKER_HASH_TABLE_SIZE;
+
+            HashCountVectors storedVectors = this.generator.getCountVectors(currSum);
+            if (storedVectors != null) {
+                this.frontHalves.add(null);
+                this.backHalves.add(storedVectors);
+                return true;
+            }
+
+            HashSum sum = lookupTree.get(currSum);
+            if (sum == null)
+                continue;
+
+            for (HashSumPair pair : sum.getPairs()) {
+                HashCountVectors first = this.generator.getCountVectors(pair.getFirst().getSum());
+                HashCountVectors second = this.generator.getCountVectors(pair.getSecond().getSum());
+                if (first == null || second == null)
+                    continue; // One of the halves is too big to have been stored.
+
+                this.frontHalves.add(first);
+                this.backHalves.add(second);
+                if (first != second) {
+                    this.frontHalves.add(second);
+                    this.backHalves.add(first);
+                }
+            }
+
+            if (this.backHalves.size() > 0)
+                return true;
+        }
+
+        return false;
+    }
+}
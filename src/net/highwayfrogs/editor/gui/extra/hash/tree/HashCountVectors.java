@@ -0,0 +1,206 @@
+package net.highwayfrogs.editor.gui.extra.hash.tree;
+
+import java.util.Arrays;
+
+/**
+ * Holds the count vectors of every string blueprint which has a given sum, packed into primitive arrays.
+ * Each count vector is VECTOR_SIZE bytes, one count for each character in ALLOWED_NAME_CHARACTERS.
+ * Once finished, the count vectors are sorted by length, so the vectors of a given length can be found without searching.
+ * Created by agent on 10/18/2026.
+ */
+public class HashCountVectors {
+    private byte[] counts = new byte[VECTOR_SIZE];
+    private byte[] lengths = new byte[1];
+    private byte[] firstCharacters = new byte[1]; // The index of the first character used by each vector.
+    private byte[] lastCharacters = new byte[1]; // The index of the last character used by each vector.
+    private int[] lengthStarts; // The index of the first vector at least as long as the index.
+    private int size;
+
+    public static final int VECTOR_SIZE = HashSumLookupTree.ALLOWED_NAME_CHARACTERS.length;
+    public static int MAX_UNDERSCORES = 3; // Blueprints with more underscores than this are skipped.
+    public static int MAX_DIGITS = 3; // Blueprints with more digits than this are skipped.
+    private static final int UNDERSCORE_INDEX = HashStringCountMap.getCharacterIndex('_');
+    private static final int FIRST_DIGIT_INDEX = HashStringCountMap.getCharacterIndex('0');
+    private static final int LAST_DIGIT_INDEX = HashStringCountMap.getCharacterIndex('9');
+
+    /**
+     * Gets the number of count vectors held.
+     * @return size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the array which holds every count vector. The vector at a given index starts at index * VECTOR_SIZE.
+     * The array returned is not a copy, and should not be modified.
+     * @return counts
+     */
+    public byte[] getCounts() {
+        return this.counts;
+    }
+
+    /**
+     * Gets the number of characters in a count vector.
+     * @param index The index of the count vector.
+     * @return length
+     */
+    public int getLength(int index) {
+        return this.lengths[index];
+    }
+
+    /**
+     * Gets the index of the first vector which has at least the given length. Only valid once finished.
+     * @param length The length to find.
+     * @return startIndex
+     */
+    public int getLengthStart(int length) {
+        return length < this.lengthStarts.length ? this.lengthStarts[length] : this.size;
+    }
+
+    /**
+     * Test whether a count vector has at least as many of each character as a query does.
+     * @param index The index of the count vector.
+     * @param query The counts to test, in the order of ALLOWED_NAME_CHARACTERS, or null.
+     * @return contains
+     */
+    public boolean contains(int index, byte[] query) {
+        if (query == null)
+            return true;
+
+        int offset = index * VECTOR_SIZE;
+        for (int i = 0; i < VECTOR_SIZE; i++)
+            if (this.counts[offset + i] < query[i])
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Generates the string blueprint of a count vector.
+     * @param index The index of the count vector.
+     * @return generatedString
+     */
+    public String generateString(int index) {
+        return HashStringCountMap.generateString(this.counts, index * VECTOR_SIZE);
+    }
+
+    /**
+     * Adds a count vector which holds a single character.
+     * @param character The character to add.
+     */
+    public void addCharacter(char character) {
+        int charIndex = HashStringCountMap.getCharacterIndex(character);
+        if (charIndex == -1)
+            throw new RuntimeException("Cannot add character '" + character + "', it is not a valid string character.");
+
+        int index = addEmpty();
+        this.counts[index * VECTOR_SIZE + charIndex] = 1;
+        this.lengths[index] = 1;
+        this.firstCharacters[index] = (byte) charIndex;
+        this.lastCharacters[index] = (byte) charIndex;
+    }
+
+    /**
+     * Adds every blueprint which is made by putting a vector of one half in front of a vector of the other half.
+     * Each blueprint made of two or more characters is only made by exactly one split, its sorted characters cut at half of its length.
+     * So, the front half must be just as long or one character shorter than the back half, and must not have a character after the start of the back half.
+     * This means no blueprint is ever added twice, so there's no need to track which blueprints have been seen.
+     * @param frontHalf The vectors to use as the front half.
+     * @param backHalf  The vectors to use as the back half.
+     */
+    public void addCombinations(HashCountVectors frontHalf, HashCountVectors backHalf) {
+        for (int front = 0; front < frontHalf.size; front++) {
+            int length = frontHalf.lengths[front];
+            int backEnd = backHalf.getLengthStart(length + 2);
+            for (int back = backHalf.getLengthStart(length); back < backEnd; back++) {
+                if (!canCombine(frontHalf, front, backHalf, back))
+                    continue;
+
+                int index = addEmpty();
+                int offset = index * VECTOR_SIZE;
+                int frontOffset = front * VECTOR_SIZE;
+                int backOffset = back * VECTOR_SIZE;
+                for (int i = 0; i < VECTOR_SIZE; i++)
+                    this.counts[offset + i] = (byte) (frontHalf.counts[frontOffset + i] + backHalf.counts[backOffset + i]);
+
+                this.lengths[index] = (byte) (length + backHalf.lengths[back]);
+                this.firstCharacters[index] = frontHalf.firstCharacters[front];
+                this.lastCharacters[index] = backHalf.lastCharacters[back];
+            }
+        }
+    }
+
+    /**
+     * Test whether a front half and a back half make a blueprint, following the rules explained in addCombinations.
+     * This does not check the lengths of the halves.
+     * @param frontHalf The vectors holding the front half.
+     * @param front     The index of the front half.
+     * @param backHalf  The vectors holding the back half.
+     * @param back      The index of the back half.
+     * @return canCombine
+     */
+    public static boolean canCombine(HashCountVectors frontHalf, int front, HashCountVectors backHalf, int back) {
+        if (frontHalf.lastCharacters[front] > backHalf.firstCharacters[back])
+            return false;
+
+        int frontOffset = front * VECTOR_SIZE;
+        int backOffset = back * VECTOR_SIZE;
+        if (frontHalf.counts[frontOffset + UNDERSCORE_INDEX] + backHalf.counts[backOffset + UNDERSCORE_INDEX] > MAX_UNDERSCORES)
+            return false;
+
+        int digitCount = 0;
+        for (int i = FIRST_DIGIT_INDEX; i <= LAST_DIGIT_INDEX; i++)
+            digitCount += frontHalf.counts[frontOffset + i] + backHalf.counts[backOffset + i];
+
+        // TODO: Maybe also reduce the ratio of underscores to letters, so you can have 2 total, unless your length is > 7 letters, where you can have 3.
+        return digitCount <= MAX_DIGITS;
+    }
+
+    /**
+     * Called once every vector has been added. Trims the arrays, and sorts the vectors by length.
+     */
+    public void finish() {
+        int maxLength = 0;
+        for (int i = 0; i < this.size; i++)
+            if (this.lengths[i] > maxLength)
+                maxLength = this.lengths[i];
+
+        this.lengthStarts = new int[maxLength + 2];
+        for (int i = 0; i < this.size; i++)
+            this.lengthStarts[this.lengths[i] + 1]++;
+        for (int i = 1; i < this.lengthStarts.length; i++)
+            this.lengthStarts[i] += this.lengthStarts[i - 1];
+
+        // Counting sort, which keeps the order of vectors with the same length.
+        int[] nextIndex = Arrays.copyOf(this.lengthStarts, this.lengthStarts.length);
+        byte[] newCounts = new byte[this.size * VECTOR_SIZE];
+        byte[] newLengths = new byte[this.size];
+        byte[] newFirstCharacters = new byte[this.size];
+        byte[] newLastCharacters = new byte[this.size];
+        for (int i = 0; i < this.size; i++) {
+            int newIndex = nextIndex[this.lengths[i]]++;
+            System.arraycopy(this.counts, i * VECTOR_SIZE, newCounts, newIndex * VECTOR_SIZE, VECTOR_SIZE);
+            newLengths[newIndex] = this.lengths[i];
+            newFirstCharacters[newIndex] = this.firstCharacters[i];
+            newLastCharacters[newIndex] = this.lastCharacters[i];
+        }
+
+        this.counts = newCounts;
+        this.lengths = newLengths;
+        this.firstCharacters = newFirstCharacters;
+        this.lastCharacters = newLastCharacters;
+    }
+
+    private int addEmpty() {
+        if (this.size == this.lengths.length) {
+            int newCapacity = this.size * 2;
+            this.counts = Arrays.copyOf(this.counts, newCapacity * VECTOR_SIZE);
+            this.lengths = Arrays.copyOf(this.lengths, newCapacity);
+            this.firstCharacters = Arrays.copyOf(this.firstCharacters, newCapacity);
+            this.lastCharacters = Arrays.copyOf(this.lastCharacters, newCapacity);
+        }
+
+        return this.size++;
+    }
+}
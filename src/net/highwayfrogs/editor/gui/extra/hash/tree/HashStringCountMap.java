@@ -1,8 +1,6 @@
 package net.highwayfrogs.editor.gui.extra.hash.tree;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * Tracks how many of each character is present, as a string blueprint.
@@ -11,8 +9,6 @@ import java.util.List;
 public class HashStringCountMap {
     private final byte[] counts = new byte[HashSumLookupTree.ALLOWED_NAME_CHARACTERS.length + 1];
     private static final int[] INDEX_BY_CHARACTER_MAP;
-    private static final StringBuilder TEMP_BUILDER = new StringBuilder();
-    private static final List<HashStringCountMap> POOL = new ArrayList<>();
 
     /**
      * Test whether this count map contains all of the characters another count map contains.
@@ -57,7 +53,7 @@ public class HashStringCountMap {
      */
     @SuppressWarnings("MethodDoesntCallSuperMethod")
     public HashStringCountMap clone() {
-        HashStringCountMap clone = getFree();
+        HashStringCountMap clone = new HashStringCountMap();
         System.arraycopy(this.counts, 0, clone.counts, 0, this.counts.length);
         return clone;
     }
@@ -79,18 +75,16 @@ public class HashStringCountMap {
      * @return generatedString
      */
     public String generateString() {
-        for (char c = 0; c < INDEX_BY_CHARACTER_MAP.length; c++) {
-            int index = INDEX_BY_CHARACTER_MAP[c];
-            if (index == -1)
-                continue;
-
-            for (int j = 0; j < this.counts[index]; j++)
-                TEMP_BUILDER.append(c);
-        }
+        return generateString(this.counts, 0);
+    }
 
-        String result = TEMP_BUILDER.toString();
-        TEMP_BUILDER.setLength(0);
-        return result;
+    /**
+     * Gets the counts of each character, in the order of ALLOWED_NAME_CHARACTERS.
+     * The array returned is not a copy, and should not be modified.
+     * @return counts
+     */
+    byte[] getCounts() {
+        return this.counts;
     }
 
     @Override
@@ -107,15 +101,6 @@ public class HashStringCountMap {
         return (other instanceof HashStringCountMap) && Arrays.equals(this.counts, ((HashStringCountMap) other).counts);
     }
 
-    public void free() {
-        Arrays.fill(this.counts, (byte) 0);
-        POOL.add(this);
-    }
-
-    public static HashStringCountMap getFree() {
-        return POOL.size() > 0 ? POOL.remove(POOL.size() - 1) : new HashStringCountMap();
-    }
-
     static {
         INDEX_BY_CHARACTER_MAP = new int[HashSumLookupTree.MAX_ALLOWED_CHARACTER + 1];
         Arrays.fill(INDEX_BY_CHARACTER_MAP, -1);
@@ -123,13 +108,42 @@ public class HashStringCountMap {
             INDEX_BY_CHARACTER_MAP[HashSumLookupTree.ALLOWED_NAME_CHARACTERS[i]] = i;
     }
 
+    /**
+     * Gets the index of a character in ALLOWED_NAME_CHARACTERS.
+     * @param character The character to get the index of.
+     * @return index, or -1 if the character is not a valid string character.
+     */
+    public static int getCharacterIndex(char character) {
+        return character < INDEX_BY_CHARACTER_MAP.length ? INDEX_BY_CHARACTER_MAP[character] : -1;
+    }
+
+    /**
+     * Generates a string which has the characters counted by a count vector. The characters are in sorted order.
+     * @param counts The array holding the count vector.
+     * @param offset The index of the count vector in the array.
+     * @return generatedString
+     */
+    public static String generateString(byte[] counts, int offset) {
+        int length = 0;
+        for (int i = 0; i < HashSumLookupTree.ALLOWED_NAME_CHARACTERS.length; i++)
+            length += counts[offset + i];
+
+        char[] result = new char[length];
+        int index = 0;
+        for (int i = 0; i < HashSumLookupTree.ALLOWED_NAME_CHARACTERS.length; i++)
+            for (int j = 0; j < counts[offset + i]; j++)
+                result[index++] = HashSumLookupTree.ALLOWED_NAME_CHARACTERS[i];
+
+        return new String(result);
+    }
+
     /**
      * Creates a count map by parsing a string.
      * @param inputStr The string to create a count map from. If it contains any invalid characters, an exception will be thrown.
      * @return newCountMap
      */
     public static HashStringCountMap createCountMap(String inputStr) {
-        HashStringCountMap newCountMap = getFree();
+        HashStringCountMap newCountMap = new HashStringCountMap();
         if (inputStr == null || inputStr.isEmpty())
             return newCountMap;
 
@@ -1,104 +1,89 @@
 package net.highwayfrogs.editor.gui.extra.hash.tree;
 
 import lombok.Getter;
-import net.highwayfrogs.editor.gui.extra.hash.FroggerHashUtil;
 import net.highwayfrogs.editor.gui.extra.hash.HashPlaygroundController;
 import net.highwayfrogs.editor.gui.extra.hash.IHashStringGenerator;
 
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Uses a tree and dynamic generation
+ * The count vectors of every sum below STORED_SUM_LIMIT are built ahead of time, using every core.
+ * Larger sums are searched by combining two stored halves, only as the results are read.
  * Created by Kneesnap on 2/25/2022.
  */
 public class HashTreeStringGenerator implements IHashStringGenerator {
-    @Getter private static HashSumLookupTree lookupTree;
-    @Getter
-    private static Map<HashSum, Set<HashStringCountMap>> sumCountMaps;
+    @Getter private HashSumLookupTree lookupTree;
+    private HashCountVectors[] countVectors;
+
+    public static int STORED_SUM_LIMIT = 512; // Count vectors are stored for sums below this. Larger sums are found when each half of their sorted characters is below this.
+    public static int MAX_GENERATED_STRINGS = 100000; // The most strings generateStrings will return.
 
     @Override
     public List<String> generateStrings(int targetLinkerHash, String searchQuery) {
-        Set<HashStringCountMap> allResults = new HashSet<>();
-
-
-        for (int i = 0; i < Integer.MAX_VALUE; i++) {
-            int currHash = targetLinkerHash + (FroggerHashUtil.LINKER_HASH_TABLE_SIZE * i);
-            if (currHash > lookupTree.getMaxSum())
-                break; // Reached end.
-
-            HashSum sum = lookupTree.get(currHash);
-            if (sum != null && sumCountMaps.containsKey(sum))
-                allResults.addAll(sumCountMaps.get(sum));
-        }
-
         List<String> results = new ArrayList<>();
-        HashStringCountMap queryMap = searchQuery != null && searchQuery.length() > 0 ? HashStringCountMap.createCountMap(searchQuery) : null;
-        for (HashStringCountMap countMap : allResults)
-            if (countMap.contains(queryMap))
-                results.add(countMap.generateString());
+        Iterator<String> iterator = new HashCandidateIterator(this, targetLinkerHash, searchQuery);
+        while (iterator.hasNext() && results.size() < MAX_GENERATED_STRINGS)
+            results.add(iterator.next());
 
         return results;
+    }
 
+    /**
+     * Lazily generates the strings which have a target linker hash. Strings are only made as the stream is read.
+     * @param targetLinkerHash The hash to target the generation of.
+     * @param searchQuery      Only strings which contain every character of this query are generated. Can be null.
+     * @return Generated strings.
+     */
+    public Stream<String> streamStrings(int targetLinkerHash, String searchQuery) {
+        Iterator<String> iterator = new HashCandidateIterator(this, targetLinkerHash, searchQuery);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
     @Override
     public void onSetup(HashPlaygroundController controller) {
-        if (lookupTree == null)
-            lookupTree = HashSumLookupTree.buildTree();
+        if (this.lookupTree == null)
+            this.lookupTree = HashSumLookupTree.buildTree();
 
-        if (sumCountMaps == null)
-            buildSumCountMaps();
+        if (this.countVectors == null)
+            buildCountVectors();
     }
 
-    private static void buildSumCountMaps() {
-        List<HashSum> allSums = new ArrayList<>(lookupTree.getAllSums());
-        System.out.println("Sums: " + allSums.size() + ", " + lookupTree.getMaxSum());
-        allSums.removeIf(sum -> sum.getSum() >= 512); // TODO: TOSS
-
-        // 1. Build hash sum mappings.
-        Map<HashSumPair, HashSum> sumUsingPair = mapPairsToSum(allSums);
-        Map<HashSum, List<HashSumPair>> pairsPerSum = mapSumToPairsWhichUseIt(allSums);
-
-        // 2. Get the sums in order.
-        List<HashSum> remainingSums = orderSumsByPairAvailability(allSums);
-
-        // 3. Resolve count maps. (This is slow.)
-        sumCountMaps = resolveCountMaps(sumUsingPair, pairsPerSum, remainingSums);
-    }
-
-    private static Map<HashSumPair, HashSum> mapPairsToSum(List<HashSum> allSums) {
-        Map<HashSumPair, HashSum> sumUsingPair = new HashMap<>();
-        for (HashSum sum : allSums)
-            for (HashSumPair pair : sum.getPairs())
-                sumUsingPair.put(pair, sum);
-
-        System.out.println("Linked " + sumUsingPair.size() + " pairs to the sums which they are used by.");
-        return sumUsingPair;
+    /**
+     * Gets the stored count vectors of a sum.
+     * @param sum The sum to get the count vectors of.
+     * @return countVectors, or null if they are not stored.
+     */
+    public HashCountVectors getCountVectors(int sum) {
+        return sum >= 0 && sum < this.countVectors.length ? this.countVectors[sum] : null;
     }
 
-    private static Map<HashSum, List<HashSumPair>> mapSumToPairsWhichUseIt(List<HashSum> allSums) {
-        List<HashSumPair> allPairs = new ArrayList<>();
-        for (HashSum sum : allSums)
-            allPairs.addAll(sum.getPairs());
+    private void buildCountVectors() {
+        long buildStart = System.currentTimeMillis();
+        List<HashSum> storedSums = new ArrayList<>(this.lookupTree.getAllSums());
+        System.out.println("Sums: " + storedSums.size() + ", " + this.lookupTree.getMaxSum());
+        storedSums.removeIf(sum -> sum.getSum() >= STORED_SUM_LIMIT);
 
-        // Populate seenPairs, seenSums, and populate the sum queue for round #1.
-        Map<HashSum, List<HashSumPair>> pairsPerSum = new HashMap<>();
-        List<HashSumPair> pairQueue = new ArrayList<>(allPairs);
+        // 1. Get the sums in rounds, where each round only uses sums from earlier rounds.
+        List<List<HashSum>> rounds = orderSumsByPairAvailability(storedSums);
 
-        while (pairQueue.size() > 0) {
-            HashSumPair pair = pairQueue.remove(pairQueue.size() - 1);
+        // 2. Resolve the count vectors of each round in parallel. The sums in a round don't depend on each other, so they can be built in any order.
+        HashCountVectors[] newCountVectors = new HashCountVectors[STORED_SUM_LIMIT];
+        for (List<HashSum> round : rounds)
+            round.parallelStream().forEach(sum -> newCountVectors[sum.getSum()] = resolveCountVectors(newCountVectors, sum));
 
-            pairsPerSum.computeIfAbsent(pair.getFirst(), key -> new ArrayList<>()).add(pair);
-            if (pair.getFirst() != pair.getSecond())
-                pairsPerSum.computeIfAbsent(pair.getSecond(), key -> new ArrayList<>()).add(pair);
-        }
+        long vectorCount = 0;
+        for (HashCountVectors vectors : newCountVectors)
+            if (vectors != null)
+                vectorCount += vectors.size();
 
-        System.out.println("Found " + allSums.size() + " sums and " + allPairs.size() + " pairs.");
-        System.out.println("Linked " + pairsPerSum.size() + " sums to the pairs which they are used by.");
-        return pairsPerSum;
+        this.countVectors = newCountVectors;
+        System.out.println("Built " + vectorCount + " count vectors in " + (System.currentTimeMillis() - buildStart) + " ms.");
     }
 
-    private static List<HashSum> orderSumsByPairAvailability(List<HashSum> allSums) {
+    private static List<List<HashSum>> orderSumsByPairAvailability(List<HashSum> allSums) {
         // Determine the round which each sum should be handled in.
         List<HashSum> remainingSums = new ArrayList<>(allSums);
         Map<HashSum, Integer> sumRound = new HashMap<>();
@@ -131,69 +116,32 @@ public class HashTreeStringGenerator implements IHashStringGenerator {
         System.out.println("Setup sum rounds for " + sumRound.size() + " sums.");
 
         // Final step.
-        remainingSums.addAll(allSums);
-        remainingSums.sort(Comparator.comparingInt(sumRound::get));
-        return remainingSums;
-    }
-
-    private static Map<HashSum, Set<HashStringCountMap>> resolveCountMaps(Map<HashSumPair, HashSum> sumUsingPair, Map<HashSum, List<HashSumPair>> pairsPerSum, List<HashSum> remainingSums) {
-        Map<HashSum, Set<HashStringCountMap>> sumCountMaps = new HashMap<>();
-        while (remainingSums.size() > 0) {
-            for (int i = 0; i < remainingSums.size(); i++) {
-                HashSum tempSum = remainingSums.get(i); // Using this order ensure hash sums have all of their prerequisite pairs and sums handled prior.
-
-                if (tempSum.isSingleCharacter()) {
-                    // It's a single character, so start the string count map here.
-                    HashStringCountMap newMap = HashStringCountMap.getFree();
-                    newMap.incrementCount(tempSum.getCharacter());
-                    sumCountMaps.put(tempSum, new HashSet<>(Collections.singletonList(newMap)));
-                }
-
-                List<HashSumPair> pairs = pairsPerSum.get(tempSum);
-
-                boolean shouldRemoveFromQueue = true;
-                if (pairs != null && pairs.size() > 0) {
-                    for (HashSumPair tempPair : pairs) {
-                        Set<HashStringCountMap> maps1 = sumCountMaps.get(tempPair.getFirst());
-                        Set<HashStringCountMap> maps2 = sumCountMaps.get(tempPair.getSecond());
-                        if (maps1 == null || maps2 == null) { // Can't be done yet.
-                            shouldRemoveFromQueue = false;
-                            continue;
-                        }
-
-                        // TODO: Maybe also reduce the ratio of underscores to letters, so you can have 2 total, unless your length is > 7 letters, where you can have 3.
-
-                        for (HashStringCountMap countMap1 : maps1) {
-                            for (HashStringCountMap countMap2 : maps2) {
-                                HashStringCountMap newCountMap = countMap1.add(countMap2);
-
-                                if (newCountMap.getCount('_') > 3)
-                                    continue;
-
-                                int numCount = 0;
-                                for (char c = '0'; c <= '9' && numCount <= 3; c++)
-                                    numCount += newCountMap.getCount(c);
-
-                                if (numCount > 3)
-                                    continue;
-
-                                HashSum nextSum = sumUsingPair.get(tempPair);
-                                boolean addedSuccessfully = false;
-                                if (nextSum != null && sumCountMaps.computeIfAbsent(nextSum, key -> new HashSet<>()).add(newCountMap))
-                                    addedSuccessfully = true;
+        List<List<HashSum>> rounds = new ArrayList<>();
+        for (HashSum sum : allSums) {
+            int round = sumRound.get(sum);
+            while (round > rounds.size())
+                rounds.add(new ArrayList<>());
+            rounds.get(round - 1).add(sum);
+        }
 
-                                if (!addedSuccessfully)
-                                    newCountMap.free();
-                            }
-                        }
-                    }
-                }
+        return rounds;
+    }
 
-                if (shouldRemoveFromQueue)
-                    remainingSums.remove(i--);
-            }
+    private static HashCountVectors resolveCountVectors(HashCountVectors[] countVectors, HashSum sum) {
+        HashCountVectors newVectors = new HashCountVectors();
+        if (sum.isSingleCharacter()) // It's a single character, so start the string count vectors here.
+            newVectors.addCharacter(sum.getCharacter());
+
+        // The pairs only use sums from earlier rounds, so their count vectors are ready.
+        for (HashSumPair pair : sum.getPairs()) {
+            HashCountVectors first = countVectors[pair.getFirst().getSum()];
+            HashCountVectors second = countVectors[pair.getSecond().getSum()];
+            newVectors.addCombinations(first, second);
+            if (first != second)
+                newVectors.addCombinations(second, first);
         }
 
-        return sumCountMaps;
+        newVectors.finish();
+        return newVectors;
     }
 }
@@ -0,0 +1,294 @@
+package net.highwayfrogs.editor.system;
+
+import net.highwayfrogs.editor.Constants;
+import net.highwayfrogs.editor.utils.Utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Keeps work which is slow to redo, such as unpacked files and built textures, in a folder between sessions.
+ * Assets are named after the SHA1 hash of what they were made from, so when the source bytes change, the old asset is just never found again.
+ * The FrogLord version is part of that hash too, so assets made by another version are never used, since a fix may change what is made from the same bytes.
+ * Once the folder is bigger than MAX_CACHE_SIZE, the least recently used assets are removed.
+ * Nothing is cached unless CACHE_FOLDER is set.
+ * Created by agent on 10/18/2026.
+ */
+public class AssetCache {
+    private static final Map<String, Long> assetSizes = new LinkedHashMap<>(16, .75F, true); // Ordered from least to most recently used.
+    private static File indexedFolder;
+    private static long totalSize;
+
+    public static File CACHE_FOLDER = null; // If set, assets are cached in this folder.
+    public static long MAX_CACHE_SIZE = 1024L * 1024L * 1024L; // The most bytes the cache folder can hold before old assets are removed.
+
+    private static final int MAGIC = 0x464C4143; // "FLAC"
+    private static final byte FORMAT_BYTES = 0;
+    private static final byte FORMAT_IMAGE = 1;
+    private static final int HEADER_SIZE = 13; // Magic, format, then two integers. (Length and zero, or width and height)
+    private static final int CACHE_FORMAT_VERSION = 1; // Increase when the way assets are stored or made changes, so assets cached before aren't used.
+    private static final byte[] KEY_SALT = (Constants.VERSION + "/" + Constants.UPDATE_VERSION + "/" + CACHE_FORMAT_VERSION).getBytes(StandardCharsets.UTF_8);
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_FILE_AGE = 60 * 60 * 1000L; // Temporary files older than this were left behind by a session which stopped while writing. Newer ones may still be written by another session.
+
+    /**
+     * Test if assets are being cached.
+     * @return isEnabled
+     */
+    public static boolean isEnabled() {
+        return CACHE_FOLDER != null;
+    }
+
+    /**
+     * Makes the key an asset is cached under, by hashing everything the asset is made from.
+     * @param sourceKey The key of the data the asset is made from, or null if there isn't any.
+     * @param values    The other values the asset is made from.
+     * @return key
+     */
+    public static byte[] makeKey(byte[] sourceKey, long... values) {
+        ByteBuffer buffer = ByteBuffer.allocate((sourceKey != null ? sourceKey.length : 0) + (values.length * Long.BYTES));
+        if (sourceKey != null)
+            buffer.put(sourceKey);
+        for (long value : values)
+            buffer.putLong(value);
+        return Utils.calculateSHA1Digest(buffer.array(), buffer.capacity());
+    }
+
+    /**
+     * Gets bytes from the cache.
+     * @param kind The kind of asset, which is used as the file extension.
+     * @param key  The key the bytes were cached under.
+     * @return bytes, or null if they are not cached.
+     */
+    public static byte[] getBytes(String kind, byte[] key) {
+        ByteBuffer buffer = readAsset(kind, key, FORMAT_BYTES);
+        if (buffer == null)
+            return null;
+
+        int length = buffer.getInt();
+        buffer.getInt(); // Unused.
+        if (length != buffer.remaining())
+            return removeInvalidAsset(kind, key);
+
+        byte[] data = new byte[length];
+        buffer.get(data);
+        return data;
+    }
+
+    /**
+     * Adds bytes to the cache.
+     * @param kind The kind of asset, which is used as the file extension.
+     * @param key  The key to cache the bytes under.
+     * @param data The bytes to cache.
+     */
+    public static void putBytes(String kind, byte[] key, byte[] data) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + data.length);
+        buffer.putInt(MAGIC).put(FORMAT_BYTES).putInt(data.length).putInt(0).put(data);
+        writeAsset(kind, key, buffer);
+    }
+
+    /**
+     * Gets an image from the cache.
+     * @param kind The kind of asset, which is used as the file extension.
+     * @param key  The key the image was cached under.
+     * @return image, or null if it is not cached.
+     */
+    public static BufferedImage getImage(String kind, byte[] key) {
+        ByteBuffer buffer = readAsset(kind, key, FORMAT_IMAGE);
+        if (buffer == null)
+            return null;
+
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height * Integer.BYTES != buffer.remaining())
+            return removeInvalidAsset(kind, key);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        buffer.asIntBuffer().get(((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+        return image;
+    }
+
+    /**
+     * Adds an image to the cache. The image is stored as ARGB pixels.
+     * @param kind  The kind of asset, which is used as the file extension.
+     * @param key   The key to cache the image under.
+     * @param image The image to cache.
+     */
+    public static void putImage(String kind, byte[] key, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getType() == BufferedImage.TYPE_INT_ARGB
+                ? ((DataBufferInt) image.getRaster().getDataBuffer()).getData()
+                : image.getRGB(0, 0, width, height, null, 0, width);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (pixels.length * Integer.BYTES));
+        buffer.putInt(MAGIC).put(FORMAT_IMAGE).putInt(width).putInt(height);
+        buffer.asIntBuffer().put(pixels);
+        writeAsset(kind, key, buffer);
+    }
+
+    /**
+     * Removes every cached asset.
+     */
+    public static synchronized void clear() {
+        if (!isEnabled())
+            return;
+
+        indexFolder();
+        Iterator<Map.Entry<String, Long>> iterator = assetSizes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (deleteAssetFile(entry.getKey())) {
+                totalSize -= entry.getValue();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static ByteBuffer readAsset(String kind, byte[] key, byte format) {
+        if (!isEnabled() || key == null)
+            return null;
+
+        String fileName = getFileName(kind, key);
+        synchronized (AssetCache.class) {
+            indexFolder();
+            if (assetSizes.get(fileName) == null) // Marks the asset as used.
+                return null;
+        }
+
+        File file = new File(CACHE_FOLDER, fileName);
+        try {
+            // The file is read instead of memory mapped, since a mapped file can't be deleted or replaced on Windows until the mapping is garbage collected.
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != format)
+                throw new IOException("The cached asset has an invalid header.");
+
+            file.setLastModified(System.currentTimeMillis()); // Remembers that the asset was used, for the next session.
+            return buffer;
+        } catch (IOException ex) {
+            System.out.println("Failed to read cached asset " + fileName + ", it will be made again. (" + ex.getMessage() + ")");
+            removeAsset(fileName);
+            return null;
+        }
+    }
+
+    private static void writeAsset(String kind, byte[] key, ByteBuffer buffer) {
+        if (!isEnabled() || key == null || buffer.capacity() > MAX_CACHE_SIZE)
+            return;
+
+        String fileName = getFileName(kind, key);
+        File file = new File(CACHE_FOLDER, fileName);
+        Path tempFile = null;
+        try {
+            Utils.makeDirectory(CACHE_FOLDER);
+            tempFile = Files.createTempFile(CACHE_FOLDER.toPath(), fileName + ".", TEMP_FILE_SUFFIX); // The name is unique, even if another session is writing the same asset.
+            buffer.rewind();
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+
+            // Moving the finished file into place means another thread or session never sees half of an asset.
+            try {
+                Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            System.out.println("Failed to cache asset " + fileName + ". (" + ex.getMessage() + ")");
+            try {
+                if (tempFile != null)
+                    Files.deleteIfExists(tempFile);
+            } catch (IOException deleteEx) {
+                System.out.println("Failed to delete " + tempFile + ". (" + deleteEx.getMessage() + ")");
+            }
+            return;
+        }
+
+        synchronized (AssetCache.class) {
+            indexFolder();
+            Long oldSize = assetSizes.put(fileName, (long) buffer.capacity());
+            totalSize += buffer.capacity() - (oldSize != null ? oldSize : 0);
+
+            // Remove the least recently used assets until the cache is small enough.
+            Iterator<Map.Entry<String, Long>> iterator = assetSizes.entrySet().iterator();
+            while (totalSize > MAX_CACHE_SIZE && iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                if (entry.getKey().equals(fileName) || !deleteAssetFile(entry.getKey()))
+                    continue; // Assets which can't be deleted still take up space, so they are still counted.
+
+                totalSize -= entry.getValue();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static <T> T removeInvalidAsset(String kind, byte[] key) {
+        String fileName = getFileName(kind, key);
+        System.out.println("The cached asset " + fileName + " is the wrong size, it will be made again.");
+        removeAsset(fileName);
+        return null;
+    }
+
+    private static synchronized void removeAsset(String fileName) {
+        if (!deleteAssetFile(fileName))
+            return; // The file is still there, so it is still counted.
+
+        Long size = assetSizes.remove(fileName);
+        if (size != null)
+            totalSize -= size;
+    }
+
+    private static boolean deleteAssetFile(String fileName) {
+        File file = new File(CACHE_FOLDER, fileName);
+        if (file.delete() || !file.exists())
+            return true;
+
+        System.out.println("Failed to delete cached asset " + fileName + ".");
+        return false;
+    }
+
+    private static void indexFolder() {
+        if (CACHE_FOLDER.equals(indexedFolder))
+            return;
+
+        assetSizes.clear();
+        totalSize = 0;
+        indexedFolder = CACHE_FOLDER;
+
+        File[] files = CACHE_FOLDER.listFiles();
+        if (files == null)
+            return; // The folder hasn't been made yet.
+
+        // Files are touched when used, so sorting by modification time gives the order they were last used in.
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long staleTime = System.currentTimeMillis() - STALE_TEMP_FILE_AGE;
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                if (file.lastModified() < staleTime) // Left behind by a session which stopped while writing.
+                    file.delete();
+            } else if (file.isFile()) {
+                assetSizes.put(file.getName(), file.length());
+                totalSize += file.length();
+            }
+        }
+    }
+
+    private static String getFileName(String kind, byte[] key) {
+        byte[] saltedKey = new byte[KEY_SALT.length + key.length];
+        System.arraycopy(KEY_SALT, 0, saltedKey, 0, KEY_SALT.length);
+        System.arraycopy(key, 0, saltedKey, KEY_SALT.length, key.length);
+        return Utils.toHexString(Utils.calculateSHA1Digest(saltedKey, saltedKey.length)) + "." + kind;
+    }
+}
@@ -0,0 +1,301 @@
+package net.highwayfrogs.editor.system;
+
+import lombok.Getter;
+import net.highwayfrogs.editor.file.GameFile;
+import net.highwayfrogs.editor.file.MWIFile.FileEntry;
+import net.highwayfrogs.editor.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long each step of loading and saving takes for each file, how many bytes go in and out, and how much memory is allocated.
+ * Nothing is recorded unless ENABLED is set, so the steps only cost a flag check when metrics are not wanted.
+ * Times include anything done inside of the step, so a WAD's load time includes loading the files inside of it.
+ * Created by agent on 10/18/2026.
+ */
+public class FileMetrics {
+    private static final Map<FileEntry, EntryMetrics> entryMetrics = new ConcurrentHashMap<>();
+    private static final AtomicLong nextOrder = new AtomicLong();
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = getAllocationBean();
+
+    public static boolean ENABLED = false; // Enable to record metrics.
+    public static File EXPORT_FOLDER = null; // If set, the metrics of each load and save are written to this folder as JSON and CSV.
+
+    /**
+     * A step in loading or saving a file.
+     */
+    public enum Stage {
+        READ, // Reading the bytes of the file from the archive.
+        DECOMPRESS, // Unpacking PP20 compressed bytes.
+        CACHE, // Reading unpacked bytes from the asset cache, instead of unpacking them.
+        HASH, // Calculating the SHA1 hash of the bytes.
+        LOAD, // Reading the file from its bytes.
+        SAVE, // Writing the file to bytes.
+        COMPRESS // Packing the bytes with PP20.
+    }
+
+    /**
+     * Starts timing a step.
+     * @return timer, or null if metrics are disabled.
+     */
+    public static Timer startTimer() {
+        return ENABLED ? new Timer() : null;
+    }
+
+    /**
+     * Records a step which has finished.
+     * @param entry    The entry of the file the step was for.
+     * @param file     The file the step was for, if it has been created yet.
+     * @param stage    The step which was done.
+     * @param timer    The timer started before the step, or null if metrics were disabled.
+     * @param bytesIn  The number of bytes the step started with.
+     * @param bytesOut The number of bytes the step ended with.
+     */
+    public static void record(FileEntry entry, GameFile file, Stage stage, Timer timer, long bytesIn, long bytesOut) {
+        if (timer == null || entry == null)
+            return;
+
+        long nanos = System.nanoTime() - timer.startNanos;
+        long allocatedBytes = timer.startAllocatedBytes >= 0 ? getAllocatedBytes() - timer.startAllocatedBytes : 0;
+        entryMetrics.computeIfAbsent(entry, EntryMetrics::new).add(file, stage, nanos, bytesIn, bytesOut, allocatedBytes);
+    }
+
+    /**
+     * Gets the metrics recorded for each file, in the order the files were first recorded.
+     * @return entryMetrics
+     */
+    public static List<EntryMetrics> getEntryMetrics() {
+        List<EntryMetrics> results = new ArrayList<>(entryMetrics.values());
+        results.sort(Comparator.comparingLong(EntryMetrics::getOrder));
+        return results;
+    }
+
+    /**
+     * Adds up the metrics of every file of each type.
+     * @return typeMetrics, keyed by the name of the file type.
+     */
+    public static Map<String, EntryMetrics> getTypeMetrics() {
+        Map<String, EntryMetrics> results = new TreeMap<>();
+        for (EntryMetrics metrics : getEntryMetrics())
+            results.computeIfAbsent(metrics.getFileType(), EntryMetrics::new).addAll(metrics);
+        return results;
+    }
+
+    /**
+     * Removes all recorded metrics.
+     */
+    public static void reset() {
+        entryMetrics.clear();
+    }
+
+    /**
+     * Called once a load or save has finished. Writes the metrics to EXPORT_FOLDER if it is set, then resets them.
+     * @param operation The name of what finished, such as "load" or "save".
+     * @param timer     The timer started before the whole load or save, or null if metrics were disabled.
+     */
+    public static void finish(String operation, Timer timer) {
+        if (!ENABLED || timer == null)
+            return;
+
+        long totalNanos = System.nanoTime() - timer.startNanos;
+
+        if (EXPORT_FOLDER != null) {
+            Utils.makeDirectory(EXPORT_FOLDER);
+            File jsonFile = new File(EXPORT_FOLDER, operation + "-metrics.json");
+            File csvFile = new File(EXPORT_FOLDER, operation + "-metrics.csv");
+            try {
+                writeJson(jsonFile, operation, totalNanos);
+                writeCsv(csvFile);
+                System.out.println("Saved " + operation + " metrics to " + jsonFile.getName() + " and " + csvFile.getName() + ". (Total Time: " + formatMillis(totalNanos) + "ms)");
+            } catch (IOException ex) {
+                throw new RuntimeException("Failed to save " + operation + " metrics.", ex);
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Writes the recorded metrics as JSON.
+     * @param file       The file to write to.
+     * @param operation  The name of what the metrics are for.
+     * @param totalNanos How long the whole operation took.
+     */
+    public static void writeJson(File file, String operation, long totalNanos) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.print("{\"operation\":\"" + Utils.escapeJson(operation) + "\",\"totalMs\":" + formatMillis(totalNanos) + ",\"files\":[");
+            boolean first = true;
+            for (EntryMetrics metrics : getEntryMetrics()) {
+                writer.print(first ? "" : ",");
+                writer.print("{\"file\":\"" + Utils.escapeJson(metrics.getFileName()) + "\",");
+                metrics.writeJson(writer);
+                first = false;
+            }
+
+            writer.print("],\"types\":[");
+            first = true;
+            for (EntryMetrics metrics : getTypeMetrics().values()) {
+                writer.print(first ? "" : ",");
+                writer.print("{\"files\":" + metrics.getFileCount() + ",");
+                metrics.writeJson(writer);
+                first = false;
+            }
+
+            writer.println("]}");
+        }
+    }
+
+    /**
+     * Writes the recorded metrics as CSV, with one row for each step of each file.
+     * @param file The file to write to.
+     */
+    public static void writeCsv(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println("file,type,stage,count,ms,bytesIn,bytesOut,allocatedBytes");
+            for (EntryMetrics metrics : getEntryMetrics()) {
+                for (Stage stage : Stage.values()) {
+                    int index = stage.ordinal();
+                    if (metrics.counts[index] == 0)
+                        continue;
+
+                    writer.println(metrics.getFileName() + "," + metrics.getFileType() + "," + stage + "," + metrics.counts[index] + ","
+                            + formatMillis(metrics.nanos[index]) + "," + metrics.bytesIn[index] + "," + metrics.bytesOut[index] + "," + metrics.allocatedBytes[index]);
+                }
+            }
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000000D);
+    }
+
+    private static long getAllocatedBytes() {
+        return ALLOCATION_BEAN != null ? ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return null; // Only some JVMs can count allocations.
+
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+        return allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled() ? allocationBean : null;
+    }
+
+    /**
+     * The time and allocation count when a step started.
+     */
+    public static final class Timer {
+        private final long startNanos;
+        private final long startAllocatedBytes;
+
+        private Timer() {
+            this.startAllocatedBytes = getAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * The metrics recorded for a single file, or added up for a type of file.
+     */
+    @Getter
+    public static class EntryMetrics {
+        private final String fileName;
+        private final long order;
+        private String fileType;
+        private int fileCount;
+        private final int[] counts = new int[Stage.values().length];
+        private final long[] nanos = new long[Stage.values().length];
+        private final long[] bytesIn = new long[Stage.values().length];
+        private final long[] bytesOut = new long[Stage.values().length];
+        private final long[] allocatedBytes = new long[Stage.values().length];
+
+        private EntryMetrics(FileEntry entry) {
+            this.fileName = entry.getDisplayName();
+            this.order = nextOrder.getAndIncrement();
+            this.fileType = "Unknown";
+            this.fileCount = 1;
+        }
+
+        private EntryMetrics(String fileType) {
+            this.fileName = null;
+            this.order = 0;
+            this.fileType = fileType;
+        }
+
+        private synchronized void add(GameFile file, Stage stage, long nanos, long bytesIn, long bytesOut, long allocatedBytes) {
+            if (file != null)
+                this.fileType = file.getClass().getSimpleName();
+
+            int index = stage.ordinal();
+            this.counts[index]++;
+            this.nanos[index] += nanos;
+            this.bytesIn[index] += bytesIn;
+            this.bytesOut[index] += bytesOut;
+            this.allocatedBytes[index] += allocatedBytes;
+        }
+
+        private void addAll(EntryMetrics other) {
+            this.fileCount++;
+            for (int i = 0; i < this.counts.length; i++) {
+                this.counts[i] += other.counts[i];
+                this.nanos[i] += other.nanos[i];
+                this.bytesIn[i] += other.bytesIn[i];
+                this.bytesOut[i] += other.bytesOut[i];
+                this.allocatedBytes[i] += other.allocatedBytes[i];
+            }
+        }
+
+        /**
+         * Gets the total time of every step, in milliseconds.
+         * @return totalMillis
+         */
+        public double getTotalMillis() {
+            long total = 0;
+            for (long stageNanos : this.nanos)
+                total += stageNanos;
+            return total / 1000000D;
+        }
+
+        /**
+         * Gets the size of the compressed bytes compared to the uncompressed bytes.
+         * @return compressionRatio, or -1 if the file was not compressed or decompressed.
+         */
+        public double getCompressionRatio() {
+            int compress = Stage.COMPRESS.ordinal();
+            if (this.bytesIn[compress] > 0)
+                return (double) this.bytesOut[compress] / this.bytesIn[compress];
+
+            int decompress = Stage.DECOMPRESS.ordinal();
+            if (this.bytesOut[decompress] > 0)
+                return (double) this.bytesIn[decompress] / this.bytesOut[decompress];
+
+            return -1;
+        }
+
+        private void writeJson(PrintWriter writer) {
+            writer.print("\"type\":\"" + Utils.escapeJson(this.fileType) + "\",\"ms\":" + String.format(Locale.ROOT, "%.3f", getTotalMillis())
+                    + ",\"compressionRatio\":" + String.format(Locale.ROOT, "%.4f", getCompressionRatio()) + ",\"stages\":{");
+
+            boolean first = true;
+            for (Stage stage : Stage.values()) {
+                int index = stage.ordinal();
+                if (this.counts[index] == 0)
+                    continue;
+
+                writer.print((first ? "" : ",") + "\"" + stage + "\":{\"count\":" + this.counts[index] + ",\"ms\":" + formatMillis(this.nanos[index])
+                        + ",\"bytesIn\":" + this.bytesIn[index] + ",\"bytesOut\":" + this.bytesOut[index] + ",\"allocatedBytes\":" + this.allocatedBytes[index] + "}");
+                first = false;
+            }
+
+            writer.print("}}");
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package net.highwayfrogs.editor.utils;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.Setter;
 import net.highwayfrogs.editor.Constants;
 import net.highwayfrogs.editor.file.MWIFile.FileEntry;
+import net.highwayfrogs.editor.file.WADFile;
 import net.highwayfrogs.editor.file.config.Config;
 import net.highwayfrogs.editor.file.config.FroggerEXEInfo;
+import net.highwayfrogs.editor.file.packers.PP20Unpacker;
+import net.highwayfrogs.editor.file.reader.ArraySource;
+import net.highwayfrogs.editor.file.reader.DataReader;
+import net.highwayfrogs.editor.file.reader.MappedFileSource;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
@@ -26,6 +33,7 @@ public class FroggerVersionComparison {
 
     /**
      * Generates a report of the differences.
+     * Each file version is linked to the versions before and after it, so the reports can be written without searching the version lists.
      */
     public static void generateReport() {
         Map<String, String> linkedFiles = new HashMap<>();
@@ -49,6 +57,10 @@ public class FroggerVersionComparison {
 
         for (FroggerGameBuild build : gameBuilds) {
             for (FroggerGameFileEntry entry : build.getFiles()) {
+                entry.setTracker(null);
+                entry.setPreviousVersion(null);
+                entry.setNextVersion(null);
+                entry.setUnique(false);
                 if (entry.getFullPath().endsWith(".WAD"))
                     continue; // Skip .WAD files, since we only care about the files inside the WAD, not the WAD itself.
 
@@ -60,120 +72,125 @@ public class FroggerVersionComparison {
                     fileTrackers.add(tracker);
                 }
 
-                tracker.getFiles().add(entry);
+                tracker.addFile(entry);
             }
         }
 
-        StringBuilder buildByFile = new StringBuilder();
+        File reportFolder = versionConfigFile.getParentFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(new File(reportFolder, "report-by-file.txt").toPath(), StandardCharsets.UTF_8)) {
+            writeReportByFile(writer, fileTrackers);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            System.out.println("Failed to write report to file.");
+            return;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(new File(reportFolder, "report-by-version.txt").toPath(), StandardCharsets.UTF_8)) {
+            writeReportByVersion(writer);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            System.out.println("Failed to write report to file.");
+            return;
+        }
+
+        System.out.println("Reports saved to text files.");
+    }
+
+    private static void writeReportByFile(Writer writer, List<FroggerFileTracker> fileTrackers) throws IOException {
         Set<String> seenHashes = new HashSet<>();
         for (FroggerFileTracker tracker : fileTrackers) {
-            buildByFile.append(tracker.getFileIdentifier()).append(":").append(Constants.NEWLINE);
+            writer.append(tracker.getFileIdentifier()).append(":").append(Constants.NEWLINE);
 
             FroggerGameFileEntry lastFileEntry = null;
             for (FroggerGameFileEntry entry : tracker.getFiles()) {
 
                 if (lastFileEntry != null && !lastFileEntry.getFullPath().equals(entry.getFullPath()))
-                    buildByFile.append(" - RENAMED: ").append(entry.getBuild().getBuildName()).append(", ").append(entry.getFullPath()).append(Constants.NEWLINE);
+                    writer.append(" - RENAMED: ").append(entry.getBuild().getBuildName()).append(", ").append(entry.getFullPath()).append(Constants.NEWLINE);
 
                 if (lastFileEntry != null) {
                     boolean didChange = (lastFileEntry.getFileSize() != entry.getFileSize()) || !lastFileEntry.getSha1Hash().equals(entry.getSha1Hash());
                     if (didChange) {
-                        buildByFile.append(" - CHANGE:  ").append(entry.getBuild().getBuildName()).append(", Size: ").append(entry.getFileSize()).append(", SHA1: ").append(entry.getSha1Hash());
-                        tracker.getUniqueFiles().add(entry);
+                        writer.append(" - CHANGE:  ").append(entry.getBuild().getBuildName()).append(", Size: ").append(String.valueOf(entry.getFileSize())).append(", SHA1: ").append(entry.getSha1Hash());
+                        entry.setUnique(true);
                     } else {
                         lastFileEntry = entry;
                         continue;
                     }
                 } else {
-                    buildByFile.append(" - INITIAL: ").append(entry.getBuild().getBuildName()).append(", Size: ").append(entry.getFileSize()).append(",SHA1: ").append(entry.getSha1Hash());
-                    tracker.getUniqueFiles().add(entry);
+                    writer.append(" - INITIAL: ").append(entry.getBuild().getBuildName()).append(", Size: ").append(String.valueOf(entry.getFileSize())).append(",SHA1: ").append(entry.getSha1Hash());
+                    entry.setUnique(true);
                 }
 
                 if (!seenHashes.add(entry.getSha1Hash()))
-                    buildByFile.append(" **FILE ALREADY SEEN**");
-                buildByFile.append(Constants.NEWLINE);
+                    writer.append(" **FILE ALREADY SEEN**");
+                writer.append(Constants.NEWLINE);
 
                 lastFileEntry = entry;
             }
 
             FroggerGameFileEntry lastFile = tracker.getFiles().size() > 0 ? tracker.getFiles().get(tracker.getFiles().size() - 1) : null;
             if (lastFile != null && !lastFile.getBuild().getBuildName().contains("retail"))
-                buildByFile.append(" - REMOVED: The last version this file was seen was ").append(lastFile.getBuild().getBuildName()).append(".").append(Constants.NEWLINE);
+                writer.append(" - REMOVED: The last version this file was seen was ").append(lastFile.getBuild().getBuildName()).append(".").append(Constants.NEWLINE);
 
-            buildByFile.append(Constants.NEWLINE);
+            writer.append(Constants.NEWLINE);
         }
+    }
 
+    private static void writeReportByVersion(Writer writer) throws IOException {
         FroggerGameBuild lastBuild = null;
-        StringBuilder buildByVersion = new StringBuilder();
         for (FroggerGameBuild build : gameBuilds) {
-            buildByVersion.append(build.getBuildName()).append(":").append(Constants.NEWLINE);
+            writer.append(build.getBuildName()).append(":").append(Constants.NEWLINE);
 
             // Find changed files.
             int changeCount = 0;
             for (FroggerGameFileEntry entry : build.getFiles()) {
-                // Find tracker.
-                String linkedPath = linkedFiles.getOrDefault(entry.getFullPath(), entry.getFullPath());
-                FroggerFileTracker tracker = trackerMap.get(linkedPath);
-                if (tracker == null)
+                if (entry.getTracker() == null)
                     continue; // Probably wad file.
-                if (!tracker.getUniqueFiles().contains(entry))
+                if (!entry.isUnique())
                     continue; // Duplicate of another file.
 
                 changeCount++;
-                buildByVersion.append(" - ").append(entry.getFileName());
+                writer.append(" - ").append(entry.getFileName());
 
-                int fullTrackerIndex = tracker.getFiles().indexOf(entry);
-                FroggerGameFileEntry changedFrom = fullTrackerIndex > 0 ? tracker.getFiles().get(fullTrackerIndex - 1) : null;
+                FroggerGameFileEntry changedFrom = entry.getPreviousVersion();
                 boolean wasSeenInLastBuild = (changedFrom != null) && (lastBuild == changedFrom.getBuild());
 
                 if (changedFrom == null) {
-                    buildByVersion.append(" was seen for the first time.").append(Constants.NEWLINE);
+                    writer.append(" was seen for the first time.").append(Constants.NEWLINE);
                 } else if (wasSeenInLastBuild) {
-                    buildByVersion.append(" changed from ").append(changedFrom.getBuild().getBuildName()).append(".").append(Constants.NEWLINE);
+                    writer.append(" changed from ").append(changedFrom.getBuild().getBuildName()).append(".").append(Constants.NEWLINE);
                 } else {
-                    buildByVersion.append(" was re-added.").append(Constants.NEWLINE);
+                    writer.append(" was re-added.").append(Constants.NEWLINE);
                 }
             }
 
             // Find removed files.
             if (lastBuild != null) {
                 for (FroggerGameFileEntry entry : lastBuild.getFiles()) {
-                    String linkedPath = linkedFiles.getOrDefault(entry.getFullPath(), entry.getFullPath());
-                    FroggerFileTracker tracker = trackerMap.get(linkedPath);
-                    if (tracker == null)
+                    if (entry.getTracker() == null)
                         continue; // Probably wad file.
 
-                    int index = tracker.getFiles().indexOf(entry);
-                    FroggerGameFileEntry nextEntry = index >= 0 && tracker.getFiles().size() > index + 1 ? tracker.getFiles().get(index + 1) : null;
-
+                    FroggerGameFileEntry nextEntry = entry.getNextVersion();
                     if (nextEntry == null || nextEntry.getBuild() != build)
-                        buildByVersion.append(" - ").append(entry.getFileName()).append(" was deleted.").append(Constants.NEWLINE);
+                        writer.append(" - ").append(entry.getFileName()).append(" was deleted.").append(Constants.NEWLINE);
                 }
             }
 
-            buildByVersion.append("Results: ").append(changeCount).append("/").append(build.getFiles().size())
+            writer.append("Results: ").append(String.valueOf(changeCount)).append("/").append(String.valueOf(build.getFiles().size()))
                     .append(" files should be looked at.").append(Constants.NEWLINE).append(Constants.NEWLINE);
 
             // Next build!
             lastBuild = build;
         }
-
-        try {
-            Files.write(new File(versionConfigFile.getParentFile(), "report-by-file.txt").toPath(), buildByFile.toString().getBytes(StandardCharsets.UTF_8));
-            Files.write(new File(versionConfigFile.getParentFile(), "report-by-version.txt").toPath(), buildByVersion.toString().getBytes(StandardCharsets.UTF_8));
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            System.out.println("Failed to write report to file.");
-        }
-
-        System.out.println("Reports saved to text files.");
     }
 
     /**
      * Adds a new version of the game to the version config.
+     * The SHA1 hashes of the files are calculated from the MWD, so files which have not been loaded are included too.
      * @param versionToAdd The version of the game to add.
+     * @param mwdFile      The MWD file of the version.
      */
-    public static void addNewVersionToConfig(FroggerEXEInfo versionToAdd) {
+    public static void addNewVersionToConfig(FroggerEXEInfo versionToAdd, File mwdFile) {
         if (!isEnabled())
             return;
 
@@ -182,6 +199,12 @@ public class FroggerVersionComparison {
             return;
         }
 
+        try {
+            calculateHashes(versionToAdd, mwdFile);
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to calculate the hashes of the files in '" + mwdFile.getName() + "'.", ex);
+        }
+
         FroggerGameBuild newBuild = new FroggerGameBuild(versionToAdd.getInternalName());
         for (FileEntry entry : versionToAdd.getMWI().getEntries())
             if (entry != null && entry.getFullFilePath() != null)
@@ -196,6 +219,54 @@ public class FroggerVersionComparison {
         System.out.println("Added new version to config.");
     }
 
+    /**
+     * Calculates the SHA1 hash of each file in a MWD which doesn't have one yet, including the files inside WADs.
+     * The files are read from the memory-mapped MWD and hashed on every core, without being loaded.
+     * @param config  The config of the version the MWD belongs to.
+     * @param mwdFile The MWD file to hash the files of.
+     */
+    public static void calculateHashes(FroggerEXEInfo config, File mwdFile) throws IOException {
+        MappedFileSource source = new MappedFileSource(mwdFile);
+        List<FileEntry> entries = new ArrayList<>();
+        for (FileEntry entry : config.getMWI().getEntries())
+            if (!entry.testFlag(FileEntry.FLAG_GROUP_ACCESS)) // Files which are part of a WAD archive are hashed with the WAD.
+                entries.add(entry);
+
+        entries.parallelStream().forEach(entry -> {
+            // Each task reads from its own slice, since sources are not thread-safe.
+            byte[] data = new DataReader(source.slice(entry.getArchiveOffset(), entry.getArchiveSize())).readBytes(entry.getArchiveSize());
+            if (entry.isCompressed())
+                data = PP20Unpacker.unpackData(data);
+
+            if (entry.getSha1Hash() == null)
+                entry.setSha1Hash(Utils.calculateSHA1Hash(data));
+            if (entry.getTypeId() == WADFile.TYPE_ID)
+                calculateWadHashes(config, data);
+        });
+    }
+
+    private static void calculateWadHashes(FroggerEXEInfo config, byte[] wadData) {
+        DataReader reader = new DataReader(new ArraySource(wadData));
+        while (true) { // This reads the same layout as WADFile.load().
+            int resourceId = reader.readInt();
+            if (resourceId == -1)
+                break; // There are no more files.
+
+            reader.skipInt(); // File type.
+            int size = reader.readInt();
+            reader.skipInt(); // Padding.
+
+            byte[] data = reader.readBytes(size);
+            FileEntry wadFileEntry = config.getResourceEntry(resourceId);
+            if (wadFileEntry == null || wadFileEntry.getSha1Hash() != null)
+                continue;
+
+            if (PP20Unpacker.isCompressed(data))
+                data = PP20Unpacker.unpackData(data);
+            wadFileEntry.setSha1Hash(Utils.calculateSHA1Hash(data));
+        }
+    }
+
     /**
      * Represents a file tracked over time.
      */
@@ -203,11 +274,24 @@ public class FroggerVersionComparison {
     private static class FroggerFileTracker {
         private final String fileIdentifier;
         private final List<FroggerGameFileEntry> files = new ArrayList<>();
-        private final List<FroggerGameFileEntry> uniqueFiles = new ArrayList<>();
 
         public FroggerFileTracker(String fileIdentifier) {
             this.fileIdentifier = fileIdentifier;
         }
+
+        /**
+         * Adds the next version of the tracked file, linking it to the version before it.
+         * @param entry The file version to add.
+         */
+        public void addFile(FroggerGameFileEntry entry) {
+            FroggerGameFileEntry lastEntry = this.files.size() > 0 ? this.files.get(this.files.size() - 1) : null;
+            if (lastEntry != null)
+                lastEntry.setNextVersion(entry);
+
+            entry.setTracker(this);
+            entry.setPreviousVersion(lastEntry);
+            this.files.add(entry);
+        }
     }
 
     @Getter
@@ -233,12 +317,22 @@ public class FroggerVersionComparison {
     }
 
     @Getter
-    @AllArgsConstructor
     private static class FroggerGameFileEntry {
         private final FroggerGameBuild build;
         private final String fullPath;
         private final int fileSize;
         private final String sha1Hash;
+        @Setter private transient FroggerFileTracker tracker; // The following are set up when a report is generated.
+        @Setter private transient FroggerGameFileEntry previousVersion;
+        @Setter private transient FroggerGameFileEntry nextVersion;
+        @Setter private transient boolean unique; // Whether this version differs from the version before it.
+
+        public FroggerGameFileEntry(FroggerGameBuild build, String fullPath, int fileSize, String sha1Hash) {
+            this.build = build;
+            this.fullPath = fullPath;
+            this.fileSize = fileSize;
+            this.sha1Hash = sha1Hash;
+        }
 
         /**
          * Gets the file name on its own.
@@ -1571,6 +1571,11 @@ public class Utils {
     public static void makeErrorPopUp(String message, Exception ex, boolean printException) {
         if (printException)
             ex.printStackTrace();
+        if (GUIMain.HEADLESS) {
+            System.out.println("[ERROR] " + (message != null && message.length() > 0 ? message + " " : "") + "Error: " + ex.getMessage());
+            return;
+        }
+
         new Alert(AlertType.ERROR, (message != null && message.length() > 0 ? message + Constants.NEWLINE : "") + "Error: " + ex.getMessage(), ButtonType.OK).showAndWait();
     }
 
@@ -1579,6 +1584,11 @@ public class Utils {
      * @param message The message to display.
      */
     public static void makePopUp(String message, AlertType type) {
+        if (GUIMain.HEADLESS) {
+            System.out.println("[" + type + "] " + message);
+            return;
+        }
+
         new Alert(type, message, ButtonType.OK).showAndWait();
     }
 
@@ -1587,6 +1597,11 @@ public class Utils {
      * @param message The message to display.
      */
     public static boolean makePopUpYesNo(String message) {
+        if (GUIMain.HEADLESS) {
+            System.out.println("[CONFIRMATION] " + message + " (Answered no, since there is no GUI.)");
+            return false;
+        }
+
         return new Alert(AlertType.CONFIRMATION, message, ButtonType.YES, ButtonType.NO).showAndWait().orElse(ButtonType.NO) == ButtonType.YES;
     }
 
@@ -1802,6 +1817,27 @@ public class Utils {
         return croppedImage;
     }
 
+    /**
+     * Escapes text so it can be put between quotes in JSON.
+     * @param text The text to escape.
+     * @return escapedText
+     */
+    public static String escapeJson(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
     /**
      * Calculate the SHA1 hash of the bytes.
      * @param data The data to calculate the SHA1 hash of.
@@ -1819,6 +1855,31 @@ public class Utils {
         }
     }
 
+    /**
+     * Calculates the SHA1 hash of some bytes.
+     * @param data   The bytes to hash.
+     * @param length The number of bytes in the array to hash.
+     * @return sha1Hash
+     */
+    public static byte[] calculateSHA1Digest(byte[] data, int length) {
+        try {
+            MessageDigest crypt = MessageDigest.getInstance("SHA-1");
+            crypt.update(data, 0, length);
+            return crypt.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException("Failed to calculate SHA1 hash.", ex);
+        }
+    }
+
+    /**
+     * Gets bytes as a lowercase hex string, such as to name a file after a hash.
+     * @param data The bytes to convert.
+     * @return hexString
+     */
+    public static String toHexString(byte[] data) {
+        return byteToHex(data);
+    }
+
     private static String byteToHex(final byte[] hash) {
         Formatter formatter = new Formatter();
         for (byte b : hash)